@@ -12,4 +12,6 @@ public class JwtConfig {
     private String secret;
     private long accessTokenExpiration;
     private long refreshTokenExpiration;
+    /** Сколько проверенных токенов держать в кэше JwtTokenProvider. */
+    private long verifiedCacheSize = 10000;
 }
@@ -4,6 +4,8 @@ import io.minio.MinioClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
 
 @Configuration
 public class MinioConfig {
@@ -17,11 +19,33 @@ public class MinioConfig {
     @Value("${minio.secret-key}")
     private String secretKey;
 
+    @Value("${minio.public-endpoint:}")
+    private String publicEndpoint;
+
+    @Value("${minio.region:us-east-1}")
+    private String region;
+
     @Bean
+    @Primary
     public MinioClient minioClient() {
         return MinioClient.builder()
                 .endpoint(endpoint)
                 .credentials(accessKey, secretKey)
+                .region(region)
+                .build();
+    }
+
+    /**
+     * Клиент только для подписи ссылок: подпись включает хост, поэтому
+     * ссылки для браузера подписываются внешним адресом MinIO. Регион задан
+     * явно — подпись выполняется локально, без обращения к хранилищу.
+     */
+    @Bean
+    public MinioClient presignMinioClient() {
+        return MinioClient.builder()
+                .endpoint(StringUtils.hasText(publicEndpoint) ? publicEndpoint : endpoint)
+                .credentials(accessKey, secretKey)
+                .region(region)
                 .build();
     }
 }
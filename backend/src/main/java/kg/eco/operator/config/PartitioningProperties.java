@@ -0,0 +1,31 @@
+package kg.eco.operator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Настройки обслуживания помесячных партиций (см. V31 и PartitionMaintenanceJob).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "partitioning")
+public class PartitioningProperties {
+
+    /** Сколько месяцев вперёд держать готовые партиции. */
+    private int premakeMonths = 3;
+
+    /** Политика хранения по таблицам. Таблица без записи не чистится. */
+    private Map<String, Retention> tables = new LinkedHashMap<>();
+
+    @Data
+    public static class Retention {
+        /** Сколько полных месяцев хранить; 0 — хранить бессрочно. */
+        private int retentionMonths;
+        /** drop — удалить партицию; archive — перенести в схему archive. */
+        private String mode = "drop";
+    }
+}
@@ -0,0 +1,50 @@
+package kg.eco.operator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ограничение частоты запросов к публичным эндпоинтам (см. RateLimitFilter).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Сколько пар (IP, класс маршрута) держать в памяти; лишние вытесняются. */
+    private long maxClients = 100_000;
+
+    /** Через сколько простоя бакет клиента забывается (он к этому времени и так полон). */
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    /**
+     * Брать IP клиента из X-Real-IP / X-Forwarded-For (приложение стоит
+     * за nginx). Выключать, если порт приложения доступен напрямую.
+     */
+    private boolean trustProxyHeaders = true;
+
+    /**
+     * Классы маршрутов: проверяются по порядку, срабатывает первый, чей
+     * шаблон подошёл. Запрос, не попавший ни в один класс, не ограничивается.
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        /** Шаблоны путей (без context-path), например /public/licenses/**. */
+        private List<String> patterns = new ArrayList<>();
+        /** Размер бакета — сколько запросов можно сделать подряд. */
+        private int capacity = 60;
+        /** Скорость пополнения, запросов в секунду. */
+        private double refillPerSecond = 1.0;
+    }
+}
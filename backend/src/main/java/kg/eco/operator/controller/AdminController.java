@@ -45,6 +45,15 @@ public class AdminController {
                 .body(adminService.createNotificationTemplate(request));
     }
 
+    /**
+     * PUT /admin/notification-templates/{id} — Изменить шаблон уведомления
+     */
+    @PutMapping("/notification-templates/{id}")
+    public ResponseEntity<Map<String, Object>> updateNotificationTemplate(
+            @PathVariable Long id, @RequestBody Map<String, Object> request) {
+        return ResponseEntity.ok(adminService.updateNotificationTemplate(id, request));
+    }
+
     /**
      * GET /admin/rates — Ставки утилизационного сбора по ПКМ №730
      */
@@ -86,4 +95,29 @@ public class AdminController {
         adminService.updateSettings(settings);
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * GET /admin/scheduled-jobs — Плановые задания: узел-владелец, последний запуск и длительность
+     */
+    @GetMapping("/scheduled-jobs")
+    public ResponseEntity<List<Map<String, Object>>> getScheduledJobs() {
+        return ResponseEntity.ok(adminService.getScheduledJobs());
+    }
+
+    /**
+     * GET /admin/rate-limit-stats — Лимиты публичных эндпоинтов: пропущено / отклонено по классам маршрутов
+     */
+    @GetMapping("/rate-limit-stats")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(adminService.getRateLimitStats());
+    }
+
+    /**
+     * POST /admin/users/{id}/revoke-tokens — Отозвать все токены пользователя (принудительный выход)
+     */
+    @PostMapping("/users/{id}/revoke-tokens")
+    public ResponseEntity<Void> revokeUserTokens(@PathVariable Long id) {
+        adminService.revokeUserTokens(id);
+        return ResponseEntity.noContent().build();
+    }
 }
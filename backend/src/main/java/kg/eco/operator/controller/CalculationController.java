@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/calculations")
@@ -229,6 +230,20 @@ public class CalculationController {
         return ResponseEntity.ok(SuccessResponse.ok("Документы обновлены"));
     }
 
+    /**
+     * POST /calculations/{id}/documents/finalize — Привязать документы, загруженные напрямую в хранилище
+     */
+    @PostMapping("/{id}/documents/finalize")
+    @PreAuthorize("hasRole('BUSINESS')")
+    public ResponseEntity<SuccessResponse> finalizeDocuments(
+            @PathVariable Long id,
+            Authentication auth,
+            @RequestParam("uploadId") List<UUID> uploadIds) {
+
+        calculationService.finalizeDocuments(id, auth.getName(), uploadIds);
+        return ResponseEntity.ok(SuccessResponse.ok("Документы обновлены"));
+    }
+
     /**
      * GET /calculations/pending-count — Количество расчётов на рассмотрении
      */
@@ -6,14 +6,15 @@ import kg.eco.operator.dto.response.ContestApplicationResponse;
 import kg.eco.operator.dto.response.CountResponse;
 import kg.eco.operator.service.ContestApplicationService;
 import kg.eco.operator.service.ContestService;
+import kg.eco.operator.service.storage.DocumentDownloadService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -28,6 +29,7 @@ import java.util.List;
 public class ContestApplicationController {
 
     private final ContestApplicationService applicationService;
+    private final DocumentDownloadService documentDownloadService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ECO_OPERATOR', 'ADMIN')")
@@ -61,15 +63,15 @@ public class ContestApplicationController {
 
     @GetMapping("/{id}/document")
     @PreAuthorize("hasAnyRole('ECO_OPERATOR', 'ADMIN')")
-    public ResponseEntity<InputStreamResource> downloadDocument(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> downloadDocument(
+            @PathVariable Long id,
+            @RequestHeader HttpHeaders headers) {
         ContestService.DownloadResult result = applicationService.downloadDocument(id);
         String encoded = URLEncoder.encode(
                 result.fileName() != null ? result.fileName() : "document",
                 StandardCharsets.UTF_8);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(result.contentType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename*=UTF-8''" + encoded)
-                .body(new InputStreamResource(result.stream()));
+        return documentDownloadService.servePrivate(result.objectKey(),
+                MediaType.parseMediaType(result.contentType()),
+                "attachment; filename*=UTF-8''" + encoded, headers);
     }
 }
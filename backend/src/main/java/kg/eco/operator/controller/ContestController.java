@@ -5,8 +5,8 @@ import kg.eco.operator.dto.request.ContestCreateRequest;
 import kg.eco.operator.dto.request.ContestUpdateRequest;
 import kg.eco.operator.dto.response.ContestResponse;
 import kg.eco.operator.service.ContestService;
+import kg.eco.operator.service.storage.DocumentDownloadService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -15,6 +15,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -29,6 +30,7 @@ import java.util.List;
 public class ContestController {
 
     private final ContestService contestService;
+    private final DocumentDownloadService documentDownloadService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ECO_OPERATOR', 'ADMIN')")
@@ -90,15 +92,15 @@ public class ContestController {
 
     @GetMapping("/{id}/regulations")
     @PreAuthorize("hasAnyRole('ECO_OPERATOR', 'ADMIN')")
-    public ResponseEntity<InputStreamResource> downloadRegulations(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> downloadRegulations(
+            @PathVariable Long id,
+            @RequestHeader HttpHeaders headers) {
         ContestService.DownloadResult result = contestService.downloadRegulations(id);
         String encoded = URLEncoder.encode(
                 result.fileName() != null ? result.fileName() : "regulations.pdf",
                 StandardCharsets.UTF_8);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(result.contentType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename*=UTF-8''" + encoded)
-                .body(new InputStreamResource(result.stream()));
+        return documentDownloadService.servePrivate(result.objectKey(),
+                MediaType.parseMediaType(result.contentType()),
+                "attachment; filename*=UTF-8''" + encoded, headers);
     }
 }
@@ -104,7 +104,9 @@ public class DeclarationController {
 
     @GetMapping("/{id}/customs-verification")
     @PreAuthorize("hasAnyRole('ECO_OPERATOR', 'EMPLOYEE')")
-    public ResponseEntity<CustomsVolumeVerificationResponse> verifyCustomsVolumes(@PathVariable Long id) {
-        return ResponseEntity.ok(declarationService.verifyDeclarationVolumes(id));
+    public ResponseEntity<CustomsVolumeVerificationResponse> verifyCustomsVolumes(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer quarter) {
+        return ResponseEntity.ok(declarationService.verifyDeclarationVolumes(id, quarter));
     }
 }
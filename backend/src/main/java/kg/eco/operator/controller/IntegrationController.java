@@ -1,13 +1,36 @@
 package kg.eco.operator.controller;
 
 import kg.eco.operator.dto.response.CompanyLookupResponse;
+import kg.eco.operator.exception.BusinessLogicException;
+import kg.eco.operator.integration.audit.IntegrationAuditRecorder;
+import kg.eco.operator.integration.cache.IntegrationCacheManager;
+import kg.eco.operator.integration.resilience.IntegrationResilienceRegistry;
 import kg.eco.operator.integration.taxservice.TaxServicePort;
 import kg.eco.operator.integration.taxservice.dto.TaxCompanyRegistrationResponse;
 import kg.eco.operator.integration.taxservice.dto.TaxInnVerificationResponse;
+import kg.eco.operator.service.impl.BulkInnVerificationService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 @Slf4j
 @RestController
@@ -15,7 +38,47 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class IntegrationController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String BULK_TIMEOUT_INTERCEPTOR = IntegrationController.class.getName() + ".bulkTimeout";
+
     private final TaxServicePort taxServicePort;
+    private final IntegrationCacheManager integrationCacheManager;
+    private final IntegrationResilienceRegistry integrationResilienceRegistry;
+    private final IntegrationAuditRecorder integrationAuditRecorder;
+    private final BulkInnVerificationService bulkInnVerificationService;
+
+    @Value("${integration.bulk-verification.max-inns:50000}")
+    private int maxBulkInns;
+
+    @Value("${integration.bulk-verification.timeout:30m}")
+    private Duration bulkTimeout;
+
+    /**
+     * GET /integrations/cache-stats — попадания/промахи кэшей ГНС и ГТС
+     */
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(integrationCacheManager.stats());
+    }
+
+    /**
+     * GET /integrations/resilience-stats — состояние circuit breaker'ов и bulkhead'ов
+     */
+    @GetMapping("/resilience-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Map<String, Object>>> getResilienceStats() {
+        return ResponseEntity.ok(integrationResilienceRegistry.stats());
+    }
+
+    /**
+     * GET /integrations/latency-stats — гистограммы задержек по операциям внешних систем
+     */
+    @GetMapping("/latency-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getLatencyStats() {
+        return ResponseEntity.ok(integrationAuditRecorder.stats());
+    }
 
     @GetMapping("/company-info")
     public ResponseEntity<CompanyLookupResponse> getCompanyInfo(
@@ -86,4 +149,73 @@ public class IntegrationController {
                 .build()
         );
     }
+
+    /**
+     * POST /integrations/inn-verification/bulk — массовая проверка ИНН (JSON-массив строк).
+     * Ответ — NDJSON, по строке на ИНН в порядке готовности.
+     */
+    @PostMapping(value = "/inn-verification/bulk",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = "application/x-ndjson")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ECO_OPERATOR', 'EMPLOYEE')")
+    public ResponseEntity<StreamingResponseBody> verifyInnsBulk(@RequestBody List<String> inns,
+                                                                 HttpServletRequest request) {
+        return streamBulkVerification(inns, request);
+    }
+
+    /**
+     * POST /integrations/inn-verification/bulk — то же для CSV / текста:
+     * ИНН через запятую, точку с запятой, пробел или с новой строки.
+     */
+    @PostMapping(value = "/inn-verification/bulk",
+            consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE},
+            produces = "application/x-ndjson")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ECO_OPERATOR', 'EMPLOYEE')")
+    public ResponseEntity<StreamingResponseBody> verifyInnsBulkCsv(@RequestBody String body,
+                                                                    HttpServletRequest request) {
+        List<String> inns = new ArrayList<>();
+        for (String token : body.split("[,;\\s\"]+")) {
+            if (!token.isBlank()) inns.add(token);
+        }
+        return streamBulkVerification(inns, request);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamBulkVerification(Collection<String> rawInns,
+                                                                         HttpServletRequest request) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String inn : rawInns) {
+            if (inn != null && !inn.isBlank()) unique.add(inn.trim());
+        }
+        if (unique.isEmpty()) {
+            throw new BusinessLogicException("Список ИНН пуст");
+        }
+        if (unique.size() > maxBulkInns) {
+            throw new BusinessLogicException("Слишком много ИНН в одном запросе: " + unique.size()
+                    + " (максимум " + maxBulkInns + ")");
+        }
+        log.info("Массовая проверка ИНН: {} уникальных", unique.size());
+
+        List<String> inns = List.copyOf(unique);
+        StreamingResponseBody body = out -> bulkInnVerificationService.verify(inns, out);
+        extendAsyncTimeout(request);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Таймаут асинхронной обработки только для этого ответа: глобальный
+     * spring.mvc.async.request-timeout остаётся по умолчанию. Перехватчик
+     * срабатывает до старта async-контекста, когда таймаут ещё можно изменить.
+     */
+    private void extendAsyncTimeout(HttpServletRequest request) {
+        long timeoutMs = bulkTimeout.toMillis();
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(BULK_TIMEOUT_INTERCEPTOR,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        if (webRequest instanceof AsyncWebRequest asyncRequest) {
+                            asyncRequest.setTimeout(timeoutMs);
+                        }
+                    }
+                });
+    }
 }
@@ -24,6 +24,7 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Эндпоинты заявок на лицензию для заявителя.
@@ -93,6 +94,18 @@ public class LicenseApplicationController {
                 .body(applicationService.uploadDocument(id, auth.getName(), docType, file));
     }
 
+    /** Привязать документ, загруженный напрямую в хранилище (uploadId из POST /uploads). */
+    @PostMapping("/{id}/documents/finalize")
+    @PreAuthorize("hasRole('BUSINESS')")
+    public ResponseEntity<LicenseApplicationResponse> finalizeDocumentUpload(
+            @PathVariable Long id,
+            @RequestParam("docType") LicenseDocumentType docType,
+            @RequestParam("uploadId") UUID uploadId,
+            Authentication auth) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(applicationService.finalizeDocumentUpload(id, auth.getName(), docType, uploadId));
+    }
+
     @DeleteMapping("/{applicationId}/documents/{docId}")
     @PreAuthorize("hasRole('BUSINESS')")
     public ResponseEntity<Void> deleteDocument(
@@ -3,9 +3,11 @@ package kg.eco.operator.controller;
 import kg.eco.operator.dto.response.LicenseResponse;
 import kg.eco.operator.entity.enums.LicenseType;
 import kg.eco.operator.service.LicenseService;
+import kg.eco.operator.service.LicenseService.RegistryFilter;
+import kg.eco.operator.service.storage.DocumentDownloadService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,22 +18,27 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Эндпоинты реестра выданных лицензий.
  *   /licenses                                — список (EMPLOYEE, MINISTRY, ADMIN, ECO_OPERATOR)
  *   /licenses/{id}                           — детали (EMPLOYEE, MINISTRY, ADMIN, ECO_OPERATOR)
  *   /licenses/{id}/visibility                — управление публикацией/отзывом (только МПРЭТН)
- *   /licenses/export.csv                     — выгрузка реестра (все роли с доступом к реестру)
+ *   /licenses/export.csv                     — потоковая выгрузка реестра, gzip по Accept-Encoding
+ *                                              (все роли с доступом к реестру)
  *
  * ЭкоОператор имеет read-only доступ для проверки лицензий у переработчиков,
  * с которыми взаимодействуют его клиенты.
@@ -42,12 +49,20 @@ import java.util.List;
 public class LicenseController {
 
     private final LicenseService licenseService;
+    private final DocumentDownloadService documentDownloadService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('EMPLOYEE', 'MINISTRY', 'ADMIN', 'ECO_OPERATOR')")
     public ResponseEntity<List<LicenseResponse>> list(
-            @RequestParam(required = false) LicenseType licenseType) {
-        return ResponseEntity.ok(licenseService.listAll(licenseType));
+            @RequestParam(required = false) String search,
+            @RequestParam(name = "licenseType", required = false) List<LicenseType> licenseTypes,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issuedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issuedTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate validOn) {
+        return ResponseEntity.ok(licenseService.listAll(
+                new RegistryFilter(search, licenseTypes, status, region, issuedFrom, issuedTo, validOn)));
     }
 
     @GetMapping("/{id}")
@@ -67,17 +82,57 @@ public class LicenseController {
                 request.getRevocationReason(), auth.getName()));
     }
 
+    /**
+     * CSV пишется по мере чтения из БД. Если клиент принимает gzip, поток
+     * сжимается (Content-Encoding: gzip) — с SYNC_FLUSH, чтобы сброшенные
+     * сервисом строки уходили клиенту сразу, а не копились в буфере сжатия.
+     */
     @GetMapping("/export.csv")
     @PreAuthorize("hasAnyRole('EMPLOYEE', 'MINISTRY', 'ADMIN', 'ECO_OPERATOR')")
-    public ResponseEntity<byte[]> exportCsv(@RequestParam(required = false) LicenseType licenseType) {
-        byte[] bytes = licenseService.exportCsv(licenseType);
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @RequestParam(required = false) String search,
+            @RequestParam(name = "licenseType", required = false) List<LicenseType> licenseTypes,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issuedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issuedTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate validOn,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RegistryFilter filter = new RegistryFilter(search, licenseTypes, status, region, issuedFrom, issuedTo, validOn);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+                licenseService.exportCsv(filter, compressed);
+                compressed.finish();
+            } else {
+                licenseService.exportCsv(filter, out);
+            }
+        };
+
         String filename = "licenses-registry.csv";
         String encoded = URLEncoder.encode(filename, StandardCharsets.UTF_8);
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename=\"" + filename + "\"; filename*=UTF-8''" + encoded)
-                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
-                .body(bytes);
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /** gzip есть в Accept-Encoding и не запрещён через q=0. */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (tokens[0].trim().equalsIgnoreCase("gzip")) {
+                return !(tokens.length > 1 && tokens[1].trim().matches("q=0(\\.0*)?"));
+            }
+        }
+        return false;
     }
 
     // ─── Загрузка и скачивание электронной копии подписанной лицензии ───
@@ -93,17 +148,15 @@ public class LicenseController {
 
     @GetMapping("/{id}/document")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<InputStreamResource> downloadDocument(
+    public ResponseEntity<StreamingResponseBody> downloadDocument(
             @PathVariable Long id,
+            @RequestHeader HttpHeaders headers,
             Authentication auth) {
         var result = licenseService.downloadDocument(id, auth.getName());
         String filename = result.fileName();
         String encoded = URLEncoder.encode(filename, StandardCharsets.UTF_8);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + filename + "\"; filename*=UTF-8''" + encoded)
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(new InputStreamResource(result.stream()));
+        return documentDownloadService.servePrivate(result.objectKey(), MediaType.APPLICATION_OCTET_STREAM,
+                "attachment; filename=\"" + filename + "\"; filename*=UTF-8''" + encoded, headers);
     }
 
     @Data
@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
@@ -24,6 +25,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -67,6 +69,18 @@ public class LicensePaymentController {
         return ResponseEntity.noContent().build();
     }
 
+    /** Офлайн-оплата с квитанцией, загруженной напрямую в хранилище (uploadId из POST /uploads). */
+    @PostMapping("/license-applications/{id}/manual-payment/finalize")
+    @PreAuthorize("hasRole('BUSINESS')")
+    public ResponseEntity<Void> finalizeOffline(
+            @PathVariable Long id,
+            @RequestParam("uploadId") UUID uploadId,
+            @Valid @RequestBody ManualPaymentRequest info,
+            Authentication auth) {
+        paymentService.finalizeOfflineReceipt(id, auth.getName(), uploadId, info);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/license-applications/{id}/payment-status")
     @PreAuthorize("hasRole('BUSINESS')")
     public ResponseEntity<PaymentStatusResponse> status(@PathVariable Long id, Authentication auth) {
@@ -4,13 +4,17 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import kg.eco.operator.dto.request.ContestApplicationStatusCheckRequest;
+import kg.eco.operator.dto.request.UploadInitRequest;
 import kg.eco.operator.dto.response.ContestApplicationResponse;
 import kg.eco.operator.dto.response.ContestApplicationStatusResponse;
 import kg.eco.operator.dto.response.ContestResponse;
+import kg.eco.operator.dto.response.UploadTicketResponse;
 import kg.eco.operator.service.ContestApplicationService;
 import kg.eco.operator.service.ContestService;
+import kg.eco.operator.service.storage.DocumentDownloadService;
+import kg.eco.operator.service.upload.DirectUploadService;
+import kg.eco.operator.service.upload.UploadPurpose;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -18,10 +22,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Публичные эндпоинты конкурсов (без авторизации).
@@ -35,6 +41,8 @@ public class PublicContestController {
 
     private final ContestService contestService;
     private final ContestApplicationService applicationService;
+    private final DirectUploadService directUploadService;
+    private final DocumentDownloadService documentDownloadService;
 
     /** Список опубликованных конкурсов с открытым приёмом заявок. */
     @GetMapping
@@ -50,18 +58,18 @@ public class PublicContestController {
 
     /** Скачать положение конкурса (PDF) — публично. */
     @GetMapping("/{id}/regulations")
-    public ResponseEntity<InputStreamResource> downloadRegulations(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> downloadRegulations(
+            @PathVariable Long id,
+            @RequestHeader HttpHeaders headers) {
         // Через тот же сервис: getPublicById выбросит 404 для DRAFT
         contestService.getPublicById(id);
         ContestService.DownloadResult result = contestService.downloadRegulations(id);
         String encoded = URLEncoder.encode(
                 result.fileName() != null ? result.fileName() : "regulations.pdf",
                 StandardCharsets.UTF_8);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(result.contentType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "inline; filename*=UTF-8''" + encoded)
-                .body(new InputStreamResource(result.stream()));
+        return documentDownloadService.servePublic(result.objectKey(),
+                MediaType.parseMediaType(result.contentType()),
+                "inline; filename*=UTF-8''" + encoded, headers);
     }
 
     /**
@@ -83,6 +91,41 @@ public class PublicContestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Подписанная ссылка для загрузки документа заявки напрямую в хранилище.
+     * Тело: fileName, contentType, size (purpose и targetId задаются сервером).
+     * Только для конкурса, который принимает заявки; частоту выдачи по IP
+     * ограничивает RateLimitFilter (класс contest-upload-tickets).
+     */
+    @PostMapping("/{contestId}/applications/uploads")
+    public ResponseEntity<UploadTicketResponse> initiateUpload(
+            @PathVariable Long contestId,
+            @RequestBody UploadInitRequest request) {
+        applicationService.checkAcceptingApplications(contestId);
+        request.setPurpose(UploadPurpose.CONTEST_APPLICATION);
+        request.setTargetId(contestId);
+        return ResponseEntity.ok(directUploadService.initiate(request, null));
+    }
+
+    /**
+     * Подать заявку с документом, загруженным по ссылке из .../applications/uploads.
+     * Поля те же, что у multipart-подачи, вместо file — uploadId.
+     */
+    @PostMapping("/{contestId}/applications/finalize")
+    public ResponseEntity<ContestApplicationResponse> submitUploaded(
+            @PathVariable Long contestId,
+            @RequestParam("lastName") @NotBlank String lastName,
+            @RequestParam("firstName") @NotBlank String firstName,
+            @RequestParam(value = "middleName", required = false) String middleName,
+            @RequestParam("phone") @NotBlank String phone,
+            @RequestParam("email") @NotBlank @Email String email,
+            @RequestParam("uploadId") UUID uploadId) {
+
+        ContestApplicationResponse response = applicationService.submitUploaded(
+                contestId, lastName, firstName, middleName, phone, email, uploadId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     /** Публичная проверка статуса по номеру + email. */
     @PostMapping("/applications/check-status")
     public ResponseEntity<ContestApplicationStatusResponse> checkStatus(
@@ -6,23 +6,28 @@ import kg.eco.operator.entity.enums.LicenseDocumentType;
 import kg.eco.operator.entity.enums.LicenseType;
 import kg.eco.operator.entity.enums.RejectionReason;
 import kg.eco.operator.service.LicenseService;
+import kg.eco.operator.service.LicenseService.RegistryFilter;
+import kg.eco.operator.service.storage.DocumentDownloadService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -39,15 +44,27 @@ import java.util.stream.Collectors;
 public class PublicLicenseController {
 
     private final LicenseService licenseService;
+    private final DocumentDownloadService documentDownloadService;
 
+    /**
+     * Публичный реестр: поиск (номер, ИНН, наименование), фильтры и страница —
+     * всё в БД. Новые сверху; id — для стабильного порядка при равных датах.
+     */
     @GetMapping("/licenses")
     public ResponseEntity<Page<LicenseResponse>> listPublished(
             @RequestParam(required = false) String search,
+            @RequestParam(name = "licenseType", required = false) List<LicenseType> licenseTypes,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issuedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issuedTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate validOn,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         Pageable pageable = PageRequest.of(page, Math.min(size, 100),
-                Sort.by(Sort.Direction.DESC, "issuedAt"));
-        return ResponseEntity.ok(licenseService.listPublished(pageable, search));
+                Sort.by(Sort.Direction.DESC, "issuedAt").and(Sort.by(Sort.Direction.DESC, "id")));
+        RegistryFilter filter = new RegistryFilter(search, licenseTypes, status, region, issuedFrom, issuedTo, validOn);
+        return ResponseEntity.ok(licenseService.listPublished(filter, pageable));
     }
 
     @GetMapping("/licenses/{licenseNumber:.+}")
@@ -57,15 +74,14 @@ public class PublicLicenseController {
 
     /** Публичное скачивание PDF-скана лицензии по номеру — для проверки подлинности. */
     @GetMapping("/licenses/{licenseNumber:.+}/document")
-    public ResponseEntity<InputStreamResource> downloadDocument(@PathVariable String licenseNumber) {
+    public ResponseEntity<StreamingResponseBody> downloadDocument(
+            @PathVariable String licenseNumber,
+            @RequestHeader HttpHeaders headers) {
         var result = licenseService.downloadDocumentByNumberPublic(licenseNumber);
         String filename = result.fileName();
         String encoded = URLEncoder.encode(filename, StandardCharsets.UTF_8);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + filename + "\"; filename*=UTF-8''" + encoded)
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(new InputStreamResource(result.stream()));
+        return documentDownloadService.servePublic(result.objectKey(), MediaType.APPLICATION_OCTET_STREAM,
+                "attachment; filename=\"" + filename + "\"; filename*=UTF-8''" + encoded, headers);
     }
 
     // ─── справочники (enum'ы) ───
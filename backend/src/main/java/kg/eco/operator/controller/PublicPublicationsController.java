@@ -1,46 +1,124 @@
 package kg.eco.operator.controller;
 
-import kg.eco.operator.dto.response.PublicationListItemResponse;
-import kg.eco.operator.dto.response.PublicationResponse;
 import kg.eco.operator.entity.enums.PublicationCategory;
+import kg.eco.operator.exception.ResourceNotFoundException;
 import kg.eco.operator.service.PublicationService;
+import kg.eco.operator.service.impl.PublicationResponseCache;
+import kg.eco.operator.service.impl.PublicationViewCounter;
+import kg.eco.operator.service.storage.DocumentDownloadService;
+import kg.eco.operator.service.storage.ImageVariant;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Публичный API раздела «Публикации» (без авторизации).
  *
  * GET /public/publications              — лента
  * GET /public/publications/latest       — самая свежая (для hero на главной)
+ * GET /public/publications/search?q=     — полнотекстовый поиск с фрагментами
  * GET /public/publications/{slug}       — детальная статья
+ * GET /public/publications/covers/**     — уменьшенные копии обложек
+ *
+ * Лента, hero и статьи отдаются из {@link PublicationResponseCache} с ETag.
  */
 @RestController
 @RequestMapping("/public/publications")
 @RequiredArgsConstructor
 public class PublicPublicationsController {
 
+    /** Как в {@code listPublic}: больше 50 записей на страницу не отдаётся. */
+    private static final int MAX_PAGE_SIZE = 50;
+    /** Глубже лента не листается; дальние номера страниц сводятся к последней. */
+    private static final int MAX_PAGE = 200;
+
     private final PublicationService publicationService;
+    private final DocumentDownloadService documentDownloadService;
+    private final PublicationViewCounter viewCounter;
+    private final PublicationResponseCache responseCache;
 
     @GetMapping
-    public Page<PublicationListItemResponse> list(
+    public ResponseEntity<byte[]> list(
             @RequestParam(required = false) PublicationCategory category,
             @RequestParam(required = false, name = "search") String search,
             @RequestParam(defaultValue = "ru") String lang,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
-        return publicationService.listPublic(category, search, lang, page, size);
+        String language = normalizeLang(lang);
+        int pageNumber = normalizePage(page);
+        int pageSize = normalizeSize(size);
+        if (StringUtils.hasText(search)) {
+            // Поисковые запросы не кэшируем: ключей слишком много, повторов мало
+            return responseCache.uncached(
+                    publicationService.listPublic(category, search, language, pageNumber, pageSize));
+        }
+        // Ключ — из нормализованных значений: page=-1, size=500 и т. п. не плодят
+        // записей в кэше, отличающихся только параметрами, которые сервис всё равно урежет
+        return responseCache.get("list:" + category + ":" + language + ":" + pageNumber + ":" + pageSize,
+                () -> publicationService.listPublic(category, null, language, pageNumber, pageSize));
     }
 
     @GetMapping("/latest")
-    public PublicationListItemResponse latest(@RequestParam(defaultValue = "ru") String lang) {
-        return publicationService.getLatest(lang);
+    public ResponseEntity<byte[]> latest(@RequestParam(defaultValue = "ru") String lang) {
+        String language = normalizeLang(lang);
+        return responseCache.get("latest:" + language, () -> publicationService.getLatest(language));
+    }
+
+    /** Поиск по релевантности; не кэшируется, как и поиск в ленте. */
+    @GetMapping("/search")
+    public ResponseEntity<byte[]> search(
+            @RequestParam(name = "q") String query,
+            @RequestParam(required = false) PublicationCategory category,
+            @RequestParam(defaultValue = "ru") String lang,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size) {
+        return responseCache.uncached(
+                publicationService.searchPublic(query, category, normalizeLang(lang),
+                        normalizePage(page), normalizeSize(size)));
     }
 
     @GetMapping("/{slug}")
-    public PublicationResponse bySlug(
+    public ResponseEntity<byte[]> bySlug(
             @PathVariable String slug,
-            @RequestParam(defaultValue = "ru") String lang) {
-        return publicationService.getBySlug(slug, lang);
+            @RequestParam(defaultValue = "ru") String lang,
+            @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent) {
+        String language = normalizeLang(lang);
+        return responseCache.getArticle("article:" + slug + ":" + language,
+                () -> publicationService.getBySlug(slug, language),
+                id -> viewCounter.record(id, userAgent));
+    }
+
+    /**
+     * Копия обложки (путь из coverThumbUrl/coverCardUrl/coverHeroUrl).
+     * Ключ оригинала в пути делает ответ неизменяемым — кэш на год. Пока
+     * копия не создана, отдаётся оригинал с обычным публичным кэшем.
+     */
+    @GetMapping("/covers/{*path}")
+    public ResponseEntity<StreamingResponseBody> cover(
+            @PathVariable String path,
+            @RequestHeader HttpHeaders headers) {
+        ImageVariant.Ref ref = ImageVariant.parse(path.startsWith("/") ? path.substring(1) : path)
+                .orElseThrow(() -> new ResourceNotFoundException("Изображение не найдено"));
+        return documentDownloadService
+                .serveImmutable(ref.variant().objectKey(ref.originalKey()), MediaType.IMAGE_JPEG, "inline", headers)
+                .orElseGet(() -> documentDownloadService.servePublic(
+                        publicationService.coverOriginalForVariant(ref.originalKey()), null, "inline", headers));
+    }
+
+    /** Неизвестный язык отдаётся на русском — и кэшируется под тем же ключом. */
+    private static String normalizeLang(String lang) {
+        return "ky".equalsIgnoreCase(lang) ? "ky" : "en".equalsIgnoreCase(lang) ? "en" : "ru";
+    }
+
+    private static int normalizePage(int page) {
+        return Math.max(0, Math.min(page, MAX_PAGE));
+    }
+
+    private static int normalizeSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 }
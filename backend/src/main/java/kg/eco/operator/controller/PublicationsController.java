@@ -12,6 +12,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.UUID;
+
 /**
  * Админ-API раздела «Публикации» (требует авторизацию).
  *
@@ -65,6 +67,14 @@ public class PublicationsController {
         return publicationService.uploadCover(id, file);
     }
 
+    @PostMapping("/{id}/cover/finalize")
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ECO_OPERATOR', 'ADMIN')")
+    public PublicationResponse finalizeCoverUpload(
+            @PathVariable Long id,
+            @RequestParam("uploadId") UUID uploadId) {
+        return publicationService.finalizeCoverUpload(id, uploadId);
+    }
+
     @PostMapping("/{id}/publish")
     @PreAuthorize("hasAnyRole('EMPLOYEE', 'ECO_OPERATOR', 'ADMIN')")
     public PublicationResponse publish(@PathVariable Long id) {
@@ -0,0 +1,88 @@
+package kg.eco.operator.controller;
+
+import jakarta.validation.Valid;
+import kg.eco.operator.dto.request.UploadInitRequest;
+import kg.eco.operator.dto.response.UploadTicketResponse;
+import kg.eco.operator.entity.enums.RoleEnum;
+import kg.eco.operator.security.AuthenticatedUser;
+import kg.eco.operator.service.CalculationService;
+import kg.eco.operator.service.ContestApplicationService;
+import kg.eco.operator.service.LicenseApplicationService;
+import kg.eco.operator.service.LicensePaymentService;
+import kg.eco.operator.service.PublicationService;
+import kg.eco.operator.service.upload.DirectUploadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Set;
+
+/**
+ * Прямая загрузка файлов в хранилище, шаг 1: подписанная POST-политика.
+ * Шаг 2 — finalize-эндпоинт сущности (документы расчёта, заявки на
+ * лицензию, квитанция, cover публикации) с полученным uploadId.
+ */
+@RestController
+@RequestMapping("/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private static final Set<RoleEnum> PUBLICATION_EDITORS =
+            Set.of(RoleEnum.EMPLOYEE, RoleEnum.ECO_OPERATOR, RoleEnum.ADMIN);
+
+    private final DirectUploadService directUploadService;
+    private final CalculationService calculationService;
+    private final LicenseApplicationService licenseApplicationService;
+    private final LicensePaymentService licensePaymentService;
+    private final PublicationService publicationService;
+    private final ContestApplicationService contestApplicationService;
+
+    /**
+     * POST /uploads — Выдать presigned POST для загрузки файла напрямую в MinIO
+     */
+    @PostMapping
+    public ResponseEntity<UploadTicketResponse> initiate(
+            @Valid @RequestBody UploadInitRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        checkTarget(request, user);
+        return ResponseEntity.ok(directUploadService.initiate(request, user.id()));
+    }
+
+    /**
+     * Те же роль и проверки сущности (владелец, статус), что у multipart- и
+     * finalize-эндпоинтов: ссылку на загрузку к чужому документу не выдаём.
+     */
+    private void checkTarget(UploadInitRequest request, AuthenticatedUser user) {
+        Long targetId = request.getTargetId();
+        switch (request.getPurpose()) {
+            case CALCULATION_DOCUMENT -> {
+                requireRole(user, Set.of(RoleEnum.BUSINESS));
+                calculationService.checkDocumentUpload(targetId, user.inn());
+            }
+            case LICENSE_DOCUMENT -> {
+                requireRole(user, Set.of(RoleEnum.BUSINESS));
+                licenseApplicationService.checkDocumentUpload(targetId, user.inn());
+            }
+            case LICENSE_RECEIPT -> {
+                requireRole(user, Set.of(RoleEnum.BUSINESS));
+                licensePaymentService.checkReceiptUpload(targetId, user.inn());
+            }
+            case PUBLICATION_COVER -> {
+                requireRole(user, PUBLICATION_EDITORS);
+                publicationService.checkCoverUpload(targetId);
+            }
+            case CONTEST_APPLICATION -> contestApplicationService.checkAcceptingApplications(targetId);
+        }
+    }
+
+    private static void requireRole(AuthenticatedUser user, Set<RoleEnum> roles) {
+        if (!roles.contains(user.role())) {
+            throw new AccessDeniedException("Недостаточно прав для загрузки этого документа");
+        }
+    }
+}
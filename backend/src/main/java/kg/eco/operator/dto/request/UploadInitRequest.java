@@ -0,0 +1,33 @@
+package kg.eco.operator.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import kg.eco.operator.service.upload.UploadPurpose;
+import lombok.Data;
+
+/**
+ * Запрос подписанной ссылки для прямой загрузки файла в хранилище.
+ * targetId — ID сущности, к которой файл будет привязан (расчёт, заявка, публикация, конкурс).
+ */
+@Data
+public class UploadInitRequest {
+
+    @NotNull
+    private UploadPurpose purpose;
+
+    @NotNull
+    private Long targetId;
+
+    @NotBlank
+    @Size(max = 255)
+    private String fileName;
+
+    @Size(max = 100)
+    private String contentType;
+
+    @NotNull
+    @Positive
+    private Long size;
+}
@@ -0,0 +1,28 @@
+package kg.eco.operator.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Одна строка NDJSON-ответа массовой проверки ИНН.
+ * source: registry (зарегистрирован в системе), detected (выявлен мониторингом),
+ * gns (проверен в ГНС), invalid (неверный формат), error (ошибка ГНС).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkInnVerificationResult {
+
+    private String inn;
+    private String source;
+    private boolean found;
+    private boolean active;
+    private String officialName;
+    private String status;
+    private String errorMessage;
+}
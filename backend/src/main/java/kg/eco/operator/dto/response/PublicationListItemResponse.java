@@ -21,6 +21,13 @@ public class PublicationListItemResponse {
     private PublicationCategory category;
     private PublicationAuthorOrg authorOrg;
     private String coverUrl;
+    /**
+     * Уменьшенные копии обложки — пути относительно API
+     * (/public/publications/covers/...). null, если обложка — внешний URL.
+     */
+    private String coverThumbUrl;
+    private String coverCardUrl;
+    private String coverHeroUrl;
     private String title;
     private String excerpt;
     private Integer readMinutes;
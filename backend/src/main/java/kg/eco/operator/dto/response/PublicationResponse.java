@@ -21,6 +21,8 @@ public class PublicationResponse {
     private PublicationCategory category;
     private PublicationAuthorOrg authorOrg;
     private String coverUrl;
+    /** Копия обложки для шапки статьи; null, если обложка — внешний URL. */
+    private String coverHeroUrl;
 
     // Контент на запрошенном языке (с fallback на ru если перевода нет)
     private String title;
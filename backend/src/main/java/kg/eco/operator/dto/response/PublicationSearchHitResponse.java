@@ -0,0 +1,23 @@
+package kg.eco.operator.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат полнотекстового поиска по публикациям: карточка для ленты и
+ * фрагмент текста с найденными словами.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicationSearchHitResponse {
+    private PublicationListItemResponse publication;
+    /**
+     * Отрывки текста (без HTML-разметки), совпадения обёрнуты в
+     * {@code <mark>}, отрывки разделены « … ».
+     */
+    private String snippet;
+    /** Релевантность (ts_rank), результаты отсортированы по убыванию. */
+    private Double rank;
+}
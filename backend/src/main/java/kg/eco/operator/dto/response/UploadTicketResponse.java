@@ -0,0 +1,35 @@
+package kg.eco.operator.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Разрешение на прямую загрузку: фронт отправляет POST multipart/form-data на
+ * uploadUrl — сначала все fields, последним частью file — и затем вызывает
+ * finalize-эндпоинт с uploadId. Политика в fields допускает только заявленные
+ * размер и тип файла.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UploadTicketResponse {
+
+    private UUID uploadId;
+    private String uploadUrl;
+    private String method;
+    private Map<String, String> fields;
+    private Long maxSize;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime expiresAt;
+}
@@ -91,7 +91,8 @@ public class Publication {
     @Column(name = "last_edited_at")
     private LocalDateTime lastEditedAt;
 
-    @Column(name = "view_count", nullable = false)
+    /** Меняется только PublicationViewCounter через UPDATE ... + delta, сущность его не перезаписывает. */
+    @Column(name = "view_count", nullable = false, updatable = false)
     private Integer viewCount = 0;
 
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -70,6 +70,11 @@ public class User {
     @Column(name = "refresh_token")
     private String refreshToken;
 
+    /** Версия выданных токенов; увеличение отзывает все токены с меньшей версией. */
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false, updatable = false)
+    private Integer tokenVersion = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
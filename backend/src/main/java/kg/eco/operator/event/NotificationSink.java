@@ -0,0 +1,301 @@
+package kg.eco.operator.event;
+
+import jakarta.annotation.PreDestroy;
+import kg.eco.operator.entity.enums.NotificationType;
+import kg.eco.operator.entity.enums.RoleEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Буферизованная запись уведомлений.
+ *
+ * Вместо {@code notificationRepository.save} на каждое событие уведомления
+ * складываются в очередь и сбрасываются одним JDBC batch insert — по таймеру
+ * ({@code notification.sink.flush-interval-ms}) или при накоплении
+ * {@code notification.sink.batch-size} строк.
+ *
+ * Получатели резолвятся пачкой в момент сброса: ИНН → user_id одним запросом,
+ * рассылка «всем пользователям роли» (напоминания о сроках всем плательщикам)
+ * разворачивается в одну строку на пользователя одним SELECT по роли.
+ *
+ * Сброс по размеру очереди выполняется в планировщике, а не в потоке,
+ * добавившем уведомление. Если пачка не записалась целиком, строки пишутся
+ * по одной; не записанные возвращаются в очередь и повторяются при следующем
+ * сбросе, после {@code notification.sink.max-attempts} попыток отбрасываются.
+ */
+@Slf4j
+@Component
+public class NotificationSink {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO notifications
+                (title, message, type, user_id, is_read, reference_id, reference_type, created_at)
+            VALUES (?, ?, ?, ?, FALSE, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public NotificationSink(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            TaskScheduler taskScheduler,
+                            @Value("${notification.sink.batch-size:500}") int batchSize,
+                            @Value("${notification.sink.max-attempts:3}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.taskScheduler = taskScheduler;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /** Уведомление конкретному пользователю по ID (несуществующие ID отбрасываются при сбросе). */
+    public void toUser(Long userId, String title, String message, NotificationType type,
+                       Long referenceId, String referenceType) {
+        if (userId == null) return;
+        enqueue(new Pending(Recipient.USER_ID, userId, null, null,
+                title, message, type, referenceId, referenceType, LocalDateTime.now(), 0));
+    }
+
+    /** Уведомление пользователю по ИНН (резолвится в user_id пачкой при сбросе). */
+    public void toUserInn(String inn, String title, String message, NotificationType type,
+                          Long referenceId, String referenceType) {
+        if (inn == null || inn.isBlank()) return;
+        enqueue(new Pending(Recipient.USER_INN, null, inn, null,
+                title, message, type, referenceId, referenceType, LocalDateTime.now(), 0));
+    }
+
+    /**
+     * Персональное уведомление каждому пользователю роли
+     * (например, напоминание о сроке оплаты всем BUSINESS). У каждого
+     * получателя своя строка и свой признак прочтения.
+     */
+    public void toRoleMembers(RoleEnum role, String title, String message, NotificationType type,
+                              Long referenceId, String referenceType) {
+        if (role == null) return;
+        enqueue(new Pending(Recipient.ROLE_MEMBERS, null, null, role,
+                title, message, type, referenceId, referenceType, LocalDateTime.now(), 0));
+    }
+
+    @Scheduled(fixedDelayString = "${notification.sink.flush-interval-ms:500}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /** Сбрасывает всё накопленное в БД. Потокобезопасен; параллельный вызов просто пропускается. */
+    public void flush() {
+        if (queue.isEmpty() || !flushLock.tryLock()) return;
+        try {
+            List<Pending> drained = new ArrayList<>();
+            Pending p;
+            while ((p = queue.poll()) != null) {
+                drained.add(p);
+                queued.decrementAndGet();
+            }
+            if (drained.isEmpty()) return;
+
+            List<Pending> resolved;
+            try {
+                resolved = resolve(drained);
+            } catch (Exception e) {
+                log.error("Не удалось определить получателей пачки уведомлений ({} шт.): {}",
+                        drained.size(), e.getMessage(), e);
+                retry(drained);
+                return;
+            }
+            write(resolved);
+            log.debug("Записано уведомлений: {} (событий в пачке: {})", resolved.size(), drained.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // ─── Internals ───
+
+    private void enqueue(Pending pending) {
+        queue.add(pending);
+        if (queued.incrementAndGet() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                flushScheduled.set(false);
+                flush();
+            }, Instant.now());
+        }
+    }
+
+    /**
+     * Разворачивает события в уведомления с конкретным адресатом:
+     * одна строка на существующего пользователя.
+     */
+    private List<Pending> resolve(List<Pending> drained) {
+        Set<Long> userIds = new HashSet<>();
+        Set<String> inns = new HashSet<>();
+        Set<RoleEnum> fanOutRoles = new HashSet<>();
+        for (Pending p : drained) {
+            switch (p.recipient()) {
+                case USER_ID -> userIds.add(p.userId());
+                case USER_INN -> inns.add(p.inn());
+                case ROLE_MEMBERS -> fanOutRoles.add(p.role());
+            }
+        }
+
+        Set<Long> existingIds = userIds.isEmpty() ? Set.of() : existingUserIds(userIds);
+        Map<String, Long> idsByInn = inns.isEmpty() ? Map.of() : userIdsByInn(inns);
+        Map<RoleEnum, List<Long>> membersByRole = new EnumMap<>(RoleEnum.class);
+        for (RoleEnum role : fanOutRoles) {
+            membersByRole.put(role, jdbcTemplate.queryForList(
+                    "SELECT id FROM users WHERE role = ?", Long.class, role.name()));
+        }
+
+        List<Pending> resolved = new ArrayList<>(drained.size());
+        for (Pending p : drained) {
+            switch (p.recipient()) {
+                case USER_ID -> {
+                    if (existingIds.contains(p.userId())) resolved.add(p);
+                }
+                case USER_INN -> {
+                    Long id = idsByInn.get(p.inn());
+                    if (id != null) resolved.add(p.toUser(id));
+                }
+                case ROLE_MEMBERS -> {
+                    for (Long id : membersByRole.getOrDefault(p.role(), List.of())) {
+                        resolved.add(p.toUser(id));
+                    }
+                }
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Пишет пачками по batchSize, каждая пачка — в своей транзакции. Если пачка
+     * отклонена (одна плохая строка роняет весь batch), её строки пишутся по одной.
+     */
+    private void write(List<Pending> resolved) {
+        for (int from = 0; from < resolved.size(); from += batchSize) {
+            List<Pending> chunk = resolved.subList(from, Math.min(from + batchSize, resolved.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT_SQL, chunk.stream().map(NotificationSink::row).toList()));
+            } catch (DataAccessException e) {
+                log.warn("Пачка уведомлений ({} шт.) не записана, запись по одному: {}",
+                        chunk.size(), e.getMessage());
+                List<Pending> failed = new ArrayList<>();
+                for (Pending p : chunk) {
+                    try {
+                        jdbcTemplate.update(INSERT_SQL, row(p));
+                    } catch (DataAccessException rowError) {
+                        failed.add(p);
+                    }
+                }
+                retry(failed);
+            }
+        }
+    }
+
+    /** Возвращает в очередь до следующего сброса; исчерпавшие попытки отбрасываются. */
+    private void retry(List<Pending> failed) {
+        int dropped = 0;
+        for (Pending p : failed) {
+            if (p.attempt() + 1 >= maxAttempts) {
+                dropped++;
+                continue;
+            }
+            queue.add(p.nextAttempt());
+            queued.incrementAndGet();
+        }
+        if (dropped > 0) {
+            log.error("Отброшено уведомлений после {} попыток записи: {}", maxAttempts, dropped);
+        }
+    }
+
+    private Set<Long> existingUserIds(Collection<Long> ids) {
+        Set<Long> result = new HashSet<>();
+        jdbcTemplate.query("SELECT id FROM users WHERE id = ANY(?)",
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("bigint", ids.toArray());
+                    ps.setArray(1, array);
+                },
+                rs -> {
+                    result.add(rs.getLong(1));
+                });
+        return result;
+    }
+
+    private Map<String, Long> userIdsByInn(Collection<String> inns) {
+        Map<String, Long> result = new HashMap<>();
+        jdbcTemplate.query("SELECT id, inn FROM users WHERE inn = ANY(?)",
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("varchar", inns.toArray());
+                    ps.setArray(1, array);
+                },
+                rs -> {
+                    result.put(rs.getString("inn"), rs.getLong("id"));
+                });
+        return result;
+    }
+
+    private static Object[] row(Pending p) {
+        return new Object[]{
+                p.title(),
+                p.message(),
+                p.type().name(),
+                p.userId(),
+                p.referenceId(),
+                p.referenceType(),
+                Timestamp.valueOf(p.createdAt())
+        };
+    }
+
+    private enum Recipient { USER_ID, USER_INN, ROLE_MEMBERS }
+
+    private record Pending(Recipient recipient, Long userId, String inn, RoleEnum role,
+                           String title, String message, NotificationType type,
+                           Long referenceId, String referenceType, LocalDateTime createdAt,
+                           int attempt) {
+
+        Pending toUser(Long id) {
+            return new Pending(Recipient.USER_ID, id, null, null,
+                    title, message, type, referenceId, referenceType, createdAt, attempt);
+        }
+
+        Pending nextAttempt() {
+            return new Pending(recipient, userId, inn, role,
+                    title, message, type, referenceId, referenceType, createdAt, attempt + 1);
+        }
+    }
+}
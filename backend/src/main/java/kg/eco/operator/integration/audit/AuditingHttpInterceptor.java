@@ -0,0 +1,42 @@
+package kg.eco.operator.integration.audit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+
+/**
+ * Перехватчик RestClient: замеряет каждую HTTP-попытку к внешней системе
+ * и передаёт её в {@link IntegrationAuditRecorder}.
+ *
+ * Тело ответа читается повторно, поэтому фабрика запросов клиента должна
+ * быть обёрнута в BufferingClientHttpRequestFactory.
+ */
+@RequiredArgsConstructor
+public class AuditingHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String serviceName;
+    private final IntegrationAuditRecorder recorder;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        long startedAtMillis = System.currentTimeMillis();
+        long startedNanos = System.nanoTime();
+        String operation = request.getMethod().name() + " " + request.getURI().getRawPath();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            byte[] responseBody = StreamUtils.copyToByteArray(response.getBody());
+            recorder.record(serviceName, operation, body, responseBody, null,
+                    response.getStatusCode().value(), startedNanos, startedAtMillis);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            recorder.record(serviceName, operation, body, null, e, 0, startedNanos, startedAtMillis);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package kg.eco.operator.integration.audit;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Журналирование вызовов заглушек ГНС/ГТС/банка (профили без production).
+ * У заглушек нет HTTP, поэтому замер снимается на уровне метода порта:
+ * операция — имя метода, запрос — аргументы, ответ — возвращённый DTO.
+ */
+public final class AuditingPortProxy implements InvocationHandler {
+
+    private final Object target;
+    private final String serviceName;
+    private final IntegrationAuditRecorder recorder;
+
+    private AuditingPortProxy(Object target, String serviceName, IntegrationAuditRecorder recorder) {
+        this.target = target;
+        this.serviceName = serviceName;
+        this.recorder = recorder;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T wrap(T target, Class<T> portType, String serviceName, IntegrationAuditRecorder recorder) {
+        return (T) Proxy.newProxyInstance(portType.getClassLoader(), new Class<?>[]{portType},
+                new AuditingPortProxy(target, serviceName, recorder));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(target, args);
+        }
+        long startedAtMillis = System.currentTimeMillis();
+        long startedNanos = System.nanoTime();
+        try {
+            Object result = method.invoke(target, args);
+            recorder.record(serviceName, method.getName(), args, result, null, 0, startedNanos, startedAtMillis);
+            return result;
+        } catch (InvocationTargetException e) {
+            recorder.record(serviceName, method.getName(), args, null, e.getCause(), 0,
+                    startedNanos, startedAtMillis);
+            throw e.getCause();
+        }
+    }
+}
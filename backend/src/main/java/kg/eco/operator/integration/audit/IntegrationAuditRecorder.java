@@ -0,0 +1,215 @@
+package kg.eco.operator.integration.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import kg.eco.operator.integration.config.IntegrationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Асинхронная запись журнала вызовов внешних систем в integration_audit_log.
+ *
+ * Поток вызова только кладёт сырой замер в lock-free кольцевой буфер
+ * ({@link #record}); сериализация payload ({@link PayloadRenderer} — не
+ * дальше {@code max-payload-chars}, у коллекций только размер и первые
+ * {@code max-payload-elements} элементов), поиск ИНН, гистограммы
+ * задержек и JDBC batch insert выполняются фоновым сбросом
+ * ({@code integration.audit.flush-interval-ms}). При переполнении буфера
+ * замер отбрасывается и учитывается в счётчике dropped — вызов внешней
+ * системы никогда не ждёт журнал.
+ */
+@Slf4j
+@Component
+public class IntegrationAuditRecorder {
+
+    public static final String TAX_SERVICE = "TAX_SERVICE";
+    public static final String CUSTOMS_SERVICE = "CUSTOMS_SERVICE";
+    public static final String BANKING = "BANKING";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO integration_audit_log
+                (service_name, operation, request_payload, response_payload, status,
+                 error_message, duration_ms, company_inn, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    /** ИНН КР — 14 цифр. */
+    private static final Pattern INN = Pattern.compile("(?<!\\d)\\d{14}(?!\\d)");
+    /** Числовые сегменты пути ("/inn/0231.../verify" → "/inn/{id}/verify"), чтобы не дробить гистограммы. */
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IntegrationProperties.AuditConfig config;
+    private final RingBuffer<IntegrationCall> buffer;
+    private final PayloadRenderer payloadRenderer;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public IntegrationAuditRecorder(JdbcTemplate jdbcTemplate, IntegrationProperties properties,
+                                    ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = properties.getAudit();
+        this.buffer = new RingBuffer<>(config.getBufferSize());
+        this.payloadRenderer = new PayloadRenderer(objectMapper,
+                config.getMaxPayloadChars(), config.getMaxPayloadElements());
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Фиксирует вызов. Не блокируется и не выделяет ничего, кроме самого замера.
+     *
+     * @param request    тело запроса (byte[]), DTO или массив аргументов
+     * @param response   тело ответа (byte[]) или DTO
+     * @param httpStatus код HTTP-ответа, 0 — если HTTP не было
+     */
+    public void record(String serviceName, String operation, Object request, Object response,
+                       Throwable error, int httpStatus, long startedNanos, long startedAtMillis) {
+        if (!config.isEnabled()) return;
+        IntegrationCall call = new IntegrationCall(serviceName, operation, request, response,
+                error, httpStatus, System.nanoTime() - startedNanos, startedAtMillis);
+        if (!buffer.offer(call)) {
+            dropped.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${integration.audit.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /** Сбрасывает накопленные замеры в БД. Параллельный вызов пропускается. */
+    public void flush() {
+        if (!flushLock.tryLock()) return;
+        try {
+            List<Object[]> rows = new ArrayList<>(config.getBatchSize());
+            IntegrationCall call;
+            while ((call = buffer.poll()) != null) {
+                rows.add(toRow(call));
+                if (rows.size() >= config.getBatchSize()) {
+                    write(rows);
+                    rows = new ArrayList<>(config.getBatchSize());
+                }
+            }
+            if (!rows.isEmpty()) write(rows);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** Гистограммы задержек по «система операция» и состояние буфера. */
+    public Map<String, Object> stats() {
+        Map<String, Object> operations = new TreeMap<>();
+        histograms.forEach((key, histogram) -> operations.put(key, histogram.snapshot()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("buffered", buffer.size());
+        result.put("capacity", buffer.capacity());
+        result.put("written", written.sum());
+        result.put("dropped", dropped.sum());
+        result.put("operations", operations);
+        return result;
+    }
+
+    // ─── Internals ───
+
+    private void write(List<Object[]> rows) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            written.add(rows.size());
+        } catch (Exception e) {
+            // Журнал не должен влиять на основную работу — теряем пачку, но не падаем
+            log.error("Не удалось записать журнал интеграций ({} записей): {}", rows.size(), e.getMessage());
+        }
+    }
+
+    private Object[] toRow(IntegrationCall call) {
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(call.durationNanos());
+        String status = status(call);
+        String operation = NUMERIC_SEGMENT.matcher(call.operation()).replaceAll("/{id}");
+        histograms.computeIfAbsent(call.serviceName() + " " + operation, k -> new LatencyHistogram())
+                .record(durationMs, !"SUCCESS".equals(status));
+
+        String request = payloadRenderer.render(call.request());
+        String response = payloadRenderer.render(call.response());
+        return new Object[]{
+                call.serviceName(),
+                truncate(operation, 100),
+                request,
+                response,
+                status,
+                errorMessage(call),
+                (int) Math.min(Integer.MAX_VALUE, durationMs),
+                findInn(call.operation(), request),
+                new Timestamp(call.startedAtMillis())
+        };
+    }
+
+    private static String status(IntegrationCall call) {
+        if (call.error() != null) return isTimeout(call.error()) ? "TIMEOUT" : "FAILURE";
+        if (call.httpStatus() >= 400) return call.httpStatus() == 504 ? "TIMEOUT" : "FAILURE";
+        return "SUCCESS";
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SocketTimeoutException || t instanceof HttpTimeoutException
+                    || t instanceof TimeoutException) {
+                return true;
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+
+    private static String errorMessage(IntegrationCall call) {
+        if (call.error() != null) {
+            String message = call.error().getMessage();
+            return truncate(call.error().getClass().getSimpleName() + (message != null ? ": " + message : ""), 1000);
+        }
+        return call.httpStatus() >= 400 ? "HTTP " + call.httpStatus() : null;
+    }
+
+    private static String findInn(String operation, String request) {
+        Matcher m = INN.matcher(operation);
+        if (m.find()) return m.group();
+        if (request != null) {
+            m = INN.matcher(request);
+            if (m.find()) return m.group();
+        }
+        return null;
+    }
+
+    private static String truncate(String value, int maxChars) {
+        if (value == null || value.length() <= maxChars) return value;
+        return value.substring(0, Math.max(0, maxChars - 1)) + "…";
+    }
+}
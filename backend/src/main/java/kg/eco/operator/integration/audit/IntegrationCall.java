@@ -0,0 +1,15 @@
+package kg.eco.operator.integration.audit;
+
+/**
+ * Сырой замер одного вызова внешней системы.
+ *
+ * Полезная нагрузка хранится как есть (byte[], DTO, массив аргументов):
+ * преобразование в строку, обрезка и поиск ИНН выполняются в потоке
+ * сброса, а не в потоке вызова.
+ *
+ * @param httpStatus код HTTP-ответа или 0 для вызовов без HTTP (заглушки, сетевые ошибки)
+ */
+record IntegrationCall(String serviceName, String operation,
+                       Object request, Object response,
+                       Throwable error, int httpStatus,
+                       long durationNanos, long startedAtMillis) {}
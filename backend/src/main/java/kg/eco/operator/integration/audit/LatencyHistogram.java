@@ -0,0 +1,67 @@
+package kg.eco.operator.integration.audit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма задержек с фиксированными границами (мс).
+ * Пишет только поток сброса аудита; читать можно из любого потока.
+ * Перцентили оцениваются по верхней границе корзины.
+ */
+final class LatencyHistogram {
+
+    private static final long[] BOUNDS_MS = {
+            5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    void record(long durationMs, boolean failed) {
+        int i = 0;
+        while (i < BOUNDS_MS.length && durationMs > BOUNDS_MS[i]) i++;
+        buckets.incrementAndGet(i);
+        count.incrementAndGet();
+        if (failed) failures.incrementAndGet();
+        totalMs.addAndGet(durationMs);
+        maxMs.accumulateAndGet(durationMs, Math::max);
+    }
+
+    Map<String, Object> snapshot() {
+        long n = count.get();
+        long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; i++) counts[i] = buckets.get(i);
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", n);
+        map.put("failures", failures.get());
+        map.put("avgMs", n == 0 ? 0 : totalMs.get() / n);
+        map.put("maxMs", maxMs.get());
+        map.put("p50Ms", percentile(counts, n, 0.50));
+        map.put("p95Ms", percentile(counts, n, 0.95));
+        map.put("p99Ms", percentile(counts, n, 0.99));
+
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            histogram.put(i < BOUNDS_MS.length ? "le_" + BOUNDS_MS[i] : "gt_" + BOUNDS_MS[i - 1], counts[i]);
+        }
+        map.put("buckets", histogram);
+        return map;
+    }
+
+    private long percentile(long[] counts, long n, double p) {
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(n * p);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return i < BOUNDS_MS.length ? BOUNDS_MS[i] : maxMs.get();
+        }
+        return maxMs.get();
+    }
+}
@@ -0,0 +1,203 @@
+package kg.eco.operator.integration.audit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.type.CollectionType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Текст payload для журнала с ограничением длины.
+ *
+ * Запись идёт в {@link BoundedWriter}, который прерывает сериализацию, как
+ * только набрано {@code maxChars} символов, поэтому выписка на миллион строк
+ * или список из 100 тыс. деклараций не обходится целиком. Для коллекций
+ * записываются только размер и первые {@code maxElements} элементов — в том
+ * числе для списков внутри DTO (выписка банка с ленивым списком строк), так
+ * что ленивые списки заглушек не вычисляются дальше этих элементов.
+ * DTO сериализуются в JSON (как тела HTTP-запросов в production).
+ */
+final class PayloadRenderer {
+
+    private final ObjectWriter jsonWriter;
+    private final int maxChars;
+    private final int maxElements;
+
+    PayloadRenderer(ObjectMapper objectMapper, int maxChars, int maxElements) {
+        this.maxChars = Math.max(1, maxChars);
+        this.maxElements = Math.max(0, maxElements);
+        this.jsonWriter = objectMapper.copy()
+                .registerModule(boundedCollections(this.maxElements))
+                .writer()
+                .without(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /** Коллекции внутри DTO: первые maxElements элементов и строка «… size=N». */
+    private static SimpleModule boundedCollections(int maxElements) {
+        return new SimpleModule("audit-bounded-collections").setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifyCollectionSerializer(SerializationConfig config, CollectionType type,
+                                                               BeanDescription beanDesc,
+                                                               JsonSerializer<?> serializer) {
+                return new BoundedCollectionSerializer(maxElements);
+            }
+        });
+    }
+
+    /** Текст не длиннее maxChars (обрезанный заканчивается «…»); null для пустого payload. */
+    String render(Object value) {
+        if (value == null) return null;
+        if (value instanceof byte[] bytes && bytes.length == 0) return null;
+        if (value instanceof Object[] args && args.length == 0) return null;
+
+        BoundedWriter out = new BoundedWriter(maxChars);
+        try {
+            write(value, out);
+        } catch (IOException | RuntimeException e) {
+            if (!out.isFull()) {
+                return value.getClass().getSimpleName();
+            }
+        }
+        return out.isFull() ? out.text(maxChars - 1) + "…" : out.text(maxChars);
+    }
+
+    private void write(Object value, BoundedWriter out) throws IOException {
+        if (value == null) {
+            out.write("null");
+        } else if (value instanceof byte[] bytes) {
+            // Символ UTF-8 — не больше 4 байт: дальше лимита не декодируем
+            int length = (int) Math.min(bytes.length, (long) maxChars * 4 + 4);
+            out.write(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        } else if (value instanceof CharSequence text) {
+            out.append(text, 0, Math.min(text.length(), maxChars + 1));
+        } else if (value instanceof Object[] args) {
+            writeElements(args.length, Arrays.asList(args).iterator(), out, false);
+        } else if (value instanceof Collection<?> collection) {
+            writeElements(collection.size(), collection.iterator(), out, true);
+        } else if (value instanceof Map<?, ?> map) {
+            writeElements(map.size(), map.entrySet().iterator(), out, true);
+        } else {
+            jsonWriter.writeValue(out, value);
+        }
+    }
+
+    /** [a, b, …] — не больше maxElements элементов; для коллекций впереди размер. */
+    private void writeElements(int size, Iterator<?> elements, BoundedWriter out, boolean withSize)
+            throws IOException {
+        if (withSize) {
+            out.write("size=" + size + " ");
+        }
+        out.write('[');
+        int limit = withSize ? Math.min(size, maxElements) : size;
+        for (int i = 0; i < limit && elements.hasNext(); i++) {
+            if (i > 0) out.write(", ");
+            Object element = elements.next();
+            if (element instanceof Map.Entry<?, ?> entry) {
+                write(entry.getKey(), out);
+                out.write('=');
+                write(entry.getValue(), out);
+            } else {
+                write(element, out);
+            }
+        }
+        if (limit < size) {
+            out.write(", …");
+        }
+        out.write(']');
+    }
+
+    private static final class BoundedCollectionSerializer extends StdSerializer<Collection<?>> {
+
+        private final int maxElements;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        BoundedCollectionSerializer(int maxElements) {
+            super((Class) Collection.class);
+            this.maxElements = maxElements;
+        }
+
+        @Override
+        public void serialize(Collection<?> value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            int size = value.size();
+            gen.writeStartArray(value);
+            Iterator<?> elements = value.iterator();
+            for (int i = 0; i < maxElements && elements.hasNext(); i++) {
+                provider.defaultSerializeValue(elements.next(), gen);
+            }
+            if (size > maxElements) {
+                gen.writeString("… size=" + size);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    /** Writer, который перестаёт принимать данные после лимита и прерывает запись исключением. */
+    private static final class BoundedWriter extends Writer {
+
+        private final StringBuilder buffer;
+        private final int limit;
+        private boolean full;
+
+        BoundedWriter(int limit) {
+            this.limit = limit;
+            this.buffer = new StringBuilder(Math.min(limit + 1, 1024));
+        }
+
+        boolean isFull() {
+            return full;
+        }
+
+        String text(int maxChars) {
+            return buffer.length() <= maxChars ? buffer.toString() : buffer.substring(0, maxChars);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            // Один символ сверх лимита — признак обрезки
+            int room = limit + 1 - buffer.length();
+            buffer.append(chars, offset, Math.max(0, Math.min(length, room)));
+            if (buffer.length() > limit) {
+                full = true;
+                throw new LimitReachedException();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /** Сигнал остановки сериализации; стек не нужен. */
+    private static final class LimitReachedException extends IOException {
+
+        LimitReachedException() {
+            super("payload limit reached");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
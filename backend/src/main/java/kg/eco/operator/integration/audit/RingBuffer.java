@@ -0,0 +1,70 @@
+package kg.eco.operator.integration.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченный lock-free кольцевой буфер: много писателей, один читатель
+ * (схема Д. Вьюкова с порядковым номером в каждой ячейке).
+ *
+ * Запись — один CAS без блокировок и аллокаций; при переполнении
+ * {@link #offer} сразу возвращает false, и писатель никогда не ждёт читателя.
+ */
+final class RingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    RingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.items = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /** @return false, если буфер заполнен (элемент отброшен) */
+    boolean offer(T item) {
+        while (true) {
+            long pos = tail.get();
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items.lazySet(index, item);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            // diff > 0 — другой писатель уже занял ячейку, пробуем следующую позицию
+        }
+    }
+
+    /** Только для одного потока-читателя. @return null, если готовых элементов нет */
+    T poll() {
+        long pos = head.get();
+        int index = (int) (pos & mask);
+        if (sequences.get(index) != pos + 1) return null;
+        T item = items.get(index);
+        items.lazySet(index, null);
+        sequences.set(index, pos + mask + 1);
+        head.lazySet(pos + 1);
+        return item;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
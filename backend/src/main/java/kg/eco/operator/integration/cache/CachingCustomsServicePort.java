@@ -0,0 +1,47 @@
+package kg.eco.operator.integration.cache;
+
+import kg.eco.operator.integration.customs.CustomsServicePort;
+import kg.eco.operator.integration.customs.dto.CustomsDeclarationRequest;
+import kg.eco.operator.integration.customs.dto.CustomsDeclarationResponse;
+import kg.eco.operator.integration.customs.dto.CustomsVolumeVerificationResponse;
+
+import java.util.List;
+
+/**
+ * Кэширующий декоратор {@link CustomsServicePort}.
+ */
+public class CachingCustomsServicePort implements CustomsServicePort {
+
+    private final CustomsServicePort delegate;
+    private final TtlCache<CustomsDeclarationRequest, List<CustomsDeclarationResponse>> declarationsCache;
+    private final TtlCache<VolumeKey, CustomsVolumeVerificationResponse> volumesCache;
+
+    public CachingCustomsServicePort(CustomsServicePort delegate, IntegrationCacheManager cacheManager) {
+        this.delegate = delegate;
+        var config = cacheManager.getConfig();
+        this.declarationsCache = cacheManager.cache("customs.getImportDeclarations",
+                config.getCustomsDeclarationsTtl(), (List<CustomsDeclarationResponse> r) -> r.isEmpty());
+        this.volumesCache = cacheManager.cache("customs.verifyDeclaredVolumes",
+                config.getVolumeVerificationTtl(), (CustomsVolumeVerificationResponse r) -> false);
+    }
+
+    @Override
+    public List<CustomsDeclarationResponse> getImportDeclarations(CustomsDeclarationRequest request) {
+        // Запрос мутабельный (@Data) — кэшируем по копии, чтобы ключ не менялся снаружи
+        CustomsDeclarationRequest key = CustomsDeclarationRequest.builder()
+                .companyInn(request.getCompanyInn())
+                .periodFrom(request.getPeriodFrom())
+                .periodTo(request.getPeriodTo())
+                .tnvedCodeFilter(request.getTnvedCodeFilter())
+                .build();
+        return declarationsCache.get(key, delegate::getImportDeclarations);
+    }
+
+    @Override
+    public CustomsVolumeVerificationResponse verifyDeclaredVolumes(String companyInn, int year, int quarter) {
+        return volumesCache.get(new VolumeKey(companyInn, year, quarter),
+                k -> delegate.verifyDeclaredVolumes(k.inn(), k.year(), k.quarter()));
+    }
+
+    private record VolumeKey(String inn, int year, int quarter) {}
+}
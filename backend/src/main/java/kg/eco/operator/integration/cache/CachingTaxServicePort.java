@@ -0,0 +1,50 @@
+package kg.eco.operator.integration.cache;
+
+import kg.eco.operator.integration.taxservice.TaxServicePort;
+import kg.eco.operator.integration.taxservice.dto.TaxCompanyRegistrationResponse;
+import kg.eco.operator.integration.taxservice.dto.TaxInnVerificationResponse;
+import kg.eco.operator.integration.taxservice.dto.TaxReportSubmissionRequest;
+import kg.eco.operator.integration.taxservice.dto.TaxReportSubmissionResponse;
+
+import java.util.List;
+
+/**
+ * Кэширующий декоратор {@link TaxServicePort}: проверка ИНН и
+ * регистрационные данные берутся из кэша, отправка отчётов и поиск по
+ * ОКЭД всегда идут в ГНС.
+ */
+public class CachingTaxServicePort implements TaxServicePort {
+
+    private final TaxServicePort delegate;
+    private final TtlCache<String, TaxInnVerificationResponse> verifyInnCache;
+    private final TtlCache<String, TaxCompanyRegistrationResponse> registrationCache;
+
+    public CachingTaxServicePort(TaxServicePort delegate, IntegrationCacheManager cacheManager) {
+        this.delegate = delegate;
+        var config = cacheManager.getConfig();
+        this.verifyInnCache = cacheManager.cache("tax.verifyInn", config.getVerifyInnTtl(),
+                (TaxInnVerificationResponse r) -> !r.isValid());
+        this.registrationCache = cacheManager.cache("tax.getCompanyRegistration", config.getRegistrationTtl(),
+                (TaxCompanyRegistrationResponse r) -> r.getInn() == null);
+    }
+
+    @Override
+    public TaxInnVerificationResponse verifyInn(String inn) {
+        return verifyInnCache.get(inn, delegate::verifyInn);
+    }
+
+    @Override
+    public TaxCompanyRegistrationResponse getCompanyRegistration(String inn) {
+        return registrationCache.get(inn, delegate::getCompanyRegistration);
+    }
+
+    @Override
+    public TaxReportSubmissionResponse submitUtilizationFeeReport(TaxReportSubmissionRequest request) {
+        return delegate.submitUtilizationFeeReport(request);
+    }
+
+    @Override
+    public List<TaxCompanyRegistrationResponse> getCompaniesByOkedCodes(List<String> okedCodes) {
+        return delegate.getCompaniesByOkedCodes(okedCodes);
+    }
+}
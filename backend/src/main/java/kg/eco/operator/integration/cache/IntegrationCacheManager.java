@@ -0,0 +1,51 @@
+package kg.eco.operator.integration.cache;
+
+import kg.eco.operator.integration.config.IntegrationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+/**
+ * Реестр кэшей интеграций (ГНС, ГТС). Загрузки выполняются на виртуальных
+ * потоках — блокирующий HTTP-вызов не занимает общий ForkJoinPool.
+ */
+@Component
+public class IntegrationCacheManager {
+
+    private final IntegrationProperties.CacheConfig config;
+    private final ExecutorService loaderExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, TtlCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    public IntegrationCacheManager(IntegrationProperties properties) {
+        this.config = properties.getCache();
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K, V> TtlCache<K, V> cache(String name, Duration ttl, Predicate<V> isNegative) {
+        return (TtlCache<K, V>) caches.computeIfAbsent(name, n -> new TtlCache<>(
+                n, config.getMaximumSize(), ttl, config.getNegativeTtl(), isNegative, loaderExecutor));
+    }
+
+    public IntegrationProperties.CacheConfig getConfig() {
+        return config;
+    }
+
+    /** Статистика попаданий/промахов по всем кэшам. */
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        caches.values().stream()
+                .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .forEach(c -> result.put(c.getName(), c.stats()));
+        return result;
+    }
+}
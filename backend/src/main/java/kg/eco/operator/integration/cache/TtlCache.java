@@ -0,0 +1,94 @@
+package kg.eco.operator.integration.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Ограниченный по размеру кэш ответов внешней системы с TTL.
+ * <ul>
+ *   <li>положительные ответы живут {@code ttl}, отрицательные («не найдено»,
+ *       {@code null}) — {@code negativeTtl};</li>
+ *   <li>single-flight: параллельные запросы одного ключа ждут один и тот же
+ *       вызов внешней системы;</li>
+ *   <li>ошибки не кэшируются — следующий запрос снова пойдёт во внешнюю систему.</li>
+ * </ul>
+ */
+public final class TtlCache<K, V> {
+
+    private final String name;
+    private final AsyncCache<K, Optional<V>> cache;
+
+    TtlCache(String name, long maximumSize, Duration ttl, Duration negativeTtl,
+             Predicate<V> isNegative, Executor executor) {
+        this.name = name;
+        long ttlNanos = ttl.toNanos();
+        long negativeNanos = negativeTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<K, Optional<V>>() {
+                    @Override
+                    public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+                        return value.isEmpty() || isNegative.test(value.get()) ? negativeNanos : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .executor(executor)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Значение из кэша либо результат {@code loader}. Исключение загрузчика
+     * пробрасывается как есть (IntegrationException и т.п.).
+     */
+    public V get(K key, Function<K, V> loader) {
+        try {
+            return cache.get(key, k -> Optional.ofNullable(loader.apply(k))).join().orElse(null);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats s = cache.synchronous().stats();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", cache.synchronous().estimatedSize());
+        map.put("hits", s.hitCount());
+        map.put("misses", s.missCount());
+        map.put("hitRate", s.hitRate());
+        map.put("loadFailures", s.loadFailureCount());
+        map.put("evictions", s.evictionCount());
+        map.put("averageLoadMillis", s.averageLoadPenalty() / 1_000_000.0);
+        return map;
+    }
+}
@@ -1,13 +1,25 @@
 package kg.eco.operator.integration.config;
 
 import jakarta.annotation.PostConstruct;
+import kg.eco.operator.integration.audit.AuditingHttpInterceptor;
+import kg.eco.operator.integration.audit.IntegrationAuditRecorder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 import java.time.Duration;
@@ -20,26 +32,27 @@ public class IntegrationConfig {
 
     private final IntegrationProperties properties;
     private final Environment environment;
+    private final IntegrationAuditRecorder auditRecorder;
 
     @Bean
     @Profile("production")
     public RestClient taxServiceClient() {
         log.info("Configuring RestClient for ГНС КР: {}", properties.getTaxService().getBaseUrl());
-        return buildClient(properties.getTaxService());
+        return buildClient(IntegrationAuditRecorder.TAX_SERVICE, properties.getTaxService());
     }
 
     @Bean
     @Profile("production")
     public RestClient customsServiceClient() {
         log.info("Configuring RestClient for ГТС КР: {}", properties.getCustomsService().getBaseUrl());
-        return buildClient(properties.getCustomsService());
+        return buildClient(IntegrationAuditRecorder.CUSTOMS_SERVICE, properties.getCustomsService());
     }
 
     @Bean
     @Profile("production")
     public RestClient bankingClient() {
         log.info("Configuring RestClient for банковской системы: {}", properties.getBanking().getBaseUrl());
-        return buildClient(properties.getBanking());
+        return buildClient(IntegrationAuditRecorder.BANKING, properties.getBanking());
     }
 
     /**
@@ -56,16 +69,54 @@ public class IntegrationConfig {
         validateUrl("banking", properties.getBanking());
     }
 
-    private RestClient buildClient(IntegrationProperties.ServiceConfig config) {
-        var factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(Duration.ofMillis(config.getTimeout()));
-        factory.setReadTimeout(Duration.ofMillis(config.getTimeout()));
+    private RestClient buildClient(String serviceName, IntegrationProperties.ServiceConfig config) {
+        var pooled = new HttpComponentsClientHttpRequestFactory(buildHttpClient(config));
+        pooled.setConnectionRequestTimeout(config.getPool().getConnectionRequestTimeout());
+        pooled.setReadTimeout(Duration.ofMillis(config.getTimeout()));
 
-        return RestClient.builder()
+        RestClient.Builder builder = RestClient.builder()
                 .baseUrl(config.getBaseUrl())
                 .defaultHeader("X-API-Key", config.getApiKey())
-                .defaultHeader("Content-Type", "application/json")
-                .requestFactory(factory)
+                .defaultHeader("Content-Type", "application/json");
+
+        ClientHttpRequestFactory factory = pooled;
+        if (auditRecorder.isEnabled()) {
+            // Буферизация нужна, чтобы журнал и адаптер могли прочитать тело ответа
+            factory = new BufferingClientHttpRequestFactory(pooled);
+            builder.requestInterceptor(new AuditingHttpInterceptor(serviceName, auditRecorder));
+        }
+        return builder.requestFactory(factory).build();
+    }
+
+    /**
+     * Пул keep-alive соединений: повторные вызовы не платят за TCP/TLS handshake.
+     * Автоматические повторы HttpClient отключены — повторами управляет
+     * ResiliencePolicy (с backoff и только для идемпотентных операций).
+     */
+    private CloseableHttpClient buildHttpClient(IntegrationProperties.ServiceConfig config) {
+        IntegrationProperties.PoolConfig pool = config.getPool();
+        Timeout timeout = Timeout.ofMilliseconds(config.getTimeout());
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxConnections())
+                .setMaxConnPerRoute(pool.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout)
+                        .setSocketTimeout(timeout)
+                        .setTimeToLive(TimeValue.of(pool.getConnectionTtl()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .build())
+                .build();
+
+        TimeValue keepAlive = TimeValue.of(pool.getKeepAlive());
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionKeepAlive(keepAlive)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive)
+                .disableAutomaticRetries()
                 .build();
     }
 
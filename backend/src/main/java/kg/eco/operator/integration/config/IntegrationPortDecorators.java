@@ -0,0 +1,133 @@
+package kg.eco.operator.integration.config;
+
+import kg.eco.operator.integration.audit.AuditingPortProxy;
+import kg.eco.operator.integration.audit.IntegrationAuditRecorder;
+import kg.eco.operator.integration.banking.BankingServicePort;
+import kg.eco.operator.integration.cache.CachingCustomsServicePort;
+import kg.eco.operator.integration.cache.CachingTaxServicePort;
+import kg.eco.operator.integration.cache.IntegrationCacheManager;
+import kg.eco.operator.integration.customs.CustomsServicePort;
+import kg.eco.operator.integration.resilience.IntegrationResilienceRegistry;
+import kg.eco.operator.integration.resilience.ResilientBankingServicePort;
+import kg.eco.operator.integration.resilience.ResilientCustomsServicePort;
+import kg.eco.operator.integration.resilience.ResilientTaxServicePort;
+import kg.eco.operator.integration.simulation.IntegrationSimulation;
+import kg.eco.operator.integration.taxservice.TaxServicePort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Оборачивает адаптеры ГНС/ГТС/банка (и Rest, и Stub — в зависимости от профиля)
+ * в декораторы. Потребители по-прежнему инжектят порт по интерфейсу.
+ *
+ * Порядок: кэш → отказоустойчивость (bulkhead, breaker, повторы) → журнал → адаптер.
+ * Для заглушек при {@code integration.simulation.enabled} между журналом и
+ * заглушкой добавляется имитация задержек, сбоев и объёмов данных.
+ * Попадание в кэш не занимает bulkhead и не влияет на статистику breaker'а.
+ *
+ * Журнал вызовов: в production его пишет перехватчик RestClient (каждая
+ * HTTP-попытка), для заглушек — {@link AuditingPortProxy} вокруг адаптера.
+ */
+@Slf4j
+@Configuration
+public class IntegrationPortDecorators {
+
+    @Bean
+    public static BeanPostProcessor integrationPortDecorator(ObjectProvider<IntegrationCacheManager> cacheManager,
+                                                             ObjectProvider<IntegrationResilienceRegistry> resilience,
+                                                             ObjectProvider<IntegrationAuditRecorder> auditRecorder,
+                                                             ObjectProvider<IntegrationSimulation> simulation,
+                                                             Environment environment) {
+        boolean stubs = !environment.acceptsProfiles(Profiles.of("production"));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof TaxServicePort port && !isDecorator(bean)) {
+                    TaxServicePort result = stubs
+                            ? audited(simulated(port), TaxServicePort.class, IntegrationAuditRecorder.TAX_SERVICE)
+                            : port;
+                    IntegrationResilienceRegistry policies = resilience.getObject();
+                    if (policies.isEnabled(IntegrationResilienceRegistry.TAX)) {
+                        log.info("Отказоустойчивость вызовов ГНС включена для {}", beanName);
+                        result = new ResilientTaxServicePort(result,
+                                policies.policy(IntegrationResilienceRegistry.TAX));
+                    }
+                    IntegrationCacheManager caches = cacheManager.getObject();
+                    if (caches.isEnabled()) {
+                        log.info("Кэширование ответов ГНС включено для {}", beanName);
+                        result = new CachingTaxServicePort(result, caches);
+                    }
+                    return result;
+                }
+                if (bean instanceof CustomsServicePort port && !isDecorator(bean)) {
+                    CustomsServicePort result = stubs
+                            ? audited(simulated(port), CustomsServicePort.class, IntegrationAuditRecorder.CUSTOMS_SERVICE)
+                            : port;
+                    IntegrationResilienceRegistry policies = resilience.getObject();
+                    if (policies.isEnabled(IntegrationResilienceRegistry.CUSTOMS)) {
+                        log.info("Отказоустойчивость вызовов ГТС включена для {}", beanName);
+                        result = new ResilientCustomsServicePort(result,
+                                policies.policy(IntegrationResilienceRegistry.CUSTOMS));
+                    }
+                    IntegrationCacheManager caches = cacheManager.getObject();
+                    if (caches.isEnabled()) {
+                        log.info("Кэширование ответов ГТС включено для {}", beanName);
+                        result = new CachingCustomsServicePort(result, caches);
+                    }
+                    return result;
+                }
+                if (bean instanceof BankingServicePort port && !isDecorator(bean)) {
+                    BankingServicePort result = stubs
+                            ? audited(simulated(port), BankingServicePort.class, IntegrationAuditRecorder.BANKING)
+                            : port;
+                    IntegrationResilienceRegistry policies = resilience.getObject();
+                    if (policies.isEnabled(IntegrationResilienceRegistry.BANKING)) {
+                        log.info("Отказоустойчивость вызовов банка включена для {}", beanName);
+                        result = new ResilientBankingServicePort(result,
+                                policies.policy(IntegrationResilienceRegistry.BANKING));
+                    }
+                    return result;
+                }
+                return bean;
+            }
+
+            private TaxServicePort simulated(TaxServicePort stub) {
+                IntegrationSimulation sim = simulation.getObject();
+                return sim.isEnabled() ? sim.wrap(stub) : stub;
+            }
+
+            private CustomsServicePort simulated(CustomsServicePort stub) {
+                IntegrationSimulation sim = simulation.getObject();
+                return sim.isEnabled() ? sim.wrap(stub) : stub;
+            }
+
+            private BankingServicePort simulated(BankingServicePort stub) {
+                IntegrationSimulation sim = simulation.getObject();
+                return sim.isEnabled() ? sim.wrap(stub) : stub;
+            }
+
+            private <T> T audited(T port, Class<T> portType, String serviceName) {
+                IntegrationAuditRecorder recorder = auditRecorder.getObject();
+                return recorder.isEnabled()
+                        ? AuditingPortProxy.wrap(port, portType, serviceName, recorder)
+                        : port;
+            }
+        };
+    }
+
+    private static boolean isDecorator(Object bean) {
+        return Proxy.isProxyClass(bean.getClass())
+                || bean instanceof CachingTaxServicePort
+                || bean instanceof CachingCustomsServicePort
+                || bean instanceof ResilientTaxServicePort
+                || bean instanceof ResilientCustomsServicePort
+                || bean instanceof ResilientBankingServicePort;
+    }
+}
@@ -1,9 +1,13 @@
 package kg.eco.operator.integration.config;
 
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "integration")
 @Data
@@ -14,6 +18,9 @@ public class IntegrationProperties {
     private ServiceConfig taxService = new ServiceConfig();
     private ServiceConfig customsService = new ServiceConfig();
     private BankingConfig banking = new BankingConfig();
+    private CacheConfig cache = new CacheConfig();
+    private AuditConfig audit = new AuditConfig();
+    private SimulationConfig simulation = new SimulationConfig();
 
     @Data
     public static class ServiceConfig {
@@ -21,11 +28,117 @@ public class IntegrationProperties {
         private String apiKey;
         private int timeout = 15000;
         private boolean enabled = true;
+        private PoolConfig pool = new PoolConfig();
+        private ResilienceConfig resilience = new ResilienceConfig();
+    }
+
+    /** Пул HTTP-соединений к внешней системе (Apache HttpClient 5). */
+    @Data
+    public static class PoolConfig {
+        private int maxConnections = 20;
+        /** Сколько ждать свободного соединения из пула. */
+        private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+        private Duration keepAlive = Duration.ofSeconds(30);
+        /** Максимальный срок жизни соединения (DNS/балансировщик могут смениться). */
+        private Duration connectionTtl = Duration.ofMinutes(5);
     }
 
+    /** Circuit breaker, bulkhead и повторы для вызовов внешней системы. */
     @Data
+    public static class ResilienceConfig {
+        private boolean enabled = true;
+        private int bulkheadMaxConcurrentCalls = 20;
+        private Duration bulkheadMaxWait = Duration.ofMillis(500);
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        private int retryMaxAttempts = 3;
+        private Duration retryInitialBackoff = Duration.ofMillis(200);
+    }
+
+    @Getter
+    @Setter
     public static class BankingConfig extends ServiceConfig {
         private String ecoOperatorAccount;
         private String ecoOperatorBik;
     }
+
+    @Data
+    public static class CacheConfig {
+        private boolean enabled = true;
+        private long maximumSize = 10000;
+        /** TTL для ответов «не найдено» (negative caching). */
+        private Duration negativeTtl = Duration.ofMinutes(5);
+        private Duration verifyInnTtl = Duration.ofHours(1);
+        private Duration registrationTtl = Duration.ofHours(6);
+        private Duration customsDeclarationsTtl = Duration.ofMinutes(15);
+        private Duration volumeVerificationTtl = Duration.ofHours(1);
+    }
+
+    /** Журнал вызовов внешних систем (integration_audit_log). */
+    @Data
+    public static class AuditConfig {
+        private boolean enabled = true;
+        /** Ёмкость кольцевого буфера; при переполнении записи отбрасываются. */
+        private int bufferSize = 8192;
+        private int batchSize = 500;
+        private long flushIntervalMs = 1000;
+        /** Длина request/response payload в журнале (символов). */
+        private int maxPayloadChars = 4000;
+        /** Сколько первых элементов коллекции попадает в журнал (плюс её размер). */
+        private int maxPayloadElements = 20;
+    }
+
+    /**
+     * Режим имитации для заглушек (профили без production): задержки, ошибки
+     * и сгенерированные данные заданного объёма для нагрузочных тестов.
+     */
+    @Data
+    public static class SimulationConfig {
+        private boolean enabled = false;
+        /** Зерно генератора: одинаковое зерно — одинаковые данные и последовательность сбоев. */
+        private long seed = 42;
+        private TaxSimulation taxService = new TaxSimulation();
+        private CustomsSimulation customsService = new CustomsSimulation();
+        private BankingSimulation banking = new BankingSimulation();
+    }
+
+    /** Задержка (логнормальное распределение по медиане и p99) и доля сбоев. */
+    @Data
+    public static class FaultConfig {
+        private Duration latencyMedian = Duration.ZERO;
+        private Duration latencyP99 = Duration.ZERO;
+        /** Доля вызовов, завершающихся сетевой ошибкой (0..1). */
+        private double errorRate = 0;
+        /** Доля вызовов, завершающихся таймаутом после ожидания {@code timeout} (0..1). */
+        private double timeoutRate = 0;
+        private Duration timeout = Duration.ofSeconds(15);
+    }
+
+    @Getter
+    @Setter
+    public static class TaxSimulation extends FaultConfig {
+        /** Сколько компаний отдаёт getCompaniesByOkedCodes (0 — данные заглушки). */
+        private int okedCompanies = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class CustomsSimulation extends FaultConfig {
+        /** Сколько ГТД отдаёт getImportDeclarations за запрос (0 — данные заглушки). */
+        private int declarations = 0;
+        private int itemsPerDeclaration = 3;
+        /** Размер пула ИНН импортёров: один ИНН встречается во многих ГТД. */
+        private int companies = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class BankingSimulation extends FaultConfig {
+        /** Сколько строк в выписке getAccountStatement (0 — данные заглушки). */
+        private int statementLines = 0;
+    }
 }
@@ -0,0 +1,48 @@
+package kg.eco.operator.integration.resilience;
+
+import kg.eco.operator.integration.config.IntegrationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Политики отказоустойчивости по внешним системам (ГНС, ГТС, банк).
+ * У каждой системы свой breaker и bulkhead — медленная ГТС не занимает
+ * потоки, нужные для проверки ИНН в ГНС.
+ */
+@Component
+public class IntegrationResilienceRegistry {
+
+    public static final String TAX = "ГНС КР";
+    public static final String CUSTOMS = "ГТС КР";
+    public static final String BANKING = "Банк";
+
+    private final Map<String, ResiliencePolicy> policies = new LinkedHashMap<>();
+    private final Map<String, Boolean> enabled = new LinkedHashMap<>();
+
+    public IntegrationResilienceRegistry(IntegrationProperties properties) {
+        register(TAX, properties.getTaxService());
+        register(CUSTOMS, properties.getCustomsService());
+        register(BANKING, properties.getBanking());
+    }
+
+    public boolean isEnabled(String service) {
+        return Boolean.TRUE.equals(enabled.get(service));
+    }
+
+    public ResiliencePolicy policy(String service) {
+        return policies.get(service);
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        policies.forEach((name, policy) -> result.put(name, policy.stats()));
+        return result;
+    }
+
+    private void register(String service, IntegrationProperties.ServiceConfig config) {
+        policies.put(service, new ResiliencePolicy(service, config.getResilience()));
+        enabled.put(service, config.getResilience().isEnabled());
+    }
+}
@@ -0,0 +1,116 @@
+package kg.eco.operator.integration.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import kg.eco.operator.integration.common.IntegrationException;
+import kg.eco.operator.integration.config.IntegrationProperties;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Политика отказоустойчивости одной внешней системы:
+ * bulkhead (ограничение одновременных вызовов) → circuit breaker →
+ * повтор с экспоненциальной задержкой и джиттером.
+ *
+ * Повторяются и учитываются breaker'ом только временные сбои — сетевые
+ * ошибки, таймауты, 5xx и 429. Ответы 4xx считаются корректным отказом
+ * внешней системы и пробрасываются сразу.
+ */
+public class ResiliencePolicy {
+
+    private final String serviceName;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+
+    public ResiliencePolicy(String serviceName, IntegrationProperties.ResilienceConfig config) {
+        this.serviceName = serviceName;
+        this.bulkhead = Bulkhead.of(serviceName, BulkheadConfig.custom()
+                .maxConcurrentCalls(config.getBulkheadMaxConcurrentCalls())
+                .maxWaitDuration(config.getBulkheadMaxWait())
+                .build());
+        this.circuitBreaker = CircuitBreaker.of(serviceName, CircuitBreakerConfig.custom()
+                .failureRateThreshold(config.getFailureRateThreshold())
+                .slowCallRateThreshold(config.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(config.getSlowCallDuration())
+                .slidingWindowSize(config.getSlidingWindowSize())
+                .minimumNumberOfCalls(config.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(config.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .recordException(ResiliencePolicy::isTransient)
+                .build());
+        this.retry = Retry.of(serviceName, RetryConfig.custom()
+                .maxAttempts(Math.max(1, config.getRetryMaxAttempts()))
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(
+                        config.getRetryInitialBackoff(), 2.0, 0.5))
+                .retryOnException(ResiliencePolicy::isTransient)
+                .build());
+    }
+
+    /** Идемпотентный вызов: bulkhead + breaker + повторы. */
+    public <T> T call(String operation, Supplier<T> call) {
+        return execute(operation, Retry.decorateSupplier(retry, protect(call)));
+    }
+
+    /** Неидемпотентный вызов (отправка отчёта и т.п.): без повторов. */
+    public <T> T callOnce(String operation, Supplier<T> call) {
+        return execute(operation, protect(call));
+    }
+
+    public Map<String, Object> stats() {
+        CircuitBreaker.Metrics m = circuitBreaker.getMetrics();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("state", circuitBreaker.getState().name());
+        map.put("failureRate", m.getFailureRate());
+        map.put("slowCallRate", m.getSlowCallRate());
+        map.put("bufferedCalls", m.getNumberOfBufferedCalls());
+        map.put("notPermittedCalls", m.getNumberOfNotPermittedCalls());
+        map.put("bulkheadAvailable", bulkhead.getMetrics().getAvailableConcurrentCalls());
+        map.put("retriedSuccess", retry.getMetrics().getNumberOfSuccessfulCallsWithRetryAttempt());
+        map.put("retriedFailure", retry.getMetrics().getNumberOfFailedCallsWithRetryAttempt());
+        return map;
+    }
+
+    private <T> Supplier<T> protect(Supplier<T> call) {
+        return CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, call));
+    }
+
+    private <T> T execute(String operation, Supplier<T> decorated) {
+        try {
+            return decorated.get();
+        } catch (CallNotPermittedException e) {
+            throw new IntegrationException(serviceName, operation,
+                    "сервис временно недоступен (circuit breaker открыт)");
+        } catch (BulkheadFullException e) {
+            throw new IntegrationException(serviceName, operation,
+                    "превышен лимит одновременных запросов");
+        }
+    }
+
+    static boolean isTransient(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpClientErrorException.TooManyRequests) return true;
+            if (t instanceof HttpClientErrorException) return false;
+            if (t instanceof ResourceAccessException
+                    || t instanceof HttpServerErrorException
+                    || t instanceof IOException) {
+                return true;
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,30 @@
+package kg.eco.operator.integration.resilience;
+
+import kg.eco.operator.integration.banking.BankingServicePort;
+import kg.eco.operator.integration.banking.dto.BankPaymentVerificationRequest;
+import kg.eco.operator.integration.banking.dto.BankPaymentVerificationResponse;
+import kg.eco.operator.integration.banking.dto.BankStatementRequest;
+import kg.eco.operator.integration.banking.dto.BankStatementResponse;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ResilientBankingServicePort implements BankingServicePort {
+
+    private final BankingServicePort delegate;
+    private final ResiliencePolicy policy;
+
+    @Override
+    public BankPaymentVerificationResponse verifyPayment(BankPaymentVerificationRequest request) {
+        return policy.call("verifyPayment", () -> delegate.verifyPayment(request));
+    }
+
+    @Override
+    public BankStatementResponse getAccountStatement(BankStatementRequest request) {
+        return policy.call("getAccountStatement", () -> delegate.getAccountStatement(request));
+    }
+
+    @Override
+    public BankPaymentVerificationResponse checkPaymentStatus(String trackingId) {
+        return policy.call("checkPaymentStatus", () -> delegate.checkPaymentStatus(trackingId));
+    }
+}
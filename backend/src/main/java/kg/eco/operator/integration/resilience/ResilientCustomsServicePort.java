@@ -0,0 +1,27 @@
+package kg.eco.operator.integration.resilience;
+
+import kg.eco.operator.integration.customs.CustomsServicePort;
+import kg.eco.operator.integration.customs.dto.CustomsDeclarationRequest;
+import kg.eco.operator.integration.customs.dto.CustomsDeclarationResponse;
+import kg.eco.operator.integration.customs.dto.CustomsVolumeVerificationResponse;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ResilientCustomsServicePort implements CustomsServicePort {
+
+    private final CustomsServicePort delegate;
+    private final ResiliencePolicy policy;
+
+    @Override
+    public List<CustomsDeclarationResponse> getImportDeclarations(CustomsDeclarationRequest request) {
+        return policy.call("getImportDeclarations", () -> delegate.getImportDeclarations(request));
+    }
+
+    @Override
+    public CustomsVolumeVerificationResponse verifyDeclaredVolumes(String companyInn, int year, int quarter) {
+        return policy.call("verifyDeclaredVolumes",
+                () -> delegate.verifyDeclaredVolumes(companyInn, year, quarter));
+    }
+}
@@ -0,0 +1,37 @@
+package kg.eco.operator.integration.resilience;
+
+import kg.eco.operator.integration.taxservice.TaxServicePort;
+import kg.eco.operator.integration.taxservice.dto.TaxCompanyRegistrationResponse;
+import kg.eco.operator.integration.taxservice.dto.TaxInnVerificationResponse;
+import kg.eco.operator.integration.taxservice.dto.TaxReportSubmissionRequest;
+import kg.eco.operator.integration.taxservice.dto.TaxReportSubmissionResponse;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ResilientTaxServicePort implements TaxServicePort {
+
+    private final TaxServicePort delegate;
+    private final ResiliencePolicy policy;
+
+    @Override
+    public TaxInnVerificationResponse verifyInn(String inn) {
+        return policy.call("verifyInn", () -> delegate.verifyInn(inn));
+    }
+
+    @Override
+    public TaxCompanyRegistrationResponse getCompanyRegistration(String inn) {
+        return policy.call("getCompanyRegistration", () -> delegate.getCompanyRegistration(inn));
+    }
+
+    @Override
+    public TaxReportSubmissionResponse submitUtilizationFeeReport(TaxReportSubmissionRequest request) {
+        return policy.callOnce("submitUtilizationFeeReport", () -> delegate.submitUtilizationFeeReport(request));
+    }
+
+    @Override
+    public List<TaxCompanyRegistrationResponse> getCompaniesByOkedCodes(List<String> okedCodes) {
+        return policy.call("getCompaniesByOkedCodes", () -> delegate.getCompaniesByOkedCodes(okedCodes));
+    }
+}
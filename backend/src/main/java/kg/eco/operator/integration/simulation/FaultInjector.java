@@ -0,0 +1,74 @@
+package kg.eco.operator.integration.simulation;
+
+import kg.eco.operator.integration.common.IntegrationException;
+import kg.eco.operator.integration.config.IntegrationProperties;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Имитация задержек и сбоев внешней системы.
+ *
+ * Задержка — логнормальная по заданным медиане и p99 (типичная форма
+ * распределения времени ответа сетевых сервисов). Сбои выбрасываются как
+ * IntegrationException с IOException / SocketTimeoutException внутри —
+ * так же, как у Rest-адаптеров, поэтому повторы и circuit breaker
+ * реагируют на них как на настоящие.
+ *
+ * Последовательность задержек и сбоев определяется зерном и номером вызова.
+ */
+class FaultInjector {
+
+    /** z-оценка 99-го перцентиля стандартного нормального распределения. */
+    private static final double Z_99 = 2.326;
+
+    private final String serviceName;
+    private final IntegrationProperties.FaultConfig config;
+    private final long seed;
+    private final double sigma;
+    private final AtomicLong calls = new AtomicLong();
+
+    FaultInjector(String serviceName, IntegrationProperties.FaultConfig config, long seed) {
+        this.serviceName = serviceName;
+        this.config = config;
+        this.seed = seed;
+        long median = config.getLatencyMedian().toMillis();
+        long p99 = config.getLatencyP99().toMillis();
+        this.sigma = median > 0 && p99 > median ? Math.log((double) p99 / median) / Z_99 : 0;
+    }
+
+    /** Выполняет имитацию перед ответом заглушки: ждёт и, возможно, падает. */
+    void apply(String operation) {
+        SplittableRandom random = new SplittableRandom(seed ^ (calls.incrementAndGet() * 0x9E3779B97F4A7C15L));
+        double roll = random.nextDouble();
+
+        if (roll < config.getTimeoutRate()) {
+            sleep(config.getTimeout().toMillis());
+            throw new IntegrationException(serviceName, operation,
+                    new SocketTimeoutException("Simulated read timeout"));
+        }
+        sleep(latency(random));
+        if (roll < config.getTimeoutRate() + config.getErrorRate()) {
+            throw new IntegrationException(serviceName, operation,
+                    new IOException("Simulated connection reset"));
+        }
+    }
+
+    private long latency(SplittableRandom random) {
+        long median = config.getLatencyMedian().toMillis();
+        if (median <= 0) return 0;
+        if (sigma == 0) return median;
+        return Math.round(median * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
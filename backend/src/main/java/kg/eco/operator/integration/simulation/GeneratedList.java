@@ -0,0 +1,34 @@
+package kg.eco.operator.integration.simulation;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * Неизменяемый список, элементы которого вычисляются по индексу при обращении.
+ * Выписка на миллион строк не занимает память, пока её не читают, а
+ * сериализация в JSON проходит по ней потоково.
+ */
+final class GeneratedList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final int size;
+    private final IntFunction<T> generator;
+
+    GeneratedList(int size, IntFunction<T> generator) {
+        this.size = size;
+        this.generator = generator;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return generator.apply(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
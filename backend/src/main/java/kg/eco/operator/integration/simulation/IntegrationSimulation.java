@@ -0,0 +1,60 @@
+package kg.eco.operator.integration.simulation;
+
+import kg.eco.operator.integration.banking.BankingServicePort;
+import kg.eco.operator.integration.config.IntegrationProperties;
+import kg.eco.operator.integration.customs.CustomsServicePort;
+import kg.eco.operator.integration.taxservice.TaxServicePort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Режим имитации для заглушек ГНС/ГТС/банка ({@code integration.simulation}).
+ *
+ * Оборачивает заглушку: перед ответом выдерживает задержку и с заданной
+ * вероятностью падает сетевой ошибкой или таймаутом; при заданных объёмах
+ * подменяет ответ детерминированно сгенерированными данными (например,
+ * 100 000 ГТД или выписка на 1 000 000 строк). Применяется только вне
+ * профиля production.
+ */
+@Slf4j
+@Component
+public class IntegrationSimulation {
+
+    private final IntegrationProperties.SimulationConfig config;
+    private final SyntheticDataGenerator generator;
+
+    public IntegrationSimulation(IntegrationProperties properties) {
+        this.config = properties.getSimulation();
+        this.generator = new SyntheticDataGenerator(config.getSeed());
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public TaxServicePort wrap(TaxServicePort stub) {
+        IntegrationProperties.TaxSimulation tax = config.getTaxService();
+        log.warn("Имитация ГНС включена: задержка {}/{} (медиана/p99), ошибки {}, таймауты {}",
+                tax.getLatencyMedian(), tax.getLatencyP99(), tax.getErrorRate(), tax.getTimeoutRate());
+        return new SimulatedTaxServicePort(stub,
+                new FaultInjector("ГНС КР", tax, config.getSeed()), generator, tax.getOkedCompanies());
+    }
+
+    public CustomsServicePort wrap(CustomsServicePort stub) {
+        IntegrationProperties.CustomsSimulation customs = config.getCustomsService();
+        log.warn("Имитация ГТС включена: задержка {}/{} (медиана/p99), ошибки {}, таймауты {}, ГТД на запрос {}",
+                customs.getLatencyMedian(), customs.getLatencyP99(), customs.getErrorRate(),
+                customs.getTimeoutRate(), customs.getDeclarations());
+        return new SimulatedCustomsServicePort(stub,
+                new FaultInjector("ГТС КР", customs, config.getSeed() + 1), generator, customs);
+    }
+
+    public BankingServicePort wrap(BankingServicePort stub) {
+        IntegrationProperties.BankingSimulation banking = config.getBanking();
+        log.warn("Имитация банка включена: задержка {}/{} (медиана/p99), ошибки {}, таймауты {}, строк выписки {}",
+                banking.getLatencyMedian(), banking.getLatencyP99(), banking.getErrorRate(),
+                banking.getTimeoutRate(), banking.getStatementLines());
+        return new SimulatedBankingServicePort(stub,
+                new FaultInjector("Банк", banking, config.getSeed() + 2), generator, banking.getStatementLines());
+    }
+}
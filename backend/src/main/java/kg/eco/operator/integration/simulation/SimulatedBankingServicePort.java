@@ -0,0 +1,40 @@
+package kg.eco.operator.integration.simulation;
+
+import kg.eco.operator.integration.banking.BankingServicePort;
+import kg.eco.operator.integration.banking.dto.BankPaymentVerificationRequest;
+import kg.eco.operator.integration.banking.dto.BankPaymentVerificationResponse;
+import kg.eco.operator.integration.banking.dto.BankStatementRequest;
+import kg.eco.operator.integration.banking.dto.BankStatementResponse;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+class SimulatedBankingServicePort implements BankingServicePort {
+
+    private final BankingServicePort delegate;
+    private final FaultInjector faults;
+    private final SyntheticDataGenerator generator;
+    private final int statementLines;
+
+    @Override
+    public BankPaymentVerificationResponse verifyPayment(BankPaymentVerificationRequest request) {
+        faults.apply("verifyPayment");
+        return delegate.verifyPayment(request);
+    }
+
+    @Override
+    public BankStatementResponse getAccountStatement(BankStatementRequest request) {
+        faults.apply("getAccountStatement");
+        BankStatementResponse response = delegate.getAccountStatement(request);
+        if (statementLines > 0) {
+            response.setEntries(generator.statementEntries(
+                    request.getPeriodFrom(), request.getPeriodTo(), statementLines));
+        }
+        return response;
+    }
+
+    @Override
+    public BankPaymentVerificationResponse checkPaymentStatus(String trackingId) {
+        faults.apply("checkPaymentStatus");
+        return delegate.checkPaymentStatus(trackingId);
+    }
+}
@@ -0,0 +1,35 @@
+package kg.eco.operator.integration.simulation;
+
+import kg.eco.operator.integration.config.IntegrationProperties;
+import kg.eco.operator.integration.customs.CustomsServicePort;
+import kg.eco.operator.integration.customs.dto.CustomsDeclarationRequest;
+import kg.eco.operator.integration.customs.dto.CustomsDeclarationResponse;
+import kg.eco.operator.integration.customs.dto.CustomsVolumeVerificationResponse;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class SimulatedCustomsServicePort implements CustomsServicePort {
+
+    private final CustomsServicePort delegate;
+    private final FaultInjector faults;
+    private final SyntheticDataGenerator generator;
+    private final IntegrationProperties.CustomsSimulation config;
+
+    @Override
+    public List<CustomsDeclarationResponse> getImportDeclarations(CustomsDeclarationRequest request) {
+        faults.apply("getImportDeclarations");
+        if (config.getDeclarations() <= 0) {
+            return delegate.getImportDeclarations(request);
+        }
+        return generator.customsDeclarations(request.getPeriodFrom(), request.getPeriodTo(),
+                config.getDeclarations(), config.getItemsPerDeclaration(), config.getCompanies());
+    }
+
+    @Override
+    public CustomsVolumeVerificationResponse verifyDeclaredVolumes(String companyInn, int year, int quarter) {
+        faults.apply("verifyDeclaredVolumes");
+        return delegate.verifyDeclaredVolumes(companyInn, year, quarter);
+    }
+}
@@ -0,0 +1,45 @@
+package kg.eco.operator.integration.simulation;
+
+import kg.eco.operator.integration.taxservice.TaxServicePort;
+import kg.eco.operator.integration.taxservice.dto.TaxCompanyRegistrationResponse;
+import kg.eco.operator.integration.taxservice.dto.TaxInnVerificationResponse;
+import kg.eco.operator.integration.taxservice.dto.TaxReportSubmissionRequest;
+import kg.eco.operator.integration.taxservice.dto.TaxReportSubmissionResponse;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class SimulatedTaxServicePort implements TaxServicePort {
+
+    private final TaxServicePort delegate;
+    private final FaultInjector faults;
+    private final SyntheticDataGenerator generator;
+    private final int okedCompanies;
+
+    @Override
+    public TaxInnVerificationResponse verifyInn(String inn) {
+        faults.apply("verifyInn");
+        return delegate.verifyInn(inn);
+    }
+
+    @Override
+    public TaxCompanyRegistrationResponse getCompanyRegistration(String inn) {
+        faults.apply("getCompanyRegistration");
+        return delegate.getCompanyRegistration(inn);
+    }
+
+    @Override
+    public TaxReportSubmissionResponse submitUtilizationFeeReport(TaxReportSubmissionRequest request) {
+        faults.apply("submitUtilizationFeeReport");
+        return delegate.submitUtilizationFeeReport(request);
+    }
+
+    @Override
+    public List<TaxCompanyRegistrationResponse> getCompaniesByOkedCodes(List<String> okedCodes) {
+        faults.apply("getCompaniesByOkedCodes");
+        return okedCompanies > 0
+                ? generator.companies(okedCodes, okedCompanies)
+                : delegate.getCompaniesByOkedCodes(okedCodes);
+    }
+}
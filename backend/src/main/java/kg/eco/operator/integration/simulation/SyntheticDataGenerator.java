@@ -0,0 +1,145 @@
+package kg.eco.operator.integration.simulation;
+
+import kg.eco.operator.integration.banking.dto.BankStatementEntry;
+import kg.eco.operator.integration.customs.dto.CustomsDeclarationResponse;
+import kg.eco.operator.integration.customs.dto.CustomsImportItem;
+import kg.eco.operator.integration.taxservice.dto.TaxCompanyRegistrationResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Детерминированный генератор данных ГНС/ГТС/банка.
+ *
+ * Каждый элемент строится из собственного SplittableRandom(зерно, индекс),
+ * поэтому элемент N одинаков при любом порядке чтения и любом числе потоков,
+ * а списки можно отдавать лениво через {@link GeneratedList}.
+ */
+class SyntheticDataGenerator {
+
+    private static final DateTimeFormatter GTD_DATE = DateTimeFormatter.ofPattern("ddMMyy");
+
+    private static final String[][] PRODUCTS = {
+            {"4011100001", "Шины пневматические новые для легковых автомобилей", "Шины и покрышки"},
+            {"8507100001", "Аккумуляторы свинцовые", "Аккумуляторы свинцовые"},
+            {"3923210000", "Мешки и пакеты из полимеров этилена", "Упаковка из пластика"},
+            {"3923301000", "Бутыли и флаконы из пластмасс", "Упаковка из пластика"},
+            {"4819100000", "Ящики из гофрированного картона", "Упаковка из бумаги и картона"},
+            {"7010909100", "Бутылки стеклянные", "Упаковка из стекла"},
+            {"7612909800", "Банки алюминиевые", "Упаковка из металла"},
+            {"8528721000", "Телевизоры", "Электрическое и электронное оборудование"},
+            {"2710198200", "Масла моторные", "Масла и смазочные материалы"}
+    };
+
+    private static final String[] COUNTRIES = {"Китай", "Россия", "Казахстан", "Турция", "Узбекистан"};
+    private static final String[] POSTS = {
+            "Бишкекский таможенный пост", "Ошский таможенный пост", "Таможенный пост «Торугарт»"
+    };
+    private static final String[] BANKS = {"РСК Банк", "Оптима Банк", "Демир Банк", "Бакай Банк", "KICB"};
+    private static final String[] LEGAL_FORMS = {"ОсОО", "ОАО", "ЗАО", "ИП"};
+
+    private final long seed;
+
+    SyntheticDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    // ─── ГТС ───
+
+    List<CustomsDeclarationResponse> customsDeclarations(LocalDate from, LocalDate to, int count,
+                                                         int itemsPerDeclaration, int companies) {
+        long days = Math.max(1, ChronoUnit.DAYS.between(from, to) + 1);
+        long periodSalt = from.toEpochDay() * 31 + to.toEpochDay();
+        return new GeneratedList<>(count, i -> {
+            SplittableRandom r = random(1, periodSalt, i);
+            LocalDate date = from.plusDays(r.nextLong(days));
+            List<CustomsImportItem> items = new ArrayList<>(itemsPerDeclaration);
+            for (int n = 0; n < itemsPerDeclaration; n++) {
+                String[] product = PRODUCTS[r.nextInt(PRODUCTS.length)];
+                BigDecimal gross = BigDecimal.valueOf(100 + r.nextInt(20_000));
+                items.add(CustomsImportItem.builder()
+                        .tnvedCode(product[0])
+                        .productDescription(product[1])
+                        .productGroupMapping(product[2])
+                        .weightKg(gross)
+                        .weightNet(gross.multiply(BigDecimal.valueOf(0.97)).setScale(3, RoundingMode.HALF_UP))
+                        .customsValue(BigDecimal.valueOf(50L * gross.longValue() + r.nextInt(100_000)))
+                        .unit("кг")
+                        .quantity(BigDecimal.valueOf(1 + r.nextInt(5000)))
+                        .build());
+            }
+            return CustomsDeclarationResponse.builder()
+                    .declarationNumber(String.format("1031%04d/%s/%07d",
+                            r.nextInt(10_000), date.format(GTD_DATE), i))
+                    .declarationDate(date)
+                    .companyInn(inn(r.nextInt(Math.max(1, companies))))
+                    .customsPost(POSTS[r.nextInt(POSTS.length)])
+                    .countryOfOrigin(COUNTRIES[r.nextInt(COUNTRIES.length)])
+                    .items(items)
+                    .build();
+        });
+    }
+
+    // ─── ГНС ───
+
+    List<TaxCompanyRegistrationResponse> companies(List<String> okedCodes, int count) {
+        List<String> codes = okedCodes == null || okedCodes.isEmpty() ? List.of("46.90") : okedCodes;
+        return new GeneratedList<>(count, i -> {
+            SplittableRandom r = random(2, 0, i);
+            String inn = inn(i);
+            return TaxCompanyRegistrationResponse.builder()
+                    .inn(inn)
+                    .officialName("ОсОО «Синтетика " + i + "»")
+                    .legalForm(LEGAL_FORMS[r.nextInt(LEGAL_FORMS.length)])
+                    .legalAddress("г. Бишкек, ул. Тестовая " + (1 + r.nextInt(300)))
+                    .actualAddress("г. Бишкек, ул. Тестовая " + (1 + r.nextInt(300)))
+                    .director("Директор " + i)
+                    .directorPosition("Директор")
+                    .okpoCode(String.valueOf(10_000 + r.nextInt(90_000)))
+                    .okedCodes(List.of(codes.get(r.nextInt(codes.size()))))
+                    .registrationDate(LocalDate.of(2005, 1, 1).plusDays(r.nextInt(7000)))
+                    .status(r.nextInt(100) < 3 ? "liquidated" : "active")
+                    .build();
+        });
+    }
+
+    // ─── Банк ───
+
+    List<BankStatementEntry> statementEntries(LocalDate from, LocalDate to, int count) {
+        long days = Math.max(1, ChronoUnit.DAYS.between(from, to) + 1);
+        long periodSalt = from.toEpochDay() * 31 + to.toEpochDay();
+        return new GeneratedList<>(count, i -> {
+            SplittableRandom r = random(3, periodSalt, i);
+            LocalDate date = from.plusDays(i * days / Math.max(1, count));
+            int company = r.nextInt(50_000);
+            return BankStatementEntry.builder()
+                    .transactionId("TXN-" + date.getYear() + "-" + i)
+                    .date(date)
+                    .amount(BigDecimal.valueOf(1_000 + r.nextInt(2_000_000), 0))
+                    .senderInn(inn(company))
+                    .senderName("ОсОО «Синтетика " + company + "»")
+                    .senderBank(BANKS[r.nextInt(BANKS.length)])
+                    .purpose("Утилизационный сбор за " + date.getYear() + " г.")
+                    .reference("REF-" + Long.toHexString(r.nextLong()).toUpperCase())
+                    .build();
+        });
+    }
+
+    // ─── Helpers ───
+
+    /** Синтетический ИНН: 14 цифр, начинается с 9 — не пересекается с тестовыми ИНН заглушек. */
+    static String inn(int index) {
+        return "9" + String.format("%013d", index);
+    }
+
+    private SplittableRandom random(int stream, long salt, int index) {
+        long mixed = seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + salt * 31 + index;
+        return new SplittableRandom(mixed);
+    }
+}
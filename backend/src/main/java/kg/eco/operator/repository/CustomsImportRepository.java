@@ -0,0 +1,153 @@
+package kg.eco.operator.repository;
+
+import kg.eco.operator.integration.customs.dto.CustomsDeclarationResponse;
+import kg.eco.operator.integration.customs.dto.CustomsImportItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Локальное хранилище ГТД из ГТС КР (customs_declarations + items)
+ * и отметок синхронизации (integration_sync_state). Чистый JDBC:
+ * загрузка идёт пачками, а сверка объёмов — агрегатами в SQL.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CustomsImportRepository {
+
+    private static final String UPSERT_DECLARATION_SQL = """
+            INSERT INTO customs_declarations
+                (declaration_number, declaration_date, company_inn, customs_post, country_of_origin, synced_at)
+            VALUES (?, ?, ?, ?, ?, NOW())
+            ON CONFLICT (declaration_number) DO UPDATE SET
+                declaration_date  = EXCLUDED.declaration_date,
+                company_inn       = EXCLUDED.company_inn,
+                customs_post      = EXCLUDED.customs_post,
+                country_of_origin = EXCLUDED.country_of_origin,
+                synced_at         = NOW()
+            RETURNING id
+            """;
+
+    private static final String INSERT_ITEM_SQL = """
+            INSERT INTO customs_declaration_items
+                (declaration_id, line_no, tnved_code, product_description, product_group,
+                 weight_kg, weight_net, customs_value, unit, quantity)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ─── Import store ───
+
+    /**
+     * Вставляет или обновляет декларацию по номеру; позиции заменяются целиком.
+     * Повторная загрузка той же ГТД ничего не дублирует.
+     */
+    public void upsert(CustomsDeclarationResponse declaration) {
+        Long id = jdbcTemplate.queryForObject(UPSERT_DECLARATION_SQL, Long.class,
+                declaration.getDeclarationNumber(),
+                Date.valueOf(declaration.getDeclarationDate()),
+                declaration.getCompanyInn(),
+                declaration.getCustomsPost(),
+                declaration.getCountryOfOrigin());
+
+        jdbcTemplate.update("DELETE FROM customs_declaration_items WHERE declaration_id = ?", id);
+
+        List<CustomsImportItem> items = declaration.getItems() != null ? declaration.getItems() : List.of();
+        if (items.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            CustomsImportItem item = items.get(i);
+            rows.add(new Object[]{
+                    id, i + 1,
+                    item.getTnvedCode(),
+                    item.getProductDescription(),
+                    item.getProductGroupMapping(),
+                    item.getWeightKg(),
+                    item.getWeightNet(),
+                    item.getCustomsValue(),
+                    item.getUnit(),
+                    item.getQuantity()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, rows);
+    }
+
+    // ─── Sync watermark ───
+
+    public Optional<LocalDate> findWatermark(String source) {
+        return jdbcTemplate.query("SELECT watermark FROM integration_sync_state WHERE source = ?",
+                        (rs, n) -> rs.getDate(1).toLocalDate(), source)
+                .stream().findFirst();
+    }
+
+    public void saveWatermark(String source, LocalDate watermark, int fetched) {
+        jdbcTemplate.update("""
+                INSERT INTO integration_sync_state (source, watermark, last_run_at, last_fetched)
+                VALUES (?, ?, NOW(), ?)
+                ON CONFLICT (source) DO UPDATE SET
+                    watermark    = EXCLUDED.watermark,
+                    last_run_at  = EXCLUDED.last_run_at,
+                    last_fetched = EXCLUDED.last_fetched
+                """, source, Date.valueOf(watermark), fetched);
+    }
+
+    // ─── Volume verification ───
+
+    /**
+     * Ввезённый вес (тонны) за период по данным ГТД — по парам «код ТН ВЭД,
+     * группа по данным ГТС». В коды групп расчётов их переводит
+     * {@link kg.eco.operator.util.ProductGroupClassifier}.
+     */
+    public List<ImportedTonnes> importedTonnesByTnved(String companyInn, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("""
+                        SELECT i.tnved_code, i.product_group, SUM(i.weight_kg) / 1000 AS tonnes
+                        FROM customs_declarations d
+                        JOIN customs_declaration_items i ON i.declaration_id = d.id
+                        WHERE d.company_inn = ? AND d.declaration_date BETWEEN ? AND ?
+                        GROUP BY i.tnved_code, i.product_group
+                        """,
+                (rs, rowNum) -> new ImportedTonnes(rs.getString("tnved_code"),
+                        rs.getString("product_group"), rs.getBigDecimal("tonnes")),
+                companyInn, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Заявленный в расчётах вес (тонны) по группам товаров за год и квартал
+     * (quarter = null — за весь год). Черновики и отклонённые расчёты не учитываются.
+     */
+    public Map<String, BigDecimal> declaredTonnesByGroup(String companyInn, int year, Integer quarter) {
+        Map<String, BigDecimal> result = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                        SELECT ci.product_group AS grp, SUM(ci.weight) AS tonnes
+                        FROM calculations c
+                        JOIN companies co ON co.id = c.company_id
+                        JOIN calculation_items ci ON ci.calculation_id = c.id
+                        WHERE co.inn = ?
+                          AND TRIM(c.period) = ?
+                          AND (?::text IS NULL OR UPPER(TRIM(c.quarter)) IN (?, 'Q' || ?))
+                          AND c.status NOT IN ('DRAFT', 'REJECTED')
+                        GROUP BY ci.product_group
+                        ORDER BY ci.product_group
+                        """,
+                rs -> {
+                    result.put(rs.getString("grp"), rs.getBigDecimal("tonnes"));
+                },
+                companyInn, String.valueOf(year),
+                quarter != null ? quarter.toString() : null,
+                quarter != null ? quarter.toString() : null,
+                quarter != null ? quarter.toString() : null);
+        return result;
+    }
+
+    public record ImportedTonnes(String tnvedCode, String customsGroup, BigDecimal tonnes) {}
+}
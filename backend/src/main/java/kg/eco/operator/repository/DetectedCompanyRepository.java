@@ -11,7 +11,8 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface DetectedCompanyRepository extends JpaRepository<DetectedCompany, Long> {
+public interface DetectedCompanyRepository
+        extends JpaRepository<DetectedCompany, Long>, DetectedCompanyRepositoryCustom {
 
     boolean existsByInn(String inn);
 
@@ -0,0 +1,23 @@
+package kg.eco.operator.repository;
+
+import kg.eco.operator.entity.DetectedCompany;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Пакетные операции над detected_companies для мониторинга ГТС/ГНС.
+ */
+public interface DetectedCompanyRepositoryCustom {
+
+    /** Какие из переданных ИНН уже есть в detected_companies — один запрос {@code inn = ANY(?)}. */
+    Set<String> findExistingInns(Collection<String> inns);
+
+    /**
+     * Пакетная вставка с {@code ON CONFLICT (inn) DO NOTHING}.
+     *
+     * @return сколько строк реально вставлено (дубликаты по ИНН пропускаются)
+     */
+    int insertIgnoringDuplicates(List<DetectedCompany> companies);
+}
@@ -0,0 +1,71 @@
+package kg.eco.operator.repository;
+
+import kg.eco.operator.entity.DetectedCompany;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class DetectedCompanyRepositoryCustomImpl implements DetectedCompanyRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO detected_companies
+                (inn, company_name, legal_form, legal_address, director, phone, email,
+                 okpo_code, oked_codes, source, status, tnved_codes, estimated_mass, gns_status,
+                 created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())
+            ON CONFLICT (inn) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<String> findExistingInns(Collection<String> inns) {
+        Set<String> existing = new HashSet<>();
+        if (inns.isEmpty()) return existing;
+        jdbcTemplate.query("SELECT inn FROM detected_companies WHERE inn = ANY(?)",
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("varchar", inns.toArray());
+                    ps.setArray(1, array);
+                },
+                rs -> {
+                    existing.add(rs.getString(1));
+                });
+        return existing;
+    }
+
+    @Override
+    public int insertIgnoringDuplicates(List<DetectedCompany> companies) {
+        if (companies.isEmpty()) return 0;
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, companies, BATCH_SIZE, (ps, c) -> {
+            ps.setString(1, c.getInn());
+            ps.setString(2, c.getCompanyName());
+            ps.setString(3, c.getLegalForm());
+            ps.setString(4, c.getLegalAddress());
+            ps.setString(5, c.getDirector());
+            ps.setString(6, c.getPhone());
+            ps.setString(7, c.getEmail());
+            ps.setString(8, c.getOkpoCode());
+            ps.setString(9, c.getOkedCodes());
+            ps.setString(10, c.getSource());
+            ps.setString(11, c.getStatus());
+            ps.setString(12, c.getTnvedCodes());
+            ps.setBigDecimal(13, c.getEstimatedMass());
+            ps.setString(14, c.getGnsStatus());
+        });
+        int inserted = 0;
+        for (int[] batch : counts) {
+            for (int n : batch) {
+                if (n > 0) inserted += n;
+            }
+        }
+        return inserted;
+    }
+}
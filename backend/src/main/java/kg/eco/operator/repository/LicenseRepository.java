@@ -4,11 +4,15 @@ import kg.eco.operator.entity.License;
 import kg.eco.operator.entity.enums.LicenseType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -20,8 +24,17 @@ public interface LicenseRepository extends JpaRepository<License, Long>, JpaSpec
 
     Page<License> findByLicenseType(LicenseType licenseType, Pageable pageable);
 
-    @Query("SELECT l FROM License l WHERE l.isPublished = true AND l.isRevoked = false")
-    Page<License> findPublished(Pageable pageable);
+    /**
+     * Реестр по фильтрам (LicenseServiceImpl.buildSpecification). issuedBy
+     * подгружается тем же запросом — маппер читает его у каждой строки.
+     */
+    @Override
+    @EntityGraph(attributePaths = "issuedBy")
+    Page<License> findAll(Specification<License> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "issuedBy")
+    List<License> findAll(Specification<License> spec, Sort sort);
 
     @Query("SELECT COUNT(l) FROM License l WHERE l.isPublished = true AND l.isRevoked = false")
     long countPublished();
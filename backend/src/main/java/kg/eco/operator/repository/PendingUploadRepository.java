@@ -0,0 +1,65 @@
+package kg.eco.operator.repository;
+
+import kg.eco.operator.service.upload.UploadPurpose;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Выданные разрешения на прямую загрузку в MinIO (pending_uploads, V36).
+ */
+@Repository
+@RequiredArgsConstructor
+public class PendingUploadRepository {
+
+    private static final String COLUMNS = """
+            id, purpose, target_id, user_id, object_key, file_name, content_type, declared_size, expires_at
+            """;
+
+    private static final RowMapper<PendingUpload> ROW_MAPPER = (rs, i) -> new PendingUpload(
+            rs.getObject("id", UUID.class),
+            UploadPurpose.valueOf(rs.getString("purpose")),
+            rs.getObject("target_id", Long.class),
+            rs.getObject("user_id", Long.class),
+            rs.getString("object_key"),
+            rs.getString("file_name"),
+            rs.getString("content_type"),
+            rs.getLong("declared_size"),
+            rs.getTimestamp("expires_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record PendingUpload(UUID id, UploadPurpose purpose, Long targetId, Long userId,
+                                String objectKey, String fileName, String contentType,
+                                long declaredSize, LocalDateTime expiresAt) {}
+
+    public void insert(PendingUpload upload) {
+        jdbcTemplate.update("INSERT INTO pending_uploads (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                upload.id(), upload.purpose().name(), upload.targetId(), upload.userId(),
+                upload.objectKey(), upload.fileName(), upload.contentType(), upload.declaredSize(),
+                Timestamp.valueOf(upload.expiresAt()));
+    }
+
+    public Optional<PendingUpload> findById(UUID id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM pending_uploads WHERE id = ?", ROW_MAPPER, id)
+                .stream().findFirst();
+    }
+
+    /** @return false, если строку уже удалил параллельный finalize */
+    public boolean delete(UUID id) {
+        return jdbcTemplate.update("DELETE FROM pending_uploads WHERE id = ?", id) > 0;
+    }
+
+    public List<PendingUpload> findExpired(LocalDateTime now, int limit) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM pending_uploads WHERE expires_at < ? "
+                        + "ORDER BY expires_at LIMIT ?",
+                ROW_MAPPER, Timestamp.valueOf(now), limit);
+    }
+}
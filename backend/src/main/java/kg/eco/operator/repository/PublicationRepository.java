@@ -13,23 +13,20 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface PublicationRepository extends JpaRepository<Publication, Long> {
+public interface PublicationRepository
+        extends JpaRepository<Publication, Long>, PublicationRepositoryCustom {
 
     /**
-     * Публичная лента — только опубликованные. Поддержка фильтра по категории
-     * (опционально) и поиска по title/excerpt (опционально).
+     * Публичная лента — только опубликованные, с фильтром по категории
+     * (опционально). Поиск — {@link #search}.
      */
     @Query("""
             SELECT p FROM Publication p
              WHERE p.isPublished = TRUE
                AND (:category IS NULL OR p.category = :category)
-               AND (:q IS NULL OR :q = ''
-                    OR LOWER(p.titleRu)   LIKE LOWER(CONCAT('%', :q, '%'))
-                    OR LOWER(p.excerptRu) LIKE LOWER(CONCAT('%', :q, '%')))
             """)
     Page<Publication> findPublic(
             @Param("category") PublicationCategory category,
-            @Param("q") String q,
             Pageable pageable);
 
     Optional<Publication> findBySlugAndIsPublishedTrue(String slug);
@@ -38,6 +35,8 @@ public interface PublicationRepository extends JpaRepository<Publication, Long>
 
     boolean existsBySlug(String slug);
 
+    boolean existsByCoverUrl(String coverUrl);
+
     /** Самая свежая опубликованная — для hero-карточки на главной. */
     @Query("""
             SELECT p FROM Publication p
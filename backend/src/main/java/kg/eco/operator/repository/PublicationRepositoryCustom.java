@@ -0,0 +1,24 @@
+package kg.eco.operator.repository;
+
+import kg.eco.operator.entity.enums.PublicationCategory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Полнотекстовый поиск по опубликованным публикациям (колонки search_ru/ky/en, V38).
+ */
+public interface PublicationRepositoryCustom {
+
+    /**
+     * Поиск на языке {@code lang} с ранжированием по релевантности.
+     * Публикации без перевода на этот язык ищутся по русскому тексту —
+     * так же, как они показываются (fallback на ru).
+     *
+     * @param query строка запроса в синтаксисе websearch_to_tsquery
+     *              («фразы в кавычках», or, -исключение)
+     * @return id, ранг и фрагмент текста с совпадениями в {@code <mark>}
+     */
+    Page<SearchHit> search(String query, String lang, PublicationCategory category, Pageable pageable);
+
+    record SearchHit(Long id, double rank, String snippet) {}
+}
@@ -0,0 +1,116 @@
+package kg.eco.operator.repository;
+
+import kg.eco.operator.entity.enums.PublicationCategory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class PublicationRepositoryCustomImpl implements PublicationRepositoryCustom {
+
+    /** Фрагменты ts_headline: до двух отрывков, совпадения в {@code <mark>}. */
+    private static final String HEADLINE_OPTIONS =
+            "StartSel=<mark>, StopSel=</mark>, MinWords=15, MaxWords=35, MaxFragments=2, FragmentDelimiter=\" … \"";
+
+    /**
+     * Общая часть запроса: own_q — запрос на языке поиска, ru_q — на русском
+     * для публикаций без перевода. Оба условия @@ идут по GIN-индексам.
+     */
+    private static final String FROM_WHERE = """
+              FROM publications p,
+                   websearch_to_tsquery('%1$s', ?) own_q,
+                   websearch_to_tsquery('russian', ?) ru_q
+             WHERE p.is_published = TRUE
+               %2$s
+               AND (p.%3$s @@ own_q OR (NOT (%4$s) AND p.search_ru @@ ru_q))
+            """;
+
+    /**
+     * Страница результатов. ts_headline дорогой (разбирает весь текст), поэтому
+     * считается во внешнем запросе — только для строк текущей страницы. Теги
+     * из HTML-текста вырезаются, чтобы фрагмент не обрывался посреди тега.
+     */
+    private static final String PAGE_SQL = """
+            SELECT hit.id, hit.rank,
+                   ts_headline(CASE WHEN hit.has_own THEN '%1$s'::regconfig ELSE 'russian'::regconfig END,
+                               regexp_replace(CASE WHEN hit.has_own THEN coalesce(nullif(p.%2$s, ''), p.body_ru)
+                                                   ELSE p.body_ru END,
+                                              '<[^>]+>', ' ', 'g'),
+                               CASE WHEN hit.has_own THEN hit.own_q ELSE hit.ru_q END,
+                               '%3$s') AS snippet
+              FROM (
+                    SELECT p.id, p.published_at, (%4$s) AS has_own, own_q, ru_q,
+                           ts_rank(CASE WHEN (%4$s) THEN p.%5$s ELSE p.search_ru END,
+                                   CASE WHEN (%4$s) THEN own_q ELSE ru_q END) AS rank
+                    %6$s
+                     ORDER BY rank DESC, p.published_at DESC
+                     LIMIT ? OFFSET ?
+                   ) hit
+              JOIN publications p ON p.id = hit.id
+             ORDER BY hit.rank DESC, hit.published_at DESC
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Page<SearchHit> search(String query, String lang, PublicationCategory category, Pageable pageable) {
+        Language language = Language.of(lang);
+        String fromWhere = FROM_WHERE.formatted(language.config, category != null ? "AND p.category = ?" : "",
+                language.vectorColumn, language.hasOwnText);
+
+        List<Object> args = new ArrayList<>();
+        args.add(query);
+        args.add(query);
+        if (category != null) {
+            args.add(category.name());
+        }
+
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) " + fromWhere, Long.class, args.toArray());
+        if (total == null || total == 0) {
+            return Page.empty(pageable);
+        }
+
+        String sql = PAGE_SQL.formatted(language.config, language.bodyColumn, HEADLINE_OPTIONS,
+                language.hasOwnText, language.vectorColumn, fromWhere);
+        args.add(pageable.getPageSize());
+        args.add(pageable.getOffset());
+        List<SearchHit> hits = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new SearchHit(rs.getLong("id"), rs.getDouble("rank"), rs.getString("snippet")),
+                args.toArray());
+        return new PageImpl<>(hits, pageable, total);
+    }
+
+    /**
+     * Язык поиска: конфигурация текстового поиска и колонки. Значения
+     * подставляются в SQL напрямую — только эти константы, не ввод клиента.
+     */
+    private enum Language {
+        RU("russian", "search_ru", "body_ru", "TRUE"),
+        KY("simple", "search_ky", "body_ky", "coalesce(p.title_ky, '') <> ''"),
+        EN("english", "search_en", "body_en", "coalesce(p.title_en, '') <> ''");
+
+        private final String config;
+        private final String vectorColumn;
+        private final String bodyColumn;
+        /** Есть ли у публикации перевод — по заголовку, как hasKy/hasEn в PublicationResponse. */
+        private final String hasOwnText;
+
+        Language(String config, String vectorColumn, String bodyColumn, String hasOwnText) {
+            this.config = config;
+            this.vectorColumn = vectorColumn;
+            this.bodyColumn = bodyColumn;
+            this.hasOwnText = hasOwnText;
+        }
+
+        static Language of(String lang) {
+            if ("ky".equalsIgnoreCase(lang)) return KY;
+            if ("en".equalsIgnoreCase(lang)) return EN;
+            return RU;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package kg.eco.operator.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Счётчики ссылок на объекты MinIO (stored_objects, V37).
+ */
+@Repository
+@RequiredArgsConstructor
+public class StoredObjectRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Добавляет ссылку на объект, создавая строку при первой ссылке.
+     *
+     * @return счётчик после увеличения; 1 — объект до сих пор не был нужен
+     *         ни одной записи, и его надо (до)загрузить в бакет
+     */
+    public int acquire(String objectKey, String sha256, long size, String contentType) {
+        Integer refCount = jdbcTemplate.queryForObject("""
+                        INSERT INTO stored_objects (object_key, sha256, size, content_type, ref_count)
+                        VALUES (?, ?, ?, ?, 1)
+                        ON CONFLICT (object_key) DO UPDATE
+                            SET ref_count = stored_objects.ref_count + 1,
+                                released_at = NULL
+                        RETURNING ref_count
+                        """,
+                Integer.class, objectKey, sha256, size, contentType);
+        return refCount != null ? refCount : 0;
+    }
+
+    /**
+     * Снимает ссылку. Ключи, которых нет в таблице (внешние URL), игнорируются.
+     *
+     * @return true, если ссылка была снята
+     */
+    public boolean release(String objectKey) {
+        return jdbcTemplate.update("""
+                UPDATE stored_objects
+                   SET ref_count = ref_count - 1,
+                       released_at = CASE WHEN ref_count = 1 THEN NOW() ELSE released_at END
+                 WHERE object_key = ? AND ref_count > 0
+                """, objectKey) > 0;
+    }
+
+    /**
+     * Объекты без ссылок, освобождённые раньше {@code releasedBefore}.
+     * Строки блокируются до конца транзакции, чтобы параллельный
+     * {@link #acquire} дождался удаления и загрузил объект заново;
+     * уже заблокированные пропускаются.
+     */
+    public List<String> lockGarbage(LocalDateTime releasedBefore, int limit) {
+        return jdbcTemplate.queryForList("""
+                        SELECT object_key FROM stored_objects
+                         WHERE ref_count = 0 AND released_at < ?
+                         ORDER BY released_at
+                         LIMIT ?
+                         FOR UPDATE SKIP LOCKED
+                        """,
+                String.class, Timestamp.valueOf(releasedBefore), limit);
+    }
+
+    /**
+     * Заводит строки без ссылок для объектов, которые лежат в бакете, но не
+     * учтены: загрузка положила объект, а транзакция с её ссылкой откатилась.
+     * Дальше их удаляет сборщик мусора, как обычно, через grace-period; если
+     * тот же файл тем временем загружается снова, acquire заберёт строку.
+     * Уже учтённые ключи не меняются.
+     *
+     * @return сколько строк создано
+     */
+    public int adoptOrphans(Collection<String> objectKeys) {
+        return jdbcTemplate.update("""
+                        INSERT INTO stored_objects (object_key, ref_count, released_at)
+                        SELECT k.object_key, 0, NOW() FROM unnest(?) AS k(object_key)
+                        ON CONFLICT (object_key) DO NOTHING
+                        """,
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("varchar", objectKeys.toArray());
+                    ps.setArray(1, array);
+                });
+    }
+
+    public void deleteAll(List<String> objectKeys) {
+        jdbcTemplate.batchUpdate("DELETE FROM stored_objects WHERE object_key = ? AND ref_count = 0",
+                objectKeys, objectKeys.size(), (ps, key) -> ps.setString(1, key));
+    }
+}
@@ -0,0 +1,18 @@
+package kg.eco.operator.security;
+
+import kg.eco.operator.entity.enums.RoleEnum;
+
+import java.security.Principal;
+
+/**
+ * Пользователь, восстановленный из claims access-токена (без обращения к БД).
+ * {@link #getName()} — ИНН, поэтому {@code authentication.getName()} в
+ * контроллерах работает как раньше.
+ */
+public record AuthenticatedUser(Long id, String inn, RoleEnum role, Long companyId) implements Principal {
+
+    @Override
+    public String getName() {
+        return inn;
+    }
+}
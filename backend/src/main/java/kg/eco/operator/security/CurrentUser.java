@@ -0,0 +1,104 @@
+package kg.eco.operator.security;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import kg.eco.operator.entity.User;
+import kg.eco.operator.entity.enums.RoleEnum;
+import kg.eco.operator.exception.UnauthorizedException;
+import kg.eco.operator.repository.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+/**
+ * Текущий пользователь запроса.
+ *
+ * ID, ИНН, роль и компания берутся из claims access-токена
+ * ({@link AuthenticatedUser}) — без обращения к БД. Сущность {@link User}
+ * загружается лениво, не более одного раза за запрос, и только если она
+ * действительно нужна (название компании, связь company для новых записей).
+ *
+ * Бин request-scoped: в singleton-сервисы внедряется прокси, поэтому
+ * использовать его можно только в обработке HTTP-запроса.
+ */
+@Component
+@RequestScope
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private AuthenticatedUser principal;
+    private User user;
+
+    public CurrentUser(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public AuthenticatedUser principal() {
+        if (principal == null) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth == null || !auth.isAuthenticated()
+                    || !(auth.getPrincipal() instanceof AuthenticatedUser authenticated)) {
+                throw new UnauthorizedException("Требуется авторизация");
+            }
+            principal = authenticated;
+        }
+        return principal;
+    }
+
+    public Long id() {
+        return principal().id();
+    }
+
+    public String inn() {
+        return principal().inn();
+    }
+
+    public RoleEnum role() {
+        return principal().role();
+    }
+
+    /** ID компании пользователя или {@code null}, если он к компании не привязан. */
+    public Long companyId() {
+        return principal().companyId();
+    }
+
+    /** Запрос выполняется от имени пользователя с этим ИНН. */
+    public boolean is(String inn) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return inn != null && auth != null
+                && auth.getPrincipal() instanceof AuthenticatedUser authenticated
+                && inn.equals(authenticated.inn());
+    }
+
+    /**
+     * Сущность текущего пользователя: один SELECT на запрос. Если запрос
+     * успел закрыть транзакцию, в которой она была загружена (open-in-view
+     * выключен), сущность перечитывается, чтобы ленивые связи работали.
+     */
+    public User user() {
+        if (user == null || !entityManager.contains(user)) {
+            Long id = id();
+            user = userRepository.findById(id)
+                    .orElseThrow(() -> new UnauthorizedException("Пользователь не найден: " + inn()));
+        }
+        return user;
+    }
+
+    /**
+     * Пользователь по ИНН: для текущего — {@link #user()}, для любого
+     * другого — обычный запрос в БД.
+     */
+    public Optional<User> findByInn(String inn) {
+        if (is(inn)) {
+            return Optional.of(user());
+        }
+        return userRepository.findByInn(inn);
+    }
+}
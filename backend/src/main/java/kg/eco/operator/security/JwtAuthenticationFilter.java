@@ -8,15 +8,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -24,7 +24,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -35,14 +35,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = extractTokenFromRequest(request);
 
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)
-                && !jwtTokenProvider.isRefreshToken(token)) {
-            String inn = jwtTokenProvider.getInnFromToken(token);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(inn);
+        // Один разбор (или попадание в кэш проверенных токенов) вместо трёх
+        VerifiedToken verified = StringUtils.hasText(token)
+                ? jwtTokenProvider.verify(token).orElse(null)
+                : null;
+
+        if (verified != null && !verified.isRefresh() && isCurrent(verified)) {
+            // Пользователь целиком из claims — без userRepository.findByInn на каждый запрос
+            AuthenticatedUser principal = new AuthenticatedUser(
+                    verified.userId(), verified.subject(), verified.role(), verified.companyId());
 
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()
+                            principal, null,
+                            List.of(new SimpleGrantedAuthority("ROLE_" + verified.role().name()))
                     );
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -52,6 +58,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Токен выпущен после последнего отзыва. Токены старого формата (без роли
+     * и ID) не принимаются — клиент обновит их через refresh token.
+     */
+    private boolean isCurrent(VerifiedToken token) {
+        if (token.role() == null || token.userId() == null) return false;
+        return token.version() >= tokenVersionRegistry.currentVersion(token.userId());
+    }
+
     private String extractTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,49 +1,97 @@
 package kg.eco.operator.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import kg.eco.operator.config.JwtConfig;
+import kg.eco.operator.entity.User;
+import kg.eco.operator.entity.enums.RoleEnum;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 
 @Slf4j
 @Component
 public class JwtTokenProvider {
 
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_COMPANY_ID = "cid";
+    private static final String CLAIM_VERSION = "ver";
+
     private final SecretKey key;
+    private final JwtParser parser;
     private final long accessTokenExpiration;
     private final long refreshTokenExpiration;
 
+    /**
+     * Уже проверенные токены по SHA-256 от строки токена. Запись живёт до exp
+     * токена, поэтому истёкший токен из кэша не достаётся. Невалидные токены
+     * не кэшируются — перебором мусорных токенов кэш не вытеснить.
+     */
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
     public JwtTokenProvider(JwtConfig jwtConfig) {
         byte[] keyBytes = Decoders.BASE64.decode(jwtConfig.getSecret());
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        // JwtParser неизменяем и потокобезопасен — строим один раз
+        this.parser = Jwts.parser().verifyWith(key).build();
         this.accessTokenExpiration = jwtConfig.getAccessTokenExpiration();
         this.refreshTokenExpiration = jwtConfig.getRefreshTokenExpiration();
-    }
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getVerifiedCacheSize())
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String hash, VerifiedToken token, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(hash, token, currentTime);
+                    }
 
-    public String generateAccessToken(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return generateAccessToken(userDetails.getUsername());
+                    @Override
+                    public long expireAfterRead(String hash, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
-    public String generateAccessToken(String inn) {
+    /**
+     * Access-токен с ролью, ID пользователя и компании и версией токенов —
+     * фильтр аутентификации строит пользователя из claims без запроса в БД.
+     */
+    public String generateAccessToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenExpiration);
 
         return Jwts.builder()
-                .subject(inn)
+                .subject(user.getInn())
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .claim("type", "access")
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_COMPANY_ID, user.getCompany() != null ? user.getCompany().getId() : null)
+                .claim(CLAIM_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0)
                 .signWith(key)
                 .compact();
     }
@@ -61,20 +109,50 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * Проверяет подпись и срок токена и достаёт все нужные claims за один разбор.
+     * Повторные запросы с тем же токеном обслуживаются из кэша без HMAC.
+     *
+     * @return пусто, если токен невалиден или истёк
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        String hash = sha256(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(hash);
+        if (cached != null && !cached.isExpired()) {
+            return Optional.of(cached);
+        }
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            String role = claims.get(CLAIM_ROLE, String.class);
+            Number userId = claims.get(CLAIM_USER_ID, Number.class);
+            Number companyId = claims.get(CLAIM_COMPANY_ID, Number.class);
+            Number version = claims.get(CLAIM_VERSION, Number.class);
+            VerifiedToken verified = new VerifiedToken(
+                    claims.getSubject(),
+                    claims.get("type", String.class),
+                    claims.getExpiration().toInstant(),
+                    role != null ? RoleEnum.valueOf(role) : null,
+                    userId != null ? userId.longValue() : null,
+                    companyId != null ? companyId.longValue() : null,
+                    version != null ? version.intValue() : 0);
+            verifiedTokens.put(hash, verified);
+            return Optional.of(verified);
+        } catch (ExpiredJwtException e) {
+            log.debug("JWT token is expired: {}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
     public String getInnFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
+        return parser.parseSignedClaims(token)
                 .getPayload()
                 .getSubject();
     }
 
     public LocalDateTime getExpirationFromToken(String token) {
-        Date expiration = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
+        Date expiration = parser.parseSignedClaims(token)
                 .getPayload()
                 .getExpiration();
         return Instant.ofEpochMilli(expiration.getTime())
@@ -84,7 +162,7 @@ public class JwtTokenProvider {
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+            parser.parseSignedClaims(token);
             return true;
         } catch (SecurityException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
@@ -102,10 +180,7 @@ public class JwtTokenProvider {
 
     public boolean isRefreshToken(String token) {
         try {
-            String type = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
+            String type = parser.parseSignedClaims(token)
                     .getPayload()
                     .get("type", String.class);
             return "refresh".equals(type);
@@ -113,4 +188,13 @@ public class JwtTokenProvider {
             return false;
         }
     }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package kg.eco.operator.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import kg.eco.operator.config.RateLimitProperties;
+import kg.eco.operator.dto.response.ErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограничение частоты запросов к публичным эндпоинтам по IP клиента и
+ * классу маршрута (калькулятор, реестр лицензий, скачивание документов...).
+ *
+ * Бакеты ({@link TokenBucket}) лежат в Caffeine-кэше с ограничением по
+ * размеру и истечением по простою, так что поток уникальных IP не раздувает
+ * память. При исчерпании бакета — 429 и Retry-After в секундах.
+ * Настройки — раздел {@code rate-limit} в application.yml.
+ */
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<RoutePolicy> policies;
+    private final Cache<ClientKey, TokenBucket> buckets;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.policies = buildPolicies(properties);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getIdleExpiry())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || policies.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RoutePolicy policy = match(request);
+        if (policy == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String ip = clientIp(request);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(new ClientKey(ip, policy.name()),
+                key -> new TokenBucket(now));
+        long waitNanos = bucket.tryConsume(now, policy.intervalNanos(), policy.burstNanos());
+
+        if (waitNanos == 0) {
+            policy.allowed().increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        policy.rejected().increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.debug("Лимит '{}' исчерпан для {}, повтор через {} с", policy.name(), ip, retryAfter);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.of("TOO_MANY_REQUESTS",
+                "Слишком много запросов, повторите через " + retryAfter + " с"));
+    }
+
+    /** Счётчики по классам маршрутов — для GET /admin/rate-limit-stats. */
+    public Map<String, Object> stats() {
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (RoutePolicy p : policies) {
+            Map<String, Object> route = new LinkedHashMap<>();
+            route.put("capacity", p.capacity());
+            route.put("refillPerSecond", p.refillPerSecond());
+            route.put("allowed", p.allowed().sum());
+            route.put("rejected", p.rejected().sum());
+            routes.put(p.name(), route);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("trackedClients", buckets.estimatedSize());
+        result.put("routes", routes);
+        return result;
+    }
+
+    // ─── Internals ───
+
+    private RoutePolicy match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        PathContainer container = PathContainer.parsePath(path);
+        for (RoutePolicy p : policies) {
+            for (PathPattern pattern : p.patterns()) {
+                if (pattern.matches(container)) return p;
+            }
+        }
+        return null;
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustProxyHeaders()) {
+            String realIp = request.getHeader("X-Real-IP");
+            if (StringUtils.hasText(realIp)) return realIp.trim();
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwarded)) {
+                // Последний адрес добавлен нашим прокси, остальные клиент мог подделать
+                int comma = forwarded.lastIndexOf(',');
+                return forwarded.substring(comma + 1).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static List<RoutePolicy> buildPolicies(RateLimitProperties properties) {
+        PathPatternParser parser = new PathPatternParser();
+        List<RoutePolicy> result = new ArrayList<>();
+        properties.getRoutes().forEach((name, route) -> {
+            if (route.getCapacity() <= 0 || route.getRefillPerSecond() <= 0) {
+                throw new IllegalStateException("rate-limit.routes." + name
+                        + ": capacity и refill-per-second должны быть положительными");
+            }
+            long interval = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / route.getRefillPerSecond()));
+            List<PathPattern> patterns = route.getPatterns().stream().map(parser::parse).toList();
+            result.add(new RoutePolicy(name, patterns, route.getCapacity(), route.getRefillPerSecond(),
+                    interval, interval * route.getCapacity(), new LongAdder(), new LongAdder()));
+        });
+        return List.copyOf(result);
+    }
+
+    private record ClientKey(String ip, String route) {}
+
+    private record RoutePolicy(String name, List<PathPattern> patterns, int capacity, double refillPerSecond,
+                               long intervalNanos, long burstNanos, LongAdder allowed, LongAdder rejected) {}
+}
@@ -0,0 +1,38 @@
+package kg.eco.operator.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Бакет токенов без блокировок в форме GCRA: вместо пары «токены + время
+ * пополнения» хранится одно число — теоретическое время следующего запроса
+ * (TAT). Запрос разрешён, если после него TAT убегает от текущего момента не
+ * больше чем на capacity интервалов; проверка и списание — один CAS.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long nowNanos) {
+        // TAT = сейчас — бакет полон
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @param intervalNanos интервал пополнения одного токена
+     * @param burstNanos    capacity * intervalNanos
+     * @return 0, если запрос разрешён, иначе сколько наносекунд ждать следующего токена
+     */
+    long tryConsume(long nowNanos, long intervalNanos, long burstNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
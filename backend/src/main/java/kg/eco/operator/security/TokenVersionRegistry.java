@@ -0,0 +1,80 @@
+package kg.eco.operator.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Версии токенов пользователей в памяти — проверка отзыва без запроса в БД.
+ *
+ * Хранятся только пользователи с {@code token_version > 0} (у остальных
+ * отзывов не было), поэтому карта маленькая. Локальный отзыв применяется
+ * сразу, отзывы на других узлах подтягиваются перечитыванием карты раз в
+ * {@code security.token-version.refresh-interval-ms}.
+ *
+ * Колонку token_version пишет только этот класс (в JPA она updatable = false),
+ * чтобы сохранение загруженной ранее сущности User не откатило версию.
+ */
+@Slf4j
+@Component
+public class TokenVersionRegistry {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Map<Long, Integer> versions = Map.of();
+
+    public TokenVersionRegistry(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Текущая версия токенов пользователя (0 — отзывов не было). */
+    public int currentVersion(Long userId) {
+        return versions.getOrDefault(userId, 0);
+    }
+
+    /**
+     * Отзывает все выданные пользователю токены.
+     *
+     * Выполняется в собственной транзакции: отзыв остаётся в силе, даже если
+     * вызывающая транзакция откатится (например, после UnauthorizedException).
+     *
+     * @return новая версия — её нужно записать в следующие токены
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int revoke(Long userId) {
+        Integer version = jdbcTemplate.queryForObject(
+                "UPDATE users SET token_version = token_version + 1 WHERE id = ? RETURNING token_version",
+                Integer.class, userId);
+        int newVersion = version != null ? version : 0;
+        synchronized (this) {
+            Map<Long, Integer> copy = new HashMap<>(versions);
+            copy.put(userId, newVersion);
+            versions = Map.copyOf(copy);
+        }
+        log.info("Токены пользователя {} отозваны, новая версия {}", userId, newVersion);
+        return newVersion;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.token-version.refresh-interval-ms:30000}")
+    public void refresh() {
+        Map<Long, Integer> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT id, token_version FROM users WHERE token_version > 0",
+                rs -> {
+                    loaded.put(rs.getLong(1), rs.getInt(2));
+                });
+        synchronized (this) {
+            // Локальный отзыв мог случиться во время чтения — берём большую версию
+            versions.forEach((id, v) -> loaded.merge(id, v, Math::max));
+            versions = Map.copyOf(loaded);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package kg.eco.operator.security;
+
+import kg.eco.operator.entity.enums.RoleEnum;
+
+import java.time.Instant;
+
+/**
+ * Проверенный (подпись и срок) JWT: всё, что нужно фильтру, из одного разбора.
+ * role/userId/companyId/version есть только в access-токенах.
+ */
+public record VerifiedToken(String subject, String type, Instant expiresAt,
+                            RoleEnum role, Long userId, Long companyId, int version) {
+
+    public boolean isRefresh() {
+        return "refresh".equals(type);
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -14,6 +14,8 @@ public interface AdminService {
 
     Map<String, Object> createNotificationTemplate(Map<String, Object> request);
 
+    Map<String, Object> updateNotificationTemplate(Long id, Map<String, Object> request);
+
     List<Map<String, Object>> getRates();
 
     void updateRates(List<Map<String, Object>> rates);
@@ -23,4 +25,10 @@ public interface AdminService {
     Map<String, Object> getSettings();
 
     void updateSettings(Map<String, Object> settings);
+
+    List<Map<String, Object>> getScheduledJobs();
+
+    void revokeUserTokens(Long userId);
+
+    Map<String, Object> getRateLimitStats();
 }
@@ -8,6 +8,7 @@ import kg.eco.operator.dto.response.AuditEntryResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.UUID;
 
 public interface CalculationService {
 
@@ -45,6 +46,12 @@ public interface CalculationService {
 
     void updateDocuments(Long id, String inn, MultipartFile[] files);
 
+    /** Привязать документы, загруженные напрямую в хранилище (см. POST /uploads). */
+    void finalizeDocuments(Long id, String inn, List<UUID> uploadIds);
+
+    /** Проверка перед выдачей ссылки на загрузку документа: расчёт принадлежит компании пользователя. */
+    void checkDocumentUpload(Long id, String inn);
+
     long getPendingCount(String inn);
 
     long getReviewCount();
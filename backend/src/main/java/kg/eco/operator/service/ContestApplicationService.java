@@ -8,6 +8,7 @@ import kg.eco.operator.dto.response.CountResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.UUID;
 
 public interface ContestApplicationService {
 
@@ -18,6 +19,16 @@ public interface ContestApplicationService {
             String phone, String email,
             MultipartFile document);
 
+    /** То же, но документ уже загружен напрямую в хранилище (см. /public/contests/{id}/applications/uploads). */
+    ContestApplicationResponse submitUploaded(
+            Long contestId,
+            String lastName, String firstName, String middleName,
+            String phone, String email,
+            UUID uploadId);
+
+    /** Проверка перед выдачей ссылки на загрузку документа: конкурс существует и принимает заявки. */
+    void checkAcceptingApplications(Long contestId);
+
     /** Публичная проверка статуса заявителем (по номеру + email). */
     ContestApplicationStatusResponse checkStatus(ContestApplicationStatusCheckRequest request);
 
@@ -35,5 +35,6 @@ public interface ContestService {
     /** Скачать положение конкурса (PDF). */
     DownloadResult downloadRegulations(Long id);
 
-    record DownloadResult(java.io.InputStream stream, String fileName, String contentType) {}
+    /** Ключ объекта и как его назвать — сам файл отдаёт DocumentDownloadService. */
+    record DownloadResult(String objectKey, String fileName, String contentType) {}
 }
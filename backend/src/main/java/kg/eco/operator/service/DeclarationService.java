@@ -9,10 +9,11 @@ import kg.eco.operator.entity.DeclarationItem;
 import kg.eco.operator.entity.enums.DeclarationStatus;
 import kg.eco.operator.exception.BusinessLogicException;
 import kg.eco.operator.exception.ResourceNotFoundException;
-import kg.eco.operator.integration.customs.CustomsServicePort;
 import kg.eco.operator.integration.customs.dto.CustomsVolumeVerificationResponse;
 import kg.eco.operator.repository.CompanyRepository;
+import kg.eco.operator.repository.CustomsImportRepository;
 import kg.eco.operator.repository.DeclarationRepository;
+import kg.eco.operator.util.ProductGroupClassifier;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -20,18 +21,29 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class DeclarationService {
 
+    /** Допустимое расхождение заявленного и ввезённого веса, %. */
+    private static final double VOLUME_TOLERANCE_PERCENT = 1.0;
+
     private final DeclarationRepository declarationRepository;
     private final CompanyRepository companyRepository;
-    private final CustomsServicePort customsServicePort;
+    private final CustomsImportRepository customsImportRepository;
 
     public PaginatedResponse<DeclarationResponse> getDeclarations(int page, int pageSize,
                                                                     String search, String status, Integer year) {
@@ -205,10 +217,67 @@ public class DeclarationService {
 
     /**
      * Cross-reference declaration volumes with customs (ГТС КР) import data.
+     * Считается по локальному хранилищу ГТД (CustomsSyncService), без запроса в ГТС.
+     *
+     * @param quarter 1-4; null — сверка за весь год декларации (quarter = 0 в ответе)
      */
-    public CustomsVolumeVerificationResponse verifyDeclarationVolumes(Long id) {
+    public CustomsVolumeVerificationResponse verifyDeclarationVolumes(Long id, Integer quarter) {
+        if (quarter != null && (quarter < 1 || quarter > 4)) {
+            throw new BusinessLogicException("Квартал должен быть от 1 до 4");
+        }
         Declaration decl = findById(id);
-        return customsServicePort.verifyDeclaredVolumes(
-                decl.getCompany().getInn(), decl.getYear(), 1);
+        String inn = decl.getCompany().getInn();
+        int year = decl.getYear();
+
+        LocalDate from = quarter != null ? LocalDate.of(year, (quarter - 1) * 3 + 1, 1) : LocalDate.of(year, 1, 1);
+        LocalDate to = quarter != null ? from.plusMonths(3).minusDays(1) : LocalDate.of(year, 12, 31);
+
+        Map<String, BigDecimal> declared = customsImportRepository.declaredTonnesByGroup(inn, year, quarter);
+        Map<String, BigDecimal> imported = importedTonnesByGroup(inn, from, to);
+
+        Set<String> groups = new LinkedHashSet<>(declared.keySet());
+        groups.addAll(imported.keySet());
+
+        List<CustomsVolumeVerificationResponse.VolumeDiscrepancy> discrepancies = new ArrayList<>(groups.size());
+        for (String group : groups) {
+            BigDecimal declaredWeight = declared.getOrDefault(group, BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal customsWeight = imported.getOrDefault(group, BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal difference = declaredWeight.subtract(customsWeight);
+            double percent = customsWeight.signum() == 0
+                    ? (declaredWeight.signum() == 0 ? 0.0 : 100.0)
+                    : difference.multiply(BigDecimal.valueOf(100))
+                            .divide(customsWeight, 2, RoundingMode.HALF_UP).doubleValue();
+            discrepancies.add(CustomsVolumeVerificationResponse.VolumeDiscrepancy.builder()
+                    .productGroup(group)
+                    .declaredWeight(declaredWeight)
+                    .customsWeight(customsWeight)
+                    .difference(difference)
+                    .differencePercent(percent)
+                    .build());
+        }
+
+        return CustomsVolumeVerificationResponse.builder()
+                .companyInn(inn)
+                .year(year)
+                .quarter(quarter != null ? quarter : 0)
+                .hasDiscrepancies(discrepancies.stream()
+                        .anyMatch(d -> Math.abs(d.getDifferencePercent()) > VOLUME_TOLERANCE_PERCENT))
+                .discrepancies(discrepancies)
+                .build();
+    }
+
+    /**
+     * Ввезённый вес по тем же кодам групп, что в расчётах (group_N).
+     * Товары вне перечня (код ТН ВЭД не сопоставлен) в сверку не входят.
+     */
+    private Map<String, BigDecimal> importedTonnesByGroup(String inn, LocalDate from, LocalDate to) {
+        Map<String, BigDecimal> result = new TreeMap<>();
+        for (CustomsImportRepository.ImportedTonnes row : customsImportRepository.importedTonnesByTnved(inn, from, to)) {
+            String group = ProductGroupClassifier.classify(row.tnvedCode(), row.customsGroup());
+            if (group != null && row.tonnes() != null) {
+                result.merge(group, row.tonnes(), BigDecimal::add);
+            }
+        }
+        return result;
     }
 }
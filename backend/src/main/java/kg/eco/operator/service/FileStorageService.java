@@ -1,28 +1,79 @@
 package kg.eco.operator.service;
 
 import io.minio.*;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
-import lombok.RequiredArgsConstructor;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import kg.eco.operator.repository.StoredObjectRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Files in MinIO.
+ *
+ * Files uploaded through the API are content-addressed: the key is
+ * {@code sha256/<hash>}, so identical documents are stored once. Every
+ * entity column that points at an object holds one reference in
+ * stored_objects (V37); callers {@link #release} a key instead of deleting
+ * the object, and StoredObjectGarbageCollector removes objects nobody
+ * references any more.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class FileStorageService {
 
+    /** Key prefix of content-addressed objects: {@code sha256/<hex>}. */
+    public static final String CONTENT_PREFIX = "sha256/";
+
     private final MinioClient minioClient;
+    private final MinioClient presignMinioClient;
+    private final StoredObjectRepository storedObjectRepository;
 
     @Value("${minio.bucket}")
     private String bucket;
 
+    @Value("${minio.endpoint}")
+    private String endpoint;
+
+    @Value("${minio.public-endpoint:}")
+    private String publicEndpoint;
+
+    public FileStorageService(MinioClient minioClient,
+                              @Qualifier("presignMinioClient") MinioClient presignMinioClient,
+                              StoredObjectRepository storedObjectRepository) {
+        this.minioClient = minioClient;
+        this.presignMinioClient = presignMinioClient;
+        this.storedObjectRepository = storedObjectRepository;
+    }
+
     @PostConstruct
     public void init() {
         try {
@@ -39,16 +90,25 @@ public class FileStorageService {
     }
 
     /**
-     * Upload a file and return its object key.
+     * Upload a file and return its object key, taking one reference to it.
+     *
+     * The hash is computed over the local multipart copy before anything is
+     * sent: if an identical file is already stored, only the reference count
+     * changes and no bytes cross the network. Runs in the caller's
+     * transaction, so a rolled-back caller does not leave a reference behind;
+     * an object put by a rolled-back transaction is handed to the garbage
+     * collector (see {@link StoredObjectRepository#adoptOrphans}).
      */
-    public String upload(MultipartFile file, String folder) {
+    @Transactional
+    public String upload(MultipartFile file) {
         try {
-            String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            String hash = sha256(file);
+            String objectKey = CONTENT_PREFIX + hash;
+            int refCount = storedObjectRepository.acquire(objectKey, hash, file.getSize(), file.getContentType());
+            if (refCount > 1) {
+                log.info("Deduplicated file: {} (references: {})", objectKey, refCount);
+                return objectKey;
             }
-            String objectKey = folder + "/" + UUID.randomUUID() + extension;
 
             minioClient.putObject(
                     PutObjectArgs.builder()
@@ -59,12 +119,65 @@ public class FileStorageService {
                             .build());
 
             log.info("Uploaded file: {}", objectKey);
+            adoptOnRollback(objectKey);
             return objectKey;
         } catch (Exception e) {
             throw new RuntimeException("Failed to upload file to MinIO", e);
         }
     }
 
+    /**
+     * Take a reference to an object that was put into the bucket directly
+     * (presigned upload) and is therefore not content-addressed.
+     */
+    @Transactional
+    public void register(String objectKey, long size, String contentType) {
+        storedObjectRepository.acquire(objectKey, null, size, contentType);
+    }
+
+    /**
+     * Drop a reference to an object. The object itself is removed later by the
+     * garbage collector once no record points at it. Keys that are not tracked
+     * (external URLs, {@code null}) are ignored.
+     */
+    @Transactional
+    public void release(String objectKey) {
+        if (objectKey != null && storedObjectRepository.release(objectKey)) {
+            log.debug("Released file: {}", objectKey);
+        }
+    }
+
+    /**
+     * Store generated content (e.g. an image variant) under a fixed key.
+     * Such objects are not reference-counted: their lifetime follows the
+     * object they were derived from.
+     */
+    public void put(String objectKey, byte[] content, String contentType) {
+        try {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucket)
+                            .object(objectKey)
+                            .stream(new ByteArrayInputStream(content), content.length, -1)
+                            .contentType(contentType)
+                            .build());
+            log.debug("Stored file: {} ({} bytes)", objectKey, content.length);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to upload file to MinIO", e);
+        }
+    }
+
+    /**
+     * New unique object key in the folder, keeping the file extension.
+     */
+    public String newObjectKey(String folder, String originalFilename) {
+        String extension = "";
+        if (originalFilename != null && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        return folder + "/" + UUID.randomUUID() + extension;
+    }
+
     /**
      * Download a file as InputStream.
      */
@@ -80,12 +193,29 @@ public class FileStorageService {
         }
     }
 
+    /**
+     * Download {@code length} bytes starting at {@code offset} (HTTP Range).
+     */
+    public InputStream download(String objectKey, long offset, long length) {
+        try {
+            return minioClient.getObject(
+                    GetObjectArgs.builder()
+                            .bucket(bucket)
+                            .object(objectKey)
+                            .offset(offset)
+                            .length(length)
+                            .build());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to download file from MinIO", e);
+        }
+    }
+
     /**
      * Generate a presigned URL valid for the specified duration.
      */
     public String getPresignedUrl(String objectKey, int expiryMinutes) {
         try {
-            return minioClient.getPresignedObjectUrl(
+            return presignMinioClient.getPresignedObjectUrl(
                     GetPresignedObjectUrlArgs.builder()
                             .method(Method.GET)
                             .bucket(bucket)
@@ -98,7 +228,60 @@ public class FileStorageService {
     }
 
     /**
-     * Delete a file from storage.
+     * Presigned POST policy: the client uploads the object straight to MinIO,
+     * bypassing the API. The policy pins the key, the exact size and the
+     * content type, so MinIO rejects any other file; {@link #stat} re-checks
+     * the stored object at finalize.
+     *
+     * @param contentType required Content-Type, or {@code null} for any
+     */
+    public PresignedPost getPresignedUploadPolicy(String objectKey, String contentType, long size,
+                                                  int expiryMinutes) {
+        PostPolicy policy = new PostPolicy(bucket, ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(expiryMinutes));
+        policy.addEqualsCondition("key", objectKey);
+        if (contentType != null) {
+            policy.addEqualsCondition("Content-Type", contentType);
+        }
+        policy.addContentLengthRangeCondition(size, size);
+        try {
+            Map<String, String> fields = new LinkedHashMap<>();
+            fields.put("key", objectKey);
+            if (contentType != null) {
+                fields.put("Content-Type", contentType);
+            }
+            fields.putAll(presignMinioClient.getPresignedPostFormData(policy));
+            return new PresignedPost(presignBaseUrl() + "/" + bucket, fields);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate presigned upload policy", e);
+        }
+    }
+
+    /** Form upload target: POST multipart/form-data with {@code fields} first and the file part last. */
+    public record PresignedPost(String url, Map<String, String> fields) {}
+
+    /**
+     * Object metadata (size, content type), or empty if the object does not exist.
+     */
+    public Optional<StatObjectResponse> stat(String objectKey) {
+        try {
+            return Optional.of(minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(bucket)
+                            .object(objectKey)
+                            .build()));
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return Optional.empty();
+            }
+            throw new RuntimeException("Failed to stat file in MinIO", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to stat file in MinIO", e);
+        }
+    }
+
+    /**
+     * Delete an untracked object right away (e.g. a rejected direct upload).
+     * Referenced objects must go through {@link #release} instead.
      */
     public void delete(String objectKey) {
         try {
@@ -112,4 +295,88 @@ public class FileStorageService {
             throw new RuntimeException("Failed to delete file from MinIO", e);
         }
     }
+
+    /**
+     * Delete objects with a single multi-object request.
+     *
+     * @return keys that were actually removed (missing objects count as removed)
+     */
+    public Set<String> deleteAll(List<String> objectKeys) {
+        Set<String> removed = new HashSet<>(objectKeys);
+        Iterable<Result<DeleteError>> errors = minioClient.removeObjects(
+                RemoveObjectsArgs.builder()
+                        .bucket(bucket)
+                        .objects(objectKeys.stream().map(DeleteObject::new).toList())
+                        .build());
+        try {
+            // The result is lazy: the request is sent while iterating
+            for (Result<DeleteError> result : errors) {
+                DeleteError error = result.get();
+                if (!"NoSuchKey".equals(error.code())) {
+                    log.warn("Failed to delete file {}: {}", error.objectName(), error.message());
+                    removed.remove(error.objectName());
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to delete files from MinIO", e);
+        }
+        return removed;
+    }
+
+    /**
+     * Keys of objects under {@code prefix} last modified before {@code before}
+     * (garbage collector sweep for objects without a stored_objects row).
+     */
+    public List<String> listKeys(String prefix, ZonedDateTime before) {
+        List<String> keys = new ArrayList<>();
+        try {
+            for (Result<Item> result : minioClient.listObjects(
+                    ListObjectsArgs.builder().bucket(bucket).prefix(prefix).recursive(true).build())) {
+                Item item = result.get();
+                if (!item.isDir() && item.lastModified().isBefore(before)) {
+                    keys.add(item.objectName());
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to list files in MinIO", e);
+        }
+        return keys;
+    }
+
+    // ─── Internals ───
+
+    /**
+     * If the caller's transaction rolls back, its reference row is gone but the
+     * object stays in the bucket: record it as unreferenced so the collector removes it.
+     */
+    private void adoptOnRollback(String objectKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) return;
+                try {
+                    storedObjectRepository.adoptOrphans(List.of(objectKey));
+                    log.info("Upload rolled back, file left to the garbage collector: {}", objectKey);
+                } catch (Exception e) {
+                    // The periodic orphan sweep picks it up later
+                    log.warn("Could not hand {} to the garbage collector: {}", objectKey, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /** MinIO address the browser reaches, as in the presign client (MinioConfig). */
+    private String presignBaseUrl() {
+        String base = StringUtils.hasText(publicEndpoint) ? publicEndpoint : endpoint;
+        return base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+    }
+
+    private static String sha256(MultipartFile file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
 }
@@ -14,6 +14,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Бизнес-логика заявок на лицензию.
@@ -41,6 +42,12 @@ public interface LicenseApplicationService {
     LicenseApplicationResponse uploadDocument(Long applicationId, String userInn,
                                               LicenseDocumentType docType, MultipartFile file);
 
+    LicenseApplicationResponse finalizeDocumentUpload(Long applicationId, String userInn,
+                                                      LicenseDocumentType docType, UUID uploadId);
+
+    /** Проверка перед выдачей ссылки на загрузку документа: своя заявка в статусе DRAFT. */
+    void checkDocumentUpload(Long applicationId, String userInn);
+
     void deleteDocument(Long applicationId, Long docId, String userInn);
 
     // ─── Для сотрудника МПРЭТН (роли EMPLOYEE, MINISTRY) ───
@@ -5,6 +5,8 @@ import kg.eco.operator.dto.response.PaymentIntentResponse;
 import kg.eco.operator.dto.response.PaymentStatusResponse;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.UUID;
+
 /**
  * Сервис оплаты госпошлины за лицензию. Провайдер-агностичная модель:
  * реальная интеграция реализуется через {@link kg.eco.operator.service.payment.PaymentProvider}.
@@ -19,6 +21,13 @@ public interface LicensePaymentService {
     void submitOfflineReceipt(Long applicationId, String userInn,
                               MultipartFile receipt, ManualPaymentRequest info);
 
+    /** То же, но квитанция уже загружена напрямую в хранилище (см. POST /uploads). */
+    void finalizeOfflineReceipt(Long applicationId, String userInn,
+                                UUID uploadId, ManualPaymentRequest info);
+
+    /** Проверка перед выдачей ссылки на загрузку квитанции: своя заявка, квитанция принимается. */
+    void checkReceiptUpload(Long applicationId, String userInn);
+
     /** Ручное подтверждение офлайн-оплаты сотрудником МПРЭТН.
      *  Переводит платёж в MANUAL_CONFIRMED, заявку — в UNDER_REVIEW (если была SUBMITTED). */
     void confirmManualPayment(Long paymentId, String actorInn);
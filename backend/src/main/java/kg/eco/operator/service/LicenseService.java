@@ -6,7 +6,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -18,21 +20,23 @@ import java.util.List;
  */
 public interface LicenseService {
 
-    List<LicenseResponse> listAll(LicenseType typeFilter);
+    /** Весь реестр для сотрудников, новые сверху; фильтры и сортировка — в БД. */
+    List<LicenseResponse> listAll(RegistryFilter filter);
 
     LicenseResponse getById(Long id);
 
     LicenseResponse getByNumber(String licenseNumber);
 
-    Page<LicenseResponse> listPublished(Pageable pageable, String search);
+    /** Публичный реестр: только опубликованные и не отозванные, страница из БД. */
+    Page<LicenseResponse> listPublished(RegistryFilter filter, Pageable pageable);
 
     /** Обновление флагов публикации и отзыва (только для сотрудника МПРЭТН). */
     LicenseResponse updateVisibility(Long id, Boolean isPublished,
                                       Boolean isRevoked, String revocationReason,
                                       String actorInn);
 
-    /** Экспорт реестра в CSV (UTF-8 with BOM). */
-    byte[] exportCsv(LicenseType typeFilter);
+    /** Потоковый экспорт реестра в CSV (UTF-8 with BOM), от новых к старым. */
+    void exportCsv(RegistryFilter filter, OutputStream out) throws IOException;
 
     // ─── электронная копия подписанной лицензии (PDF) ───
 
@@ -47,6 +51,20 @@ public interface LicenseService {
     /** Публичное скачивание PDF по номеру лицензии (для проверки подлинности). */
     LicenseDocumentDownload downloadDocumentByNumberPublic(String licenseNumber);
 
-    /** Контейнер для выдачи файла контроллером. */
-    record LicenseDocumentDownload(String fileName, InputStream stream, long size) {}
+    /** Что отдать контроллеру: сам файл читает DocumentDownloadService по ключу. */
+    record LicenseDocumentDownload(String fileName, String objectKey) {}
+
+    /**
+     * Фильтры реестра, все необязательные.
+     *
+     * @param search       подстрока номера, ИНН или наименования
+     * @param licenseTypes любой из видов; пусто — все
+     * @param status       active | expiring | expired | revoked | hidden (как statusLabel)
+     * @param region       подстрока юридического адреса (отдельной колонки региона нет)
+     * @param issuedFrom   выдана не раньше
+     * @param issuedTo     выдана не позже
+     * @param validOn      действует на дату
+     */
+    record RegistryFilter(String search, List<LicenseType> licenseTypes, String status, String region,
+                          LocalDate issuedFrom, LocalDate issuedTo, LocalDate validOn) {}
 }
@@ -3,18 +3,35 @@ package kg.eco.operator.service;
 import kg.eco.operator.dto.request.CreatePublicationRequest;
 import kg.eco.operator.dto.response.PublicationListItemResponse;
 import kg.eco.operator.dto.response.PublicationResponse;
+import kg.eco.operator.dto.response.PublicationSearchHitResponse;
 import kg.eco.operator.entity.enums.PublicationCategory;
 import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.UUID;
+
 public interface PublicationService {
 
-    /** Публичная лента — только опубликованные публикации. */
+    /**
+     * Публичная лента — только опубликованные публикации. С непустым
+     * {@code search} — результаты {@link #searchPublic} без фрагментов.
+     */
     Page<PublicationListItemResponse> listPublic(
             PublicationCategory category, String search, String lang,
             int page, int size);
 
-    /** Публикация по slug (для публичной детальной страницы). */
+    /**
+     * Полнотекстовый поиск по заголовку, анонсу и тексту на языке {@code lang}
+     * (публикации без перевода — по русскому тексту), по убыванию релевантности.
+     */
+    Page<PublicationSearchHitResponse> searchPublic(
+            String query, PublicationCategory category, String lang,
+            int page, int size);
+
+    /**
+     * Публикация по slug (для публичной детальной страницы). Только чтение:
+     * просмотры считает PublicationViewCounter.
+     */
     PublicationResponse getBySlug(String slug, String lang);
 
     /** Самая свежая опубликованная — для hero-секции на главной. */
@@ -35,6 +52,12 @@ public interface PublicationService {
     /** Загрузить cover-картинку (multipart). */
     PublicationResponse uploadCover(Long id, MultipartFile file);
 
+    /** Привязать cover-картинку, загруженную напрямую в хранилище. */
+    PublicationResponse finalizeCoverUpload(Long id, UUID uploadId);
+
+    /** Проверка перед выдачей ссылки на загрузку cover: публикацию можно редактировать. */
+    void checkCoverUpload(Long id);
+
     /** Снять с публикации (не удаляет, оставляет в БД). */
     PublicationResponse unpublish(Long id);
 
@@ -43,4 +66,10 @@ public interface PublicationService {
 
     /** Удалить (только админ). */
     void delete(Long id);
+
+    /**
+     * Оригинал обложки, если её копии ещё не созданы: проверяет, что ключ —
+     * действительно обложка публикации, и ставит генерацию копий в очередь.
+     */
+    String coverOriginalForVariant(String objectKey);
 }
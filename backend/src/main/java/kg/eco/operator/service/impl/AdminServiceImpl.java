@@ -3,9 +3,15 @@ package kg.eco.operator.service.impl;
 import kg.eco.operator.dto.response.UserProfileResponse;
 import kg.eco.operator.entity.NotificationTemplate;
 import kg.eco.operator.entity.SystemSetting;
+import kg.eco.operator.entity.User;
 import kg.eco.operator.entity.enums.NotificationType;
+import kg.eco.operator.exception.ResourceNotFoundException;
 import kg.eco.operator.repository.*;
+import kg.eco.operator.security.RateLimitFilter;
+import kg.eco.operator.security.TokenVersionRegistry;
 import kg.eco.operator.service.AdminService;
+import kg.eco.operator.service.scheduling.ScheduledJobCoordinator;
+import kg.eco.operator.service.template.NotificationTemplateEngine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +33,10 @@ public class AdminServiceImpl implements AdminService {
     private final RecyclingNormRepository recyclingNormRepository;
     private final CategoryRepository categoryRepository;
     private final SystemSettingRepository systemSettingRepository;
+    private final NotificationTemplateEngine notificationTemplateEngine;
+    private final ScheduledJobCoordinator scheduledJobCoordinator;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final RateLimitFilter rateLimitFilter;
 
     @Override
     public List<UserProfileResponse> getUsers() {
@@ -69,8 +79,35 @@ public class AdminServiceImpl implements AdminService {
         template.setTitle((String) request.getOrDefault("subject", ""));
         template.setMessageTemplate((String) request.getOrDefault("bodyTemplate", ""));
         template.setType(NotificationType.INFO);
+        notificationTemplateEngine.validate(template.getTitle(), template.getMessageTemplate());
         template = templateRepository.save(template);
+        notificationTemplateEngine.invalidate(template.getCode());
 
+        return toTemplateMap(template);
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Object> updateNotificationTemplate(Long id, Map<String, Object> request) {
+        NotificationTemplate template = templateRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Шаблон уведомления не найден: " + id));
+        if (request.get("subject") != null) {
+            template.setTitle((String) request.get("subject"));
+        }
+        if (request.get("bodyTemplate") != null) {
+            template.setMessageTemplate((String) request.get("bodyTemplate"));
+        }
+        if (request.get("type") != null) {
+            template.setType(NotificationType.fromValue((String) request.get("type")));
+        }
+        notificationTemplateEngine.validate(template.getTitle(), template.getMessageTemplate());
+        template = templateRepository.save(template);
+        notificationTemplateEngine.invalidate(template.getCode());
+
+        return toTemplateMap(template);
+    }
+
+    private Map<String, Object> toTemplateMap(NotificationTemplate template) {
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("id", template.getId());
         result.put("name", template.getCode());
@@ -153,6 +190,25 @@ public class AdminServiceImpl implements AdminService {
         });
     }
 
+    @Override
+    public List<Map<String, Object>> getScheduledJobs() {
+        return scheduledJobCoordinator.getJobs();
+    }
+
+    @Override
+    @Transactional
+    public void revokeUserTokens(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", userId));
+        tokenVersionRegistry.revoke(userId);
+        user.setRefreshToken(null);
+    }
+
+    @Override
+    public Map<String, Object> getRateLimitStats() {
+        return rateLimitFilter.stats();
+    }
+
     private String mapRole(kg.eco.operator.entity.enums.RoleEnum role) {
         if (role == null) return null;
         return role.getValue();
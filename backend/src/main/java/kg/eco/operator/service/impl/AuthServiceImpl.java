@@ -26,6 +26,7 @@ import kg.eco.operator.repository.PayerRepository;
 import kg.eco.operator.repository.UserRepository;
 import kg.eco.operator.repository.DetectedCompanyRepository;
 import kg.eco.operator.security.JwtTokenProvider;
+import kg.eco.operator.security.TokenVersionRegistry;
 import kg.eco.operator.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -49,6 +50,7 @@ public class AuthServiceImpl implements AuthService {
     private final PayerRepository payerRepository;
     private final AccountRepository accountRepository;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenVersionRegistry tokenVersionRegistry;
     private final PasswordEncoder passwordEncoder;
     private final TaxServicePort taxServicePort;
     private final DetectedCompanyRepository detectedCompanyRepository;
@@ -173,6 +175,9 @@ public class AuthServiceImpl implements AuthService {
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь", "ИНН", inn));
 
         if (!refreshToken.equals(user.getRefreshToken())) {
+            // Повторное использование старого refresh token — вероятна утечка:
+            // отзываем и все access-токены пользователя
+            tokenVersionRegistry.revoke(user.getId());
             user.setRefreshToken(null);
             userRepository.save(user);
             throw new UnauthorizedException("Refresh token не соответствует выданному. Повторите вход.");
@@ -212,7 +217,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     private LoginResponse buildLoginResponse(User user) {
-        String accessToken = jwtTokenProvider.generateAccessToken(user.getInn());
+        String accessToken = jwtTokenProvider.generateAccessToken(user);
         String refreshToken = jwtTokenProvider.generateRefreshToken(user.getInn());
 
         // Persist refresh token
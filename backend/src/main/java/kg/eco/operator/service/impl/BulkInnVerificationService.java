@@ -0,0 +1,188 @@
+package kg.eco.operator.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.eco.operator.dto.response.BulkInnVerificationResult;
+import kg.eco.operator.integration.taxservice.TaxServicePort;
+import kg.eco.operator.integration.taxservice.dto.TaxInnVerificationResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Массовая проверка ИНН с потоковой выдачей результата (NDJSON).
+ *
+ * ИНН обрабатываются порциями по {@code chunk-size}: сначала порция сверяется
+ * с локальными companies / detected_companies двумя запросами {@code inn = ANY(?)},
+ * остальные ИНН проверяются в ГНС параллельно на виртуальных потоках
+ * (не более {@code concurrency} одновременно). Строки пишутся в ответ по мере
+ * готовности, в памяти держится только текущая порция.
+ */
+@Slf4j
+@Service
+public class BulkInnVerificationService {
+
+    private static final String INN_PATTERN = "\\d{14}";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaxServicePort taxServicePort;
+    private final ObjectMapper objectMapper;
+    private final int concurrency;
+    private final int chunkSize;
+
+    public BulkInnVerificationService(JdbcTemplate jdbcTemplate,
+                                      TaxServicePort taxServicePort,
+                                      ObjectMapper objectMapper,
+                                      @Value("${integration.bulk-verification.concurrency:16}") int concurrency,
+                                      @Value("${integration.bulk-verification.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taxServicePort = taxServicePort;
+        this.objectMapper = objectMapper;
+        this.concurrency = Math.max(1, concurrency);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /** Проверяет ИНН (уже без дубликатов) и пишет по одной JSON-строке на ИНН. */
+    public void verify(List<String> inns, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Semaphore permits = new Semaphore(concurrency);
+            for (int from = 0; from < inns.size(); from += chunkSize) {
+                verifyChunk(inns.subList(from, Math.min(from + chunkSize, inns.size())), executor, permits, out);
+                out.flush();
+            }
+        }
+        log.info("Массовая проверка ИНН: {} шт. за {} мс", inns.size(), System.currentTimeMillis() - started);
+    }
+
+    // ─── Internals ───
+
+    private void verifyChunk(List<String> chunk, ExecutorService executor, Semaphore permits,
+                             OutputStream out) throws IOException {
+        List<String> valid = new ArrayList<>(chunk.size());
+        for (String inn : chunk) {
+            if (inn.matches(INN_PATTERN)) {
+                valid.add(inn);
+            } else {
+                write(out, BulkInnVerificationResult.builder()
+                        .inn(inn).source("invalid")
+                        .errorMessage("ИНН должен содержать 14 цифр")
+                        .build());
+            }
+        }
+        if (valid.isEmpty()) return;
+
+        Map<String, BulkInnVerificationResult> local = findLocal(valid);
+        for (BulkInnVerificationResult result : local.values()) {
+            write(out, result);
+        }
+
+        CompletionService<BulkInnVerificationResult> completion = new ExecutorCompletionService<>(executor);
+        int submitted = 0;
+        for (String inn : valid) {
+            if (local.containsKey(inn)) continue;
+            completion.submit(() -> {
+                permits.acquire();
+                try {
+                    return verifyInGns(inn);
+                } finally {
+                    permits.release();
+                }
+            });
+            submitted++;
+        }
+
+        for (int i = 0; i < submitted; i++) {
+            try {
+                write(out, completion.take().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Массовая проверка ИНН прервана", e);
+            } catch (ExecutionException e) {
+                // verifyInGns сам превращает ошибки в строку результата
+                log.warn("Ошибка массовой проверки ИНН: {}", e.getCause().getMessage());
+            }
+        }
+    }
+
+    private BulkInnVerificationResult verifyInGns(String inn) {
+        try {
+            TaxInnVerificationResponse verification = taxServicePort.verifyInn(inn);
+            if (!verification.isValid()) {
+                return BulkInnVerificationResult.builder()
+                        .inn(inn).source("gns")
+                        .errorMessage("ИНН не найден в реестре ГНС")
+                        .build();
+            }
+            return BulkInnVerificationResult.builder()
+                    .inn(inn).source("gns")
+                    .found(true)
+                    .active(!"liquidated".equals(verification.getStatus()))
+                    .officialName(verification.getOfficialName())
+                    .status(verification.getStatus())
+                    .build();
+        } catch (Exception e) {
+            return BulkInnVerificationResult.builder()
+                    .inn(inn).source("error")
+                    .errorMessage(e.getMessage())
+                    .build();
+        }
+    }
+
+    private Map<String, BulkInnVerificationResult> findLocal(Collection<String> inns) {
+        Map<String, BulkInnVerificationResult> result = new HashMap<>();
+        // Сначала выявленные, затем зарегистрированные — запись реестра важнее
+        queryByInn("SELECT inn, company_name, gns_status FROM detected_companies WHERE inn = ANY(?)", inns,
+                (inn, name, status) -> result.put(inn, BulkInnVerificationResult.builder()
+                        .inn(inn).source("detected")
+                        .found(true)
+                        .active(!"liquidated".equals(status))
+                        .officialName(name)
+                        .status(status)
+                        .build()));
+        queryByInn("SELECT inn, company_name, NULL FROM companies WHERE inn = ANY(?)", inns,
+                (inn, name, status) -> result.put(inn, BulkInnVerificationResult.builder()
+                        .inn(inn).source("registry")
+                        .found(true)
+                        .active(true)
+                        .officialName(name)
+                        .build()));
+        return result;
+    }
+
+    private void queryByInn(String sql, Collection<String> inns, LocalRow consumer) {
+        jdbcTemplate.query(sql,
+                ps -> {
+                    Array array = ps.getConnection().createArrayOf("varchar", inns.toArray());
+                    ps.setArray(1, array);
+                },
+                rs -> {
+                    consumer.accept(rs.getString(1), rs.getString(2), rs.getString(3));
+                });
+    }
+
+    private void write(OutputStream out, BulkInnVerificationResult result) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+    }
+
+    @FunctionalInterface
+    private interface LocalRow {
+        void accept(String inn, String name, String status);
+    }
+}
@@ -12,8 +12,12 @@ import kg.eco.operator.event.CalculationStatusEvent;
 import kg.eco.operator.integration.banking.BankingServicePort;
 import kg.eco.operator.integration.banking.dto.BankPaymentVerificationRequest;
 import kg.eco.operator.integration.banking.dto.BankPaymentVerificationResponse;
+import kg.eco.operator.security.CurrentUser;
 import kg.eco.operator.service.CalculationService;
 import kg.eco.operator.service.FileStorageService;
+import kg.eco.operator.service.upload.DirectUploadService;
+import kg.eco.operator.service.upload.StoredFile;
+import kg.eco.operator.service.upload.UploadPurpose;
 import kg.eco.operator.util.CalculationUtil;
 import kg.eco.operator.util.DueDateCalculator;
 import lombok.RequiredArgsConstructor;
@@ -37,6 +41,7 @@ import java.time.Year;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -61,6 +66,8 @@ public class CalculationServiceImpl implements CalculationService {
     private final ApplicationEventPublisher eventPublisher;
     private final FileStorageService fileStorageService;
     private final BankingServicePort bankingServicePort;
+    private final CurrentUser currentUser;
+    private final DirectUploadService directUploadService;
 
     // ─── LIST ───
 
@@ -320,7 +327,7 @@ public class CalculationServiceImpl implements CalculationService {
         payment.setStatus(PaymentConfirmationStatus.PENDING);
 
         if (document != null && !document.isEmpty()) {
-            String objectKey = fileStorageService.upload(document, "payments/" + payment.getPaymentNumber());
+            String objectKey = fileStorageService.upload(document);
             payment.setDocumentUrl(objectKey);
         }
 
@@ -471,19 +478,40 @@ public class CalculationServiceImpl implements CalculationService {
         assertOwner(calc, inn);
         if (files != null) {
             for (MultipartFile file : files) {
-                String objectKey = fileStorageService.upload(file, "calculations/" + id);
-                Document doc = new Document();
-                doc.setName(file.getOriginalFilename());
-                doc.setUrl(objectKey);
-                doc.setSize(file.getSize());
-                doc.setEntityType("calculation");
-                doc.setEntityId(id);
-                doc.setType(DocumentType.OTHER);
-                documentRepository.save(doc);
+                String objectKey = fileStorageService.upload(file);
+                attachDocument(id, StoredFile.of(file, objectKey));
             }
         }
     }
 
+    @Override
+    @Transactional
+    public void finalizeDocuments(Long id, String inn, List<UUID> uploadIds) {
+        Calculation calc = findById(id);
+        assertOwner(calc, inn);
+        for (UUID uploadId : uploadIds) {
+            attachDocument(id, directUploadService.complete(
+                    uploadId, UploadPurpose.CALCULATION_DOCUMENT, id, currentUser.id()));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void checkDocumentUpload(Long id, String inn) {
+        assertOwner(findById(id), inn);
+    }
+
+    private void attachDocument(Long calculationId, StoredFile file) {
+        Document doc = new Document();
+        doc.setName(file.fileName());
+        doc.setUrl(file.objectKey());
+        doc.setSize(file.size());
+        doc.setEntityType("calculation");
+        doc.setEntityId(calculationId);
+        doc.setType(DocumentType.OTHER);
+        documentRepository.save(doc);
+    }
+
     // ─── COUNTS ───
 
     @Override
@@ -624,14 +652,20 @@ public class CalculationServiceImpl implements CalculationService {
     }
 
     private User findUserByInn(String inn) {
-        return userRepository.findByInn(inn)
+        return currentUser.findByInn(inn)
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь", "ИНН", inn));
     }
 
     private void assertOwner(Calculation calc, String inn) {
-        User user = findUserByInn(inn);
-        if (user.getCompany() == null ||
-                !calc.getCompany().getId().equals(user.getCompany().getId())) {
+        // Для текущего пользователя компания известна из токена — без SELECT users
+        Long companyId;
+        if (currentUser.is(inn)) {
+            companyId = currentUser.companyId();
+        } else {
+            User user = findUserByInn(inn);
+            companyId = user.getCompany() != null ? user.getCompany().getId() : null;
+        }
+        if (companyId == null || !calc.getCompany().getId().equals(companyId)) {
             throw new BusinessLogicException("Нет доступа к данному расчёту");
         }
     }
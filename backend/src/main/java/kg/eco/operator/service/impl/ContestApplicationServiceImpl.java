@@ -20,6 +20,9 @@ import kg.eco.operator.repository.UserRepository;
 import kg.eco.operator.service.ContestApplicationService;
 import kg.eco.operator.service.ContestService;
 import kg.eco.operator.service.FileStorageService;
+import kg.eco.operator.service.upload.DirectUploadService;
+import kg.eco.operator.service.upload.StoredFile;
+import kg.eco.operator.service.upload.UploadPurpose;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -30,6 +33,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -37,7 +41,6 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class ContestApplicationServiceImpl implements ContestApplicationService {
 
-    private static final String MINIO_FOLDER = "contests/applications";
     private static final long MAX_DOC_SIZE = 10L * 1024 * 1024; // 10 МБ по ТЗ
 
     private final ContestApplicationRepository applicationRepository;
@@ -45,6 +48,7 @@ public class ContestApplicationServiceImpl implements ContestApplicationService
     private final UserRepository userRepository;
     private final ContestApplicationMapper applicationMapper;
     private final FileStorageService fileStorageService;
+    private final DirectUploadService directUploadService;
     private final ApplicationEventPublisher eventPublisher;
 
     @Override
@@ -55,6 +59,35 @@ public class ContestApplicationServiceImpl implements ContestApplicationService
             String phone, String email,
             MultipartFile document) {
 
+        Contest contest = loadOpenContest(contestId);
+        validateDocument(document);
+
+        String objectKey = fileStorageService.upload(document);
+        return createApplication(contest, lastName, firstName, middleName, phone, email,
+                StoredFile.of(document, objectKey));
+    }
+
+    @Override
+    @Transactional
+    public ContestApplicationResponse submitUploaded(
+            Long contestId,
+            String lastName, String firstName, String middleName,
+            String phone, String email,
+            UUID uploadId) {
+
+        Contest contest = loadOpenContest(contestId);
+        // Формат и размер (PDF/DOC/DOCX, до 10 МБ) проверяет DirectUploadService
+        StoredFile document = directUploadService.complete(
+                uploadId, UploadPurpose.CONTEST_APPLICATION, contestId, null);
+        return createApplication(contest, lastName, firstName, middleName, phone, email, document);
+    }
+
+    @Override
+    public void checkAcceptingApplications(Long contestId) {
+        loadOpenContest(contestId);
+    }
+
+    private Contest loadOpenContest(Long contestId) {
         Contest contest = contestRepository.findById(contestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Конкурс не найден: " + contestId));
 
@@ -64,10 +97,14 @@ public class ContestApplicationServiceImpl implements ContestApplicationService
         if (contest.getDeadline().isBefore(LocalDateTime.now())) {
             throw new BusinessLogicException("Срок подачи заявок истёк");
         }
+        return contest;
+    }
 
-        validateDocument(document);
-
-        String objectKey = fileStorageService.upload(document, MINIO_FOLDER);
+    private ContestApplicationResponse createApplication(
+            Contest contest,
+            String lastName, String firstName, String middleName,
+            String phone, String email,
+            StoredFile document) {
 
         ContestApplication app = new ContestApplication();
         app.setNumber(generateNumber());
@@ -77,9 +114,9 @@ public class ContestApplicationServiceImpl implements ContestApplicationService
         app.setMiddleName(middleName != null ? middleName.trim() : null);
         app.setPhone(safe(phone));
         app.setEmail(safe(email).toLowerCase());
-        app.setDocumentObjectKey(objectKey);
-        app.setDocumentFileName(document.getOriginalFilename());
-        app.setDocumentSize(document.getSize());
+        app.setDocumentObjectKey(document.objectKey());
+        app.setDocumentFileName(document.fileName());
+        app.setDocumentSize(document.size());
         app.setStatus(ContestApplicationStatus.NEW);
 
         app = applicationRepository.save(app);
@@ -196,7 +233,7 @@ public class ContestApplicationServiceImpl implements ContestApplicationService
     public ContestService.DownloadResult downloadDocument(Long id) {
         ContestApplication app = findApp(id);
         return new ContestService.DownloadResult(
-                fileStorageService.download(app.getDocumentObjectKey()),
+                app.getDocumentObjectKey(),
                 app.getDocumentFileName(),
                 "application/octet-stream");
     }
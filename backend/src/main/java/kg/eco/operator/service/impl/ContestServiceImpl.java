@@ -29,8 +29,6 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class ContestServiceImpl implements ContestService {
 
-    private static final String MINIO_FOLDER = "contests/regulations";
-
     private final ContestRepository contestRepository;
     private final ContestApplicationRepository applicationRepository;
     private final UserRepository userRepository;
@@ -160,14 +158,7 @@ public class ContestServiceImpl implements ContestService {
         if (apps > 0) {
             throw new BusinessLogicException("Нельзя удалить конкурс с заявками");
         }
-        if (contest.getRegulationsObjectKey() != null) {
-            try {
-                fileStorageService.delete(contest.getRegulationsObjectKey());
-            } catch (Exception e) {
-                log.warn("Не удалось удалить файл положения {}: {}",
-                        contest.getRegulationsObjectKey(), e.getMessage());
-            }
-        }
+        fileStorageService.release(contest.getRegulationsObjectKey());
         contestRepository.delete(contest);
     }
 
@@ -178,15 +169,9 @@ public class ContestServiceImpl implements ContestService {
             throw new BusinessLogicException("Файл не передан");
         }
         Contest contest = findContest(id);
-        // Удаляем старый файл, если есть
-        if (contest.getRegulationsObjectKey() != null) {
-            try {
-                fileStorageService.delete(contest.getRegulationsObjectKey());
-            } catch (Exception e) {
-                log.warn("Не удалось удалить старое положение: {}", e.getMessage());
-            }
-        }
-        String objectKey = fileStorageService.upload(file, MINIO_FOLDER);
+        // Старый файл, если есть, больше не нужен конкурсу
+        fileStorageService.release(contest.getRegulationsObjectKey());
+        String objectKey = fileStorageService.upload(file);
         contest.setRegulationsObjectKey(objectKey);
         contest.setRegulationsFileName(file.getOriginalFilename());
         contest = contestRepository.save(contest);
@@ -200,7 +185,7 @@ public class ContestServiceImpl implements ContestService {
             throw new ResourceNotFoundException("Положение конкурса не загружено");
         }
         return new DownloadResult(
-                fileStorageService.download(contest.getRegulationsObjectKey()),
+                contest.getRegulationsObjectKey(),
                 contest.getRegulationsFileName(),
                 "application/pdf");
     }
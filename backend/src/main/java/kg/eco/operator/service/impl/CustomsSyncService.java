@@ -0,0 +1,94 @@
+package kg.eco.operator.service.impl;
+
+import kg.eco.operator.integration.customs.CustomsServicePort;
+import kg.eco.operator.integration.customs.dto.CustomsDeclarationRequest;
+import kg.eco.operator.integration.customs.dto.CustomsDeclarationResponse;
+import kg.eco.operator.repository.CustomsImportRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Инкрементальная загрузка ГТД из ГТС КР в локальное хранилище.
+ *
+ * Отметка (watermark) — последний полностью загруженный день. Каждый прогон
+ * запрашивает период от отметки (минус {@code overlap-days} на поздно
+ * зарегистрированные ГТД) до сегодня окнами по {@code window-days} дней;
+ * после каждого окна отметка сохраняется, поэтому сбой посередине не
+ * заставляет перезагружать уже полученное. Декларации обновляются по номеру,
+ * так что перекрытие окон безопасно.
+ */
+@Slf4j
+@Service
+public class CustomsSyncService {
+
+    static final String SOURCE = "customs_declarations";
+
+    private final CustomsServicePort customsServicePort;
+    private final CustomsImportRepository customsImportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int initialDays;
+    private final int overlapDays;
+    private final int windowDays;
+
+    public CustomsSyncService(CustomsServicePort customsServicePort,
+                              CustomsImportRepository customsImportRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${monitoring.customs-sync.initial-days:90}") int initialDays,
+                              @Value("${monitoring.customs-sync.overlap-days:1}") int overlapDays,
+                              @Value("${monitoring.customs-sync.window-days:7}") int windowDays) {
+        this.customsServicePort = customsServicePort;
+        this.customsImportRepository = customsImportRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.initialDays = initialDays;
+        this.overlapDays = Math.max(0, overlapDays);
+        this.windowDays = Math.max(1, windowDays);
+    }
+
+    /**
+     * Догружает ГТД с момента последней синхронизации.
+     *
+     * @return декларации, полученные в этом прогоне (для мониторинга новых компаний)
+     */
+    public List<CustomsDeclarationResponse> sync() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = customsImportRepository.findWatermark(SOURCE)
+                .map(w -> w.minusDays(overlapDays))
+                .orElse(today.minusDays(initialDays));
+
+        List<CustomsDeclarationResponse> fetched = new ArrayList<>();
+        while (!from.isAfter(today)) {
+            LocalDate to = from.plusDays(windowDays - 1L);
+            if (to.isAfter(today)) to = today;
+
+            List<CustomsDeclarationResponse> window = customsServicePort.getImportDeclarations(
+                    CustomsDeclarationRequest.builder()
+                            .periodFrom(from)
+                            .periodTo(to)
+                            .build());
+
+            LocalDate watermark = to;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (CustomsDeclarationResponse declaration : window) {
+                    if (declaration.getDeclarationNumber() == null || declaration.getDeclarationDate() == null) {
+                        log.warn("ГТС: пропущена декларация без номера или даты (ИНН {})",
+                                declaration.getCompanyInn());
+                        continue;
+                    }
+                    customsImportRepository.upsert(declaration);
+                }
+                customsImportRepository.saveWatermark(SOURCE, watermark, window.size());
+            });
+            log.info("ГТС: загружено деклараций за {} - {}: {}", from, to, window.size());
+
+            fetched.addAll(window);
+            from = to.plusDays(1);
+        }
+        return fetched;
+    }
+}
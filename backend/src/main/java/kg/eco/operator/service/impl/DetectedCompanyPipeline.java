@@ -0,0 +1,185 @@
+package kg.eco.operator.service.impl;
+
+import kg.eco.operator.entity.DetectedCompany;
+import kg.eco.operator.integration.config.IntegrationProperties;
+import kg.eco.operator.integration.taxservice.TaxServicePort;
+import kg.eco.operator.integration.taxservice.dto.TaxCompanyRegistrationResponse;
+import kg.eco.operator.integration.taxservice.dto.TaxInnVerificationResponse;
+import kg.eco.operator.repository.DetectedCompanyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Конвейер выявления незарегистрированных компаний для мониторинга ГТС/ГНС.
+ *
+ * 1) Кандидаты схлопываются по ИНН ещё до обращения к БД и ГНС: позиции
+ *    одной декларации и несколько деклараций одной компании дают одного
+ *    кандидата (ТН ВЭД объединяются, масса суммируется).
+ * 2) Уже известные ИНН отсекаются одним запросом на весь прогон.
+ * 3) Запросы в ГНС (verifyInn + getCompanyRegistration) выполняются
+ *    параллельно на виртуальных потоках, не более
+ *    {@code monitoring.pipeline.concurrency} одновременно. Лимит не больше
+ *    bulkhead ГНС: лишние запросы всё равно ждали бы места в bulkhead и
+ *    после {@code bulkhead-max-wait} отбрасывались бы как ошибки.
+ * 4) Новые компании вставляются JDBC-пачками с ON CONFLICT (inn) DO NOTHING.
+ *
+ * Ошибка ГНС по одному ИНН не прерывает весь прогон — компания просто
+ * будет проверена в следующий раз.
+ */
+@Slf4j
+@Component
+public class DetectedCompanyPipeline {
+
+    private final TaxServicePort taxServicePort;
+    private final DetectedCompanyRepository detectedCompanyRepository;
+    private final int concurrency;
+
+    public DetectedCompanyPipeline(TaxServicePort taxServicePort,
+                                   DetectedCompanyRepository detectedCompanyRepository,
+                                   IntegrationProperties integrationProperties,
+                                   @Value("${monitoring.pipeline.concurrency:16}") int concurrency) {
+        this.taxServicePort = taxServicePort;
+        this.detectedCompanyRepository = detectedCompanyRepository;
+        this.concurrency = boundedByBulkhead(Math.max(1, concurrency),
+                integrationProperties.getTaxService().getResilience());
+    }
+
+    /**
+     * Кандидат на добавление в detected_companies.
+     * Для ГНС tnvedCodes и estimatedMass пустые.
+     */
+    public record Candidate(String inn, String source, Set<String> tnvedCodes, BigDecimal estimatedMass) {}
+
+    /**
+     * Прогоняет кандидатов через конвейер.
+     *
+     * @return количество добавленных компаний
+     */
+    public int ingest(Collection<Candidate> candidates) {
+        Map<String, Candidate> byInn = deduplicate(candidates);
+        if (byInn.isEmpty()) return 0;
+
+        // Один запрос inn = ANY(?) вместо existsByInn на каждого кандидата
+        Set<String> known = detectedCompanyRepository.findExistingInns(byInn.keySet());
+        List<Candidate> unknown = byInn.values().stream()
+                .filter(c -> !known.contains(c.inn()))
+                .toList();
+        log.info("Кандидатов: {}, уникальных ИНН: {}, новых для проверки в ГНС: {}",
+                candidates.size(), byInn.size(), unknown.size());
+        if (unknown.isEmpty()) return 0;
+
+        List<DetectedCompany> detected = verifyAll(unknown);
+        if (detected.isEmpty()) return 0;
+
+        // ON CONFLICT (inn) DO NOTHING: параллельный прогон (ручной + плановый)
+        // не создаст дубликатов, уникальность держит ограничение в БД
+        return detectedCompanyRepository.insertIgnoringDuplicates(detected);
+    }
+
+    private Map<String, Candidate> deduplicate(Collection<Candidate> candidates) {
+        Map<String, Candidate> byInn = new LinkedHashMap<>();
+        for (Candidate c : candidates) {
+            if (c.inn() == null || c.inn().isBlank()) continue;
+            byInn.merge(c.inn(), c, (a, b) -> {
+                Set<String> codes = new LinkedHashSet<>(a.tnvedCodes());
+                codes.addAll(b.tnvedCodes());
+                BigDecimal mass = a.estimatedMass() == null ? b.estimatedMass()
+                        : b.estimatedMass() == null ? a.estimatedMass()
+                        : a.estimatedMass().add(b.estimatedMass());
+                return new Candidate(a.inn(), a.source(), codes, mass);
+            });
+        }
+        return byInn;
+    }
+
+    private List<DetectedCompany> verifyAll(List<Candidate> candidates) {
+        Semaphore permits = new Semaphore(concurrency);
+        List<Future<DetectedCompany>> futures = new ArrayList<>(candidates.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Candidate candidate : candidates) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return verify(candidate);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<DetectedCompany> result = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    DetectedCompany company = futures.get(i).get();
+                    if (company != null) result.add(company);
+                } catch (ExecutionException e) {
+                    log.warn("Не удалось проверить ИНН {} в ГНС: {}",
+                            candidates.get(i).inn(), e.getCause().getMessage());
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Мониторинг прерван", e);
+        }
+    }
+
+    private static int boundedByBulkhead(int concurrency, IntegrationProperties.ResilienceConfig resilience) {
+        if (!resilience.isEnabled() || concurrency <= resilience.getBulkheadMaxConcurrentCalls()) {
+            return concurrency;
+        }
+        int bounded = Math.max(1, resilience.getBulkheadMaxConcurrentCalls());
+        log.warn("monitoring.pipeline.concurrency={} больше bulkhead ГНС, используется {}", concurrency, bounded);
+        return bounded;
+    }
+
+    private DetectedCompany verify(Candidate candidate) {
+        String inn = candidate.inn();
+        TaxInnVerificationResponse verification = taxServicePort.verifyInn(inn);
+
+        // Ликвидированные не добавляем
+        if ("liquidated".equals(verification.getStatus())) {
+            log.info("ИНН {} ликвидирован, пропускаем", inn);
+            return null;
+        }
+
+        TaxCompanyRegistrationResponse details = taxServicePort.getCompanyRegistration(inn);
+        log.info("Добавлена новая компания из {}: {} ({})",
+                candidate.source().toUpperCase(), inn, details.getOfficialName());
+
+        return DetectedCompany.builder()
+                .inn(inn)
+                .companyName(details.getOfficialName())
+                .legalForm(details.getLegalForm())
+                .legalAddress(details.getLegalAddress())
+                .director(details.getDirector())
+                .phone(details.getPhone())
+                .email(details.getEmail())
+                .okpoCode(details.getOkpoCode())
+                .okedCodes(details.getOkedCodes() != null
+                        ? String.join(", ", details.getOkedCodes()) : null)
+                .source(candidate.source())
+                .status("new")
+                .tnvedCodes(candidate.tnvedCodes().isEmpty()
+                        ? null : String.join(", ", candidate.tnvedCodes()))
+                .estimatedMass(candidate.estimatedMass())
+                .gnsStatus(verification.getStatus())
+                .build();
+    }
+}
@@ -34,6 +34,9 @@ import kg.eco.operator.repository.SystemSettingRepository;
 import kg.eco.operator.repository.UserRepository;
 import kg.eco.operator.service.FileStorageService;
 import kg.eco.operator.service.LicenseApplicationService;
+import kg.eco.operator.service.upload.DirectUploadService;
+import kg.eco.operator.service.upload.StoredFile;
+import kg.eco.operator.service.upload.UploadPurpose;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -50,6 +53,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -66,7 +70,6 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class LicenseApplicationServiceImpl implements LicenseApplicationService {
 
-    private static final String MINIO_FOLDER = "licenses/documents";
     private static final long MAX_DOC_SIZE = 10L * 1024 * 1024; // 10 МБ, как в ContestApplicationService
     private static final String DEADLINE_DAYS_SETTING = "license_review_deadline_days";
     private static final int DEFAULT_DEADLINE_DAYS = 30;
@@ -80,6 +83,7 @@ public class LicenseApplicationServiceImpl implements LicenseApplicationService
     private final UserRepository userRepository;
     private final SystemSettingRepository systemSettingRepository;
     private final FileStorageService fileStorageService;
+    private final DirectUploadService directUploadService;
     private final LicenseMapper mapper;
     private final ObjectMapper objectMapper;
 
@@ -207,27 +211,53 @@ public class LicenseApplicationServiceImpl implements LicenseApplicationService
     public LicenseApplicationResponse uploadDocument(Long applicationId, String userInn,
                                                      LicenseDocumentType docType, MultipartFile file) {
         LicenseApplication app = loadAndEnsureOwnership(applicationId, userInn);
+        ensureDocumentsEditable(app);
+        validateFile(file);
+
+        String objectKey = fileStorageService.upload(file);
+        return attachDocument(app, docType, StoredFile.of(file, objectKey), loadUser(userInn));
+    }
+
+    @Override
+    @Transactional
+    public LicenseApplicationResponse finalizeDocumentUpload(Long applicationId, String userInn,
+                                                             LicenseDocumentType docType, UUID uploadId) {
+        LicenseApplication app = loadAndEnsureOwnership(applicationId, userInn);
+        ensureDocumentsEditable(app);
+        User user = loadUser(userInn);
+
+        StoredFile file = directUploadService.complete(
+                uploadId, UploadPurpose.LICENSE_DOCUMENT, applicationId, user.getId());
+        return attachDocument(app, docType, file, user);
+    }
+
+    @Override
+    public void checkDocumentUpload(Long applicationId, String userInn) {
+        ensureDocumentsEditable(loadAndEnsureOwnership(applicationId, userInn));
+    }
+
+    private void ensureDocumentsEditable(LicenseApplication app) {
         if (app.getStatus() != LicenseApplicationStatus.DRAFT) {
             throw new BusinessLogicException("Документы можно загружать только в статусе DRAFT");
         }
-        validateFile(file);
+    }
 
+    private LicenseApplicationResponse attachDocument(LicenseApplication app, LicenseDocumentType docType,
+                                                      StoredFile file, User uploadedBy) {
+        Long applicationId = app.getId();
         // Если документ такого типа уже есть - заменяем
         documentRepository.findByApplication_IdAndDocType(applicationId, docType).ifPresent(existing -> {
-            try { fileStorageService.delete(existing.getFileObjectKey()); } catch (Exception e) {
-                log.warn("Failed to delete old document file {}: {}", existing.getFileObjectKey(), e.getMessage());
-            }
+            fileStorageService.release(existing.getFileObjectKey());
             documentRepository.delete(existing);
         });
 
-        String objectKey = fileStorageService.upload(file, MINIO_FOLDER);
         LicenseApplicationDocument doc = new LicenseApplicationDocument();
         doc.setApplication(app);
         doc.setDocType(docType);
-        doc.setFileObjectKey(objectKey);
-        doc.setFileName(file.getOriginalFilename());
-        doc.setFileSize(file.getSize());
-        doc.setUploadedBy(loadUser(userInn));
+        doc.setFileObjectKey(file.objectKey());
+        doc.setFileName(file.fileName());
+        doc.setFileSize(file.size());
+        doc.setUploadedBy(uploadedBy);
         documentRepository.save(doc);
 
         return buildResponse(app);
@@ -245,9 +275,7 @@ public class LicenseApplicationServiceImpl implements LicenseApplicationService
         if (!doc.getApplication().getId().equals(applicationId)) {
             throw new BusinessLogicException("Документ относится к другой заявке");
         }
-        try { fileStorageService.delete(doc.getFileObjectKey()); } catch (Exception e) {
-            log.warn("Failed to delete file {}: {}", doc.getFileObjectKey(), e.getMessage());
-        }
+        fileStorageService.release(doc.getFileObjectKey());
         documentRepository.delete(doc);
     }
 
@@ -19,13 +19,16 @@ import kg.eco.operator.repository.LicenseApplicationRepository;
 import kg.eco.operator.repository.LicensePaymentEventRepository;
 import kg.eco.operator.repository.LicensePaymentRepository;
 import kg.eco.operator.repository.SystemSettingRepository;
-import kg.eco.operator.repository.UserRepository;
+import kg.eco.operator.security.CurrentUser;
 import kg.eco.operator.service.FileStorageService;
 import kg.eco.operator.service.LicensePaymentService;
 import kg.eco.operator.service.payment.PaymentIntent;
 import kg.eco.operator.service.payment.PaymentProvider;
 import kg.eco.operator.service.payment.PaymentProviderFactory;
 import kg.eco.operator.service.payment.WebhookEvent;
+import kg.eco.operator.service.upload.DirectUploadService;
+import kg.eco.operator.service.upload.StoredFile;
+import kg.eco.operator.service.upload.UploadPurpose;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -35,6 +38,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Реализация сервиса оплаты госпошлины за лицензию.
@@ -47,7 +51,6 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class LicensePaymentServiceImpl implements LicensePaymentService {
 
-    private static final String MINIO_FOLDER = "licenses/receipts";
     private static final long MAX_RECEIPT_SIZE = 10L * 1024 * 1024;
     private static final String FEE_SETTING = "license_fee_kgs";
     private static final BigDecimal DEFAULT_FEE = new BigDecimal("1000");
@@ -57,9 +60,10 @@ public class LicensePaymentServiceImpl implements LicensePaymentService {
     private final LicensePaymentRepository paymentRepository;
     private final LicensePaymentEventRepository eventRepository;
     private final LicenseApplicationRepository applicationRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
     private final SystemSettingRepository systemSettingRepository;
     private final FileStorageService fileStorageService;
+    private final DirectUploadService directUploadService;
     private final PaymentProviderFactory providerFactory;
     private final LicenseMapper mapper;
 
@@ -129,12 +133,8 @@ public class LicensePaymentServiceImpl implements LicensePaymentService {
         User user = loadUser(userInn);
         LicenseApplication app = loadApp(applicationId);
         ensureOwnership(app, user);
+        ensureReceiptAccepted(app);
 
-        if (app.getStatus() != LicenseApplicationStatus.DRAFT
-                && app.getStatus() != LicenseApplicationStatus.SUBMITTED) {
-            throw new BusinessLogicException(
-                    "Квитанцию можно прикладывать только на статусе DRAFT или SUBMITTED");
-        }
         if (receipt == null || receipt.isEmpty()) {
             throw new BusinessLogicException("Квитанция не приложена");
         }
@@ -142,6 +142,42 @@ public class LicensePaymentServiceImpl implements LicensePaymentService {
             throw new BusinessLogicException("Размер квитанции превышает 10 МБ");
         }
 
+        String objectKey = fileStorageService.upload(receipt);
+        recordOfflinePayment(app, StoredFile.of(receipt, objectKey), info);
+    }
+
+    @Override
+    @Transactional
+    public void finalizeOfflineReceipt(Long applicationId, String userInn,
+                                       UUID uploadId, ManualPaymentRequest info) {
+        User user = loadUser(userInn);
+        LicenseApplication app = loadApp(applicationId);
+        ensureOwnership(app, user);
+        ensureReceiptAccepted(app);
+
+        StoredFile receipt = directUploadService.complete(
+                uploadId, UploadPurpose.LICENSE_RECEIPT, applicationId, user.getId());
+        recordOfflinePayment(app, receipt, info);
+    }
+
+    @Override
+    public void checkReceiptUpload(Long applicationId, String userInn) {
+        LicenseApplication app = loadApp(applicationId);
+        ensureOwnership(app, loadUser(userInn));
+        ensureReceiptAccepted(app);
+    }
+
+    private void ensureReceiptAccepted(LicenseApplication app) {
+        if (app.getStatus() != LicenseApplicationStatus.DRAFT
+                && app.getStatus() != LicenseApplicationStatus.SUBMITTED) {
+            throw new BusinessLogicException(
+                    "Квитанцию можно прикладывать только на статусе DRAFT или SUBMITTED");
+        }
+    }
+
+    private void recordOfflinePayment(LicenseApplication app, StoredFile receipt, ManualPaymentRequest info) {
+        Long applicationId = app.getId();
+
         // Удаляем активный онлайн-платёж, если есть
         paymentRepository.findActiveByApplicationId(applicationId).ifPresent(existing -> {
             if (existing.getStatus() == LicensePaymentStatus.PENDING
@@ -151,8 +187,6 @@ public class LicensePaymentServiceImpl implements LicensePaymentService {
             }
         });
 
-        String objectKey = fileStorageService.upload(receipt, MINIO_FOLDER);
-
         LicensePayment p = new LicensePayment();
         p.setApplication(app);
         p.setProvider("MANUAL");
@@ -161,8 +195,8 @@ public class LicensePaymentServiceImpl implements LicensePaymentService {
         p.setStatus(LicensePaymentStatus.PENDING); // ждёт ручного подтверждения сотрудником
         p.setPaymentMethod(LicensePaymentMethod.MANUAL_OFFLINE);
         p.setPaidAt(info.getPaidAt());
-        p.setManualReceiptObjectKey(objectKey);
-        p.setManualReceiptFileName(receipt.getOriginalFilename());
+        p.setManualReceiptObjectKey(receipt.objectKey());
+        p.setManualReceiptFileName(receipt.fileName());
         paymentRepository.save(p);
 
         // Двигаем заявку в SUBMITTED, если она была в DRAFT.
@@ -320,7 +354,7 @@ public class LicensePaymentServiceImpl implements LicensePaymentService {
     // ─────────────────────────── helpers ───────────────────────────
 
     private User loadUser(String inn) {
-        return userRepository.findByInn(inn)
+        return currentUser.findByInn(inn)
                 .orElseThrow(() -> new UnauthorizedException("Пользователь не найден: " + inn));
     }
 
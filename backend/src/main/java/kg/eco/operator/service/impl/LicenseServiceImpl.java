@@ -4,7 +4,6 @@ import kg.eco.operator.dto.mapper.LicenseMapper;
 import kg.eco.operator.dto.response.LicenseResponse;
 import kg.eco.operator.entity.License;
 import kg.eco.operator.entity.User;
-import kg.eco.operator.entity.enums.LicenseType;
 import kg.eco.operator.entity.enums.RoleEnum;
 import kg.eco.operator.exception.BusinessLogicException;
 import kg.eco.operator.exception.ResourceNotFoundException;
@@ -13,46 +12,82 @@ import kg.eco.operator.repository.LicenseRepository;
 import kg.eco.operator.repository.UserRepository;
 import kg.eco.operator.service.FileStorageService;
 import kg.eco.operator.service.LicenseService;
-import lombok.RequiredArgsConstructor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.stream.Stream;
 
 /**
  * Чтение и управление реестром выданных лицензий.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class LicenseServiceImpl implements LicenseService {
 
-    private static final String MINIO_FOLDER = "licenses/documents";
     private static final long MAX_DOC_SIZE = 20L * 1024 * 1024; // 20 МБ — PDF-сканы могут быть крупнее
 
+    /** До скольких дней до окончания лицензия считается истекающей — как в LicenseMapper. */
+    private static final int EXPIRING_DAYS = 30;
+
+    private static final String CSV_HEADER =
+            "Номер лицензии;Наименование;ИНН;Вид лицензии;Виды деятельности;Юр. адрес;Дата выдачи;Действует до;Статус";
+
     private final LicenseRepository licenseRepository;
     private final UserRepository userRepository;
     private final LicenseMapper mapper;
     private final FileStorageService fileStorageService;
+    private final int exportFetchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public LicenseServiceImpl(LicenseRepository licenseRepository,
+                              UserRepository userRepository,
+                              LicenseMapper mapper,
+                              FileStorageService fileStorageService,
+                              @Value("${licenses.export.fetch-size:500}") int exportFetchSize) {
+        this.licenseRepository = licenseRepository;
+        this.userRepository = userRepository;
+        this.mapper = mapper;
+        this.fileStorageService = fileStorageService;
+        this.exportFetchSize = Math.max(1, exportFetchSize);
+    }
 
     @Override
-    public List<LicenseResponse> listAll(LicenseType typeFilter) {
-        return licenseRepository.findAll().stream()
-                .filter(l -> typeFilter == null || l.getLicenseType() == typeFilter)
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
+    public List<LicenseResponse> listAll(RegistryFilter filter) {
+        return licenseRepository.findAll(buildSpecification(filter, false),
+                        Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")))
+                .stream()
                 .map(mapper::toResponse)
-                .collect(Collectors.toList());
+                .toList();
     }
 
     @Override
@@ -70,21 +105,9 @@ public class LicenseServiceImpl implements LicenseService {
     }
 
     @Override
-    public Page<LicenseResponse> listPublished(Pageable pageable, String search) {
-        // Пока без поиска по БД — для MVP отфильтруем в памяти на маленьких объёмах.
-        // При росте данных — перевести на Specification.
-        Page<License> page = licenseRepository.findPublished(pageable);
-        if (search == null || search.isBlank()) {
-            return page.map(mapper::toResponse);
-        }
-        String q = search.toLowerCase().trim();
-        List<LicenseResponse> filtered = page.getContent().stream()
-                .filter(l -> (l.getLicenseNumber() != null && l.getLicenseNumber().toLowerCase().contains(q))
-                        || (l.getApplicantInn() != null && l.getApplicantInn().toLowerCase().contains(q))
-                        || (l.getApplicantName() != null && l.getApplicantName().toLowerCase().contains(q)))
-                .map(mapper::toResponse)
-                .collect(Collectors.toList());
-        return new org.springframework.data.domain.PageImpl<>(filtered, pageable, filtered.size());
+    public Page<LicenseResponse> listPublished(RegistryFilter filter, Pageable pageable) {
+        return licenseRepository.findAll(buildSpecification(filter, true), pageable)
+                .map(mapper::toResponse);
     }
 
     @Override
@@ -119,37 +142,146 @@ public class LicenseServiceImpl implements LicenseService {
         return mapper.toResponse(l);
     }
 
+    /**
+     * Строки читаются курсором PostgreSQL (forward-only, по
+     * {@code licenses.export.fetch-size} за раз — для этого нужна транзакция,
+     * иначе драйвер выберет весь результат) и сразу пишутся в {@code out}.
+     * Каждая сущность отсоединяется после записи, поэтому память не растёт
+     * с размером реестра. Заголовок и каждая пачка строк сбрасываются клиенту.
+     * Поток {@code out} не закрывается — им владеет вызывающий.
+     */
     @Override
-    public byte[] exportCsv(LicenseType typeFilter) {
-        List<License> licenses = licenseRepository.findAll().stream()
-                .filter(l -> typeFilter == null || l.getLicenseType() == typeFilter)
-                .sorted((a, b) -> {
-                    if (a.getIssuedAt() == null || b.getIssuedAt() == null) return 0;
-                    return b.getIssuedAt().compareTo(a.getIssuedAt());
-                })
-                .collect(Collectors.toList());
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(baos, StandardCharsets.UTF_8))) {
-            // BOM для корректного отображения кириллицы в Excel
-            pw.write('\uFEFF');
-            pw.println("Номер лицензии;Наименование;ИНН;Вид лицензии;Виды деятельности;Юр. адрес;Дата выдачи;Действует до;Статус");
-            for (License l : licenses) {
-                pw.println(String.join(";",
-                        nz(l.getLicenseNumber()),
-                        csvEscape(l.getApplicantName()),
-                        nz(l.getApplicantInn()),
-                        l.getLicenseType() != null ? l.getLicenseType().getValue() : "",
-                        l.getActivityTypes() != null ? String.join(", ", l.getActivityTypes()) : "",
-                        csvEscape(l.getLegalAddress()),
-                        l.getIssuedAt() != null ? l.getIssuedAt().toString() : "",
-                        l.getValidUntil() != null ? l.getValidUntil().toString() : "",
-                        Boolean.TRUE.equals(l.getIsRevoked()) ? "отозвана"
-                                : Boolean.TRUE.equals(l.getIsPublished()) ? "действует" : "скрыта"
-                ));
+    public void exportCsv(RegistryFilter filter, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<License> query = cb.createQuery(License.class);
+        Root<License> root = query.from(License.class);
+        query.where(buildSpecification(filter, false).toPredicate(root, query, cb));
+        query.orderBy(cb.desc(root.get("issuedAt")), cb.desc(root.get("id")));
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM для корректного отображения кириллицы в Excel
+        writer.write('\uFEFF');
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        writer.flush();
+
+        long rows = 0;
+        try (Stream<License> licenses = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<License> it = licenses.iterator();
+            while (it.hasNext()) {
+                License l = it.next();
+                writer.write(toCsvRow(l));
+                writer.write('\n');
+                entityManager.detach(l);
+                if (++rows % exportFetchSize == 0) {
+                    writer.flush();
+                }
             }
         }
-        return baos.toByteArray();
+        writer.flush();
+        log.info("Реестр лицензий выгружен в CSV: {} строк за {} мс", rows, System.currentTimeMillis() - started);
+    }
+
+    private static String toCsvRow(License l) {
+        return String.join(";",
+                nz(l.getLicenseNumber()),
+                csvEscape(l.getApplicantName()),
+                nz(l.getApplicantInn()),
+                l.getLicenseType() != null ? l.getLicenseType().getValue() : "",
+                l.getActivityTypes() != null ? String.join(", ", l.getActivityTypes()) : "",
+                csvEscape(l.getLegalAddress()),
+                l.getIssuedAt() != null ? l.getIssuedAt().toString() : "",
+                l.getValidUntil() != null ? l.getValidUntil().toString() : "",
+                Boolean.TRUE.equals(l.getIsRevoked()) ? "отозвана"
+                        : Boolean.TRUE.equals(l.getIsPublished()) ? "действует" : "скрыта");
+    }
+
+    /**
+     * Условия реестра для БД. Подстроки ищутся через LIKE '%q%' по lower(...) —
+     * под такие выражения есть триграммные GIN-индексы (V39).
+     *
+     * @param publicOnly только опубликованные и не отозванные
+     */
+    private Specification<License> buildSpecification(RegistryFilter filter, boolean publicOnly) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (publicOnly) {
+                predicates.add(cb.isTrue(root.get("isPublished")));
+                predicates.add(cb.isFalse(root.get("isRevoked")));
+            }
+            if (filter == null) {
+                return cb.and(predicates.toArray(new Predicate[0]));
+            }
+
+            if (StringUtils.hasText(filter.search())) {
+                String pattern = containsPattern(filter.search());
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("licenseNumber")), pattern, '\\'),
+                        cb.like(root.get("applicantInn"), pattern, '\\'),
+                        cb.like(cb.lower(root.get("applicantName")), pattern, '\\')
+                ));
+            }
+
+            if (filter.licenseTypes() != null && !filter.licenseTypes().isEmpty()) {
+                predicates.add(root.get("licenseType").in(filter.licenseTypes()));
+            }
+
+            if (StringUtils.hasText(filter.region())) {
+                predicates.add(cb.like(cb.lower(root.get("legalAddress")), containsPattern(filter.region()), '\\'));
+            }
+
+            if (filter.issuedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("issuedAt"), filter.issuedFrom()));
+            }
+            if (filter.issuedTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("issuedAt"), filter.issuedTo()));
+            }
+            if (filter.validOn() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("issuedAt"), filter.validOn()));
+                predicates.add(cb.greaterThanOrEqualTo(root.get("validUntil"), filter.validOn()));
+            }
+
+            if (StringUtils.hasText(filter.status())) {
+                LocalDate today = LocalDate.now();
+                switch (filter.status().trim().toLowerCase(Locale.ROOT)) {
+                    case "revoked" -> predicates.add(cb.isTrue(root.get("isRevoked")));
+                    case "hidden" -> {
+                        predicates.add(cb.isFalse(root.get("isPublished")));
+                        predicates.add(cb.isFalse(root.get("isRevoked")));
+                    }
+                    case "active" -> {
+                        // Как в LicenseMapper: до конца срока больше EXPIRING_DAYS дней
+                        predicates.add(cb.isFalse(root.get("isRevoked")));
+                        predicates.add(cb.greaterThan(root.get("validUntil"), today.plusDays(EXPIRING_DAYS)));
+                    }
+                    case "expiring" -> {
+                        predicates.add(cb.isFalse(root.get("isRevoked")));
+                        predicates.add(cb.between(root.get("validUntil"), today, today.plusDays(EXPIRING_DAYS)));
+                    }
+                    case "expired" -> {
+                        predicates.add(cb.isFalse(root.get("isRevoked")));
+                        predicates.add(cb.lessThan(root.get("validUntil"), today));
+                    }
+                    default -> throw new BusinessLogicException("Неизвестный статус лицензии: " + filter.status());
+                }
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /** Шаблон LIKE «содержит» в нижнем регистре; %, _ и \ из ввода экранируются. */
+    private static String containsPattern(String value) {
+        String escaped = value.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
     private static String nz(String v) { return v == null ? "" : v; }
@@ -183,16 +315,10 @@ public class LicenseServiceImpl implements LicenseService {
         License license = licenseRepository.findById(licenseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Лицензия не найдена: " + licenseId));
 
-        // Если ранее уже был загружен — удаляем старый файл
-        if (license.getLicenseDocumentObjectKey() != null) {
-            try { fileStorageService.delete(license.getLicenseDocumentObjectKey()); }
-            catch (Exception e) {
-                log.warn("Failed to delete old license document {}: {}",
-                        license.getLicenseDocumentObjectKey(), e.getMessage());
-            }
-        }
+        // Если ранее уже был загружен — старый файл больше не нужен этой записи
+        fileStorageService.release(license.getLicenseDocumentObjectKey());
 
-        String objectKey = fileStorageService.upload(file, MINIO_FOLDER);
+        String objectKey = fileStorageService.upload(file);
         license.setLicenseDocumentObjectKey(objectKey);
         license.setLicenseDocumentFileName(file.getOriginalFilename());
         license.setLicenseDocumentUploadedAt(LocalDateTime.now());
@@ -257,19 +383,10 @@ public class LicenseServiceImpl implements LicenseService {
             throw new ResourceNotFoundException(
                     "Электронная копия лицензии ещё не загружена сотрудником МПРЭТН");
         }
-        try {
-            var stream = fileStorageService.download(license.getLicenseDocumentObjectKey());
-            return new LicenseDocumentDownload(
-                    license.getLicenseDocumentFileName() != null
-                            ? license.getLicenseDocumentFileName()
-                            : license.getLicenseNumber() + ".pdf",
-                    stream,
-                    -1 // size unknown from MinIO stream; Content-Length будет transfer-encoding chunked
-            );
-        } catch (Exception e) {
-            log.error("Failed to fetch license document for {}: {}",
-                    license.getLicenseNumber(), e.getMessage());
-            throw new BusinessLogicException("Не удалось получить файл лицензии: " + e.getMessage());
-        }
+        return new LicenseDocumentDownload(
+                license.getLicenseDocumentFileName() != null
+                        ? license.getLicenseDocumentFileName()
+                        : license.getLicenseNumber() + ".pdf",
+                license.getLicenseDocumentObjectKey());
     }
 }
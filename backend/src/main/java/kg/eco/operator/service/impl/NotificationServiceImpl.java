@@ -11,7 +11,8 @@ import kg.eco.operator.entity.enums.NotificationType;
 import kg.eco.operator.entity.enums.RoleEnum;
 import kg.eco.operator.exception.ResourceNotFoundException;
 import kg.eco.operator.repository.NotificationRepository;
-import kg.eco.operator.repository.UserRepository;
+import kg.eco.operator.security.AuthenticatedUser;
+import kg.eco.operator.security.CurrentUser;
 import kg.eco.operator.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -27,26 +28,26 @@ import java.util.List;
 public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
     private final NotificationMapper notificationMapper;
 
     @Override
     public List<NotificationResponse> getAll(String userInn, Boolean unreadOnly) {
-        User user = findUserByInn(userInn);
-        String userRole = roleToString(user.getRole());
+        AuthenticatedUser user = resolve(userInn);
+        String userRole = roleToString(user.role());
 
         // User-specific notifications
         List<Notification> userNotifications;
         if (Boolean.TRUE.equals(unreadOnly)) {
-            userNotifications = notificationRepository.findByUser_IdAndIsReadFalseOrderByCreatedAtDesc(user.getId());
+            userNotifications = notificationRepository.findByUser_IdAndIsReadFalseOrderByCreatedAtDesc(user.id());
         } else {
-            userNotifications = notificationRepository.findByUser_IdOrderByCreatedAtDesc(user.getId());
+            userNotifications = notificationRepository.findByUser_IdOrderByCreatedAtDesc(user.id());
         }
 
         // Role-targeted notifications (e.g., ECO_OPERATOR sees all role-based notifications)
         List<Notification> roleNotifications = List.of();
-        if (user.getRole() != null) {
-            roleNotifications = notificationRepository.findByTargetRoleOrderByCreatedAtDesc(user.getRole());
+        if (user.role() != null) {
+            roleNotifications = notificationRepository.findByTargetRoleOrderByCreatedAtDesc(user.role());
             if (Boolean.TRUE.equals(unreadOnly)) {
                 roleNotifications = roleNotifications.stream()
                         .filter(n -> !Boolean.TRUE.equals(n.getIsRead()))
@@ -103,11 +104,11 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     @Transactional
     public SuccessResponse markAllAsRead(String userInn) {
-        User user = findUserByInn(userInn);
-        notificationRepository.markAllAsReadByUserId(user.getId());
+        AuthenticatedUser user = resolve(userInn);
+        notificationRepository.markAllAsReadByUserId(user.id());
         // Also mark role-targeted notifications as read
-        if (user.getRole() != null) {
-            notificationRepository.findByTargetRoleOrderByCreatedAtDesc(user.getRole()).stream()
+        if (user.role() != null) {
+            notificationRepository.findByTargetRoleOrderByCreatedAtDesc(user.role()).stream()
                     .filter(n -> !Boolean.TRUE.equals(n.getIsRead()))
                     .forEach(n -> {
                         n.setIsRead(true);
@@ -129,11 +130,11 @@ public class NotificationServiceImpl implements NotificationService {
 
     @Override
     public CountResponse getUnreadCount(String userInn) {
-        User user = findUserByInn(userInn);
-        long userCount = notificationRepository.countByUser_IdAndIsReadFalse(user.getId());
+        AuthenticatedUser user = resolve(userInn);
+        long userCount = notificationRepository.countByUser_IdAndIsReadFalse(user.id());
         long roleCount = 0;
-        if (user.getRole() != null) {
-            roleCount = notificationRepository.findByTargetRoleOrderByCreatedAtDesc(user.getRole()).stream()
+        if (user.role() != null) {
+            roleCount = notificationRepository.findByTargetRoleOrderByCreatedAtDesc(user.role()).stream()
                     .filter(n -> !Boolean.TRUE.equals(n.getIsRead()))
                     .count();
         }
@@ -154,9 +155,15 @@ public class NotificationServiceImpl implements NotificationService {
 
     // ─── Helpers ───
 
-    private User findUserByInn(String inn) {
-        return userRepository.findByInn(inn)
+    /** ID и роль из токена для текущего пользователя; для другого ИНН — из БД. */
+    private AuthenticatedUser resolve(String inn) {
+        if (currentUser.is(inn)) {
+            return currentUser.principal();
+        }
+        User user = currentUser.findByInn(inn)
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь не найден"));
+        return new AuthenticatedUser(user.getId(), user.getInn(), user.getRole(),
+                user.getCompany() != null ? user.getCompany().getId() : null);
     }
 
     private String roleToString(RoleEnum role) {
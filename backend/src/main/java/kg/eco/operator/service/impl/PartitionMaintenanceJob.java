@@ -0,0 +1,116 @@
+package kg.eco.operator.service.impl;
+
+import kg.eco.operator.config.PartitioningProperties;
+import kg.eco.operator.service.scheduling.ScheduledJobCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживание помесячных партиций журналов (notifications, audit_log,
+ * integration_audit_log) — каждый день в 01:00.
+ *
+ * 1) Создаёт партиции на текущий и {@code premake-months} следующих месяцев,
+ *    чтобы вставки не попадали в *_default, а также на месяцы, строки которых
+ *    уже лежат в *_default (create_monthly_partition переносит их, см. V40).
+ * 2) Отсоединяет партиции старше {@code retention-months} и удаляет их
+ *    (mode=drop) либо переносит в схему archive (mode=archive).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceJob {
+
+    private static final Pattern MONTH_SUFFIX = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitioningProperties properties;
+    private final ScheduledJobCoordinator jobCoordinator;
+
+    @Scheduled(cron = "0 0 1 * * *")
+    public void scheduledMaintenance() {
+        jobCoordinator.runExclusively("partition-maintenance", this::maintainPartitions);
+    }
+
+    public void maintainPartitions() {
+        YearMonth current = YearMonth.now();
+        for (Map.Entry<String, PartitioningProperties.Retention> entry : properties.getTables().entrySet()) {
+            String table = entry.getKey();
+            try {
+                createFuturePartitions(table, current);
+                expireOldPartitions(table, entry.getValue(), current);
+            } catch (Exception e) {
+                log.error("Ошибка обслуживания партиций {}: {}", table, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void createFuturePartitions(String table, YearMonth current) {
+        Set<LocalDate> months = new TreeSet<>(monthsInDefault(table));
+        for (int i = 0; i <= properties.getPremakeMonths(); i++) {
+            months.add(current.plusMonths(i).atDay(1));
+        }
+        for (LocalDate monthStart : months) {
+            jdbcTemplate.queryForObject("SELECT create_monthly_partition(?, ?)",
+                    String.class, table, monthStart);
+        }
+    }
+
+    /** Месяцы, строки которых попали в *_default, пока их партиции не было. */
+    private List<LocalDate> monthsInDefault(String table) {
+        String defaultPartition = table + "_default";
+        if (!listPartitions(table).contains(defaultPartition)) return List.of();
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT date_trunc('month', created_at)::date FROM " + quote(defaultPartition),
+                LocalDate.class);
+    }
+
+    private void expireOldPartitions(String table, PartitioningProperties.Retention retention, YearMonth current) {
+        if (retention.getRetentionMonths() <= 0) return;
+        YearMonth oldestKept = current.minusMonths(retention.getRetentionMonths());
+
+        for (String partition : listPartitions(table)) {
+            Matcher m = MONTH_SUFFIX.matcher(partition);
+            if (!m.find()) continue; // *_default и посторонние партиции не трогаем
+            YearMonth month = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+            if (!month.isBefore(oldestKept)) continue;
+
+            jdbcTemplate.execute("ALTER TABLE " + quote(table) + " DETACH PARTITION " + quote(partition));
+            if ("archive".equalsIgnoreCase(retention.getMode())) {
+                jdbcTemplate.execute("ALTER TABLE " + quote(partition) + " SET SCHEMA archive");
+                log.info("Партиция {} отсоединена и перенесена в archive", partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + quote(partition));
+                log.info("Партиция {} отсоединена и удалена (хранение {} мес.)",
+                        partition, retention.getRetentionMonths());
+            }
+        }
+    }
+
+    private List<String> listPartitions(String table) {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                JOIN pg_namespace n ON n.oid = p.relnamespace
+                WHERE p.relname = ? AND n.nspname = current_schema()
+                ORDER BY c.relname
+                """, String.class, table);
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
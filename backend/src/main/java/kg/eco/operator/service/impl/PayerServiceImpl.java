@@ -93,7 +93,7 @@ public class PayerServiceImpl implements PayerService {
         doc.setSize(file.getSize());
         doc.setEntityType("PAYER");
         doc.setEntityId(payer.getId());
-        String objectKey = fileStorageService.upload(file, "payers/" + payer.getId());
+        String objectKey = fileStorageService.upload(file);
         doc.setUrl(objectKey);
         documentRepository.save(doc);
 
@@ -0,0 +1,162 @@
+package kg.eco.operator.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import kg.eco.operator.dto.response.PublicationResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Кэш готовых JSON-ответов публичного раздела «Публикации» (лента,
+ * последняя публикация, статья по slug).
+ *
+ * Ответ хранится уже сериализованным, вместе с сильным ETag (md5 тела):
+ * повторный запрос не трогает ни БД, ни Jackson, а If-None-Match отвечается
+ * 304 (сравнение делает Spring MVC по ETag ответа). Cache-Control позволяет
+ * браузеру и nginx держать ответ {@code publications.cache.max-age} и
+ * дальше ревалидировать его.
+ *
+ * Сброс:
+ * <ul>
+ *   <li>на этом экземпляре — из пишущих методов PublicationServiceImpl
+ *       ({@link #invalidate()}), сразу и ещё раз после коммита;</li>
+ *   <li>правки на других экземплярах замечаются по отпечатку таблицы
+ *       (число строк + max(updated_at)), который проверяется раз в
+ *       {@code publications.cache.check-interval-ms};</li>
+ *   <li>TTL — страховка от гонки «прочитали до коммита, положили после».</li>
+ * </ul>
+ * Счётчик просмотров updated_at не трогает, поэтому кэш не сбрасывает —
+ * viewCount в закэшированной статье отстаёт не больше чем на TTL.
+ */
+@Slf4j
+@Component
+public class PublicationResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, CachedResponse> cache;
+    private final CacheControl cacheControl;
+    /** Растёт при каждом сбросе: ответ, собранный во время сброса, не кэшируется. */
+    private final AtomicLong generation = new AtomicLong();
+    private volatile String tableFingerprint;
+
+    public PublicationResponseCache(ObjectMapper objectMapper,
+                                    JdbcTemplate jdbcTemplate,
+                                    @Value("${publications.cache.max-size:2000}") long maxSize,
+                                    @Value("${publications.cache.ttl:10m}") Duration ttl,
+                                    @Value("${publications.cache.max-age:30s}") Duration maxAge) {
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+    }
+
+    /**
+     * Ответ из кэша или собранный {@code loader}'ом. Параллельные промахи по
+     * одному ключу ждут одну загрузку; исключения loader'а (404) не кэшируются.
+     */
+    public ResponseEntity<byte[]> get(String key, Supplier<?> loader) {
+        return toEntity(lookup(key, () -> render(loader.get(), null)));
+    }
+
+    /**
+     * Статья: как {@link #get}, но {@code onServed} получает id публикации
+     * и при попадании в кэш — для счётчика просмотров.
+     */
+    public ResponseEntity<byte[]> getArticle(String key, Supplier<PublicationResponse> loader,
+                                             Consumer<Long> onServed) {
+        CachedResponse response = lookup(key, () -> {
+            PublicationResponse article = loader.get();
+            return render(article, article.getId());
+        });
+        onServed.accept(response.publicationId());
+        return toEntity(response);
+    }
+
+    /** Ответ с ETag, но без сохранения (поиск — слишком много разных ключей). */
+    public ResponseEntity<byte[]> uncached(Object body) {
+        return toEntity(render(body, null));
+    }
+
+    /** Сбросить кэш: сейчас и, внутри транзакции, ещё раз после коммита. */
+    public void invalidate() {
+        invalidateNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow();
+                }
+            });
+        }
+    }
+
+    /** Сбрасывает кэш, если публикации правили на другом экземпляре. */
+    @Scheduled(fixedDelayString = "${publications.cache.check-interval-ms:5000}")
+    public void checkForExternalChanges() {
+        String fingerprint = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) || '/' || COALESCE(MAX(updated_at)::text, '') FROM publications", String.class);
+        String previous = tableFingerprint;
+        tableFingerprint = fingerprint;
+        if (previous != null && !Objects.equals(previous, fingerprint)) {
+            log.debug("Публикации изменены, кэш ответов сброшен");
+            invalidateNow();
+        }
+    }
+
+    // ─── Internals ───
+
+    private void invalidateNow() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private CachedResponse lookup(String key, Supplier<CachedResponse> loader) {
+        long generationBefore = generation.get();
+        CachedResponse response = cache.get(key, k -> loader.get());
+        if (generation.get() != generationBefore) {
+            // Пока собирали, публикации поменялись — ответ мог успеть устареть
+            cache.asMap().remove(key, response);
+        }
+        return response;
+    }
+
+    private CachedResponse render(Object body, Long publicationId) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new CachedResponse(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"", publicationId);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать ответ", e);
+        }
+    }
+
+    private ResponseEntity<byte[]> toEntity(CachedResponse response) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(cacheControl)
+                .eTag(response.etag())
+                .body(response.json());
+    }
+
+    private record CachedResponse(byte[] json, String etag, Long publicationId) {}
+}
@@ -3,8 +3,8 @@ package kg.eco.operator.service.impl;
 import kg.eco.operator.dto.request.CreatePublicationRequest;
 import kg.eco.operator.dto.response.PublicationListItemResponse;
 import kg.eco.operator.dto.response.PublicationResponse;
+import kg.eco.operator.dto.response.PublicationSearchHitResponse;
 import kg.eco.operator.entity.Publication;
-import kg.eco.operator.entity.User;
 import kg.eco.operator.entity.enums.PublicationAuthorOrg;
 import kg.eco.operator.entity.enums.PublicationCategory;
 import kg.eco.operator.entity.enums.RoleEnum;
@@ -12,23 +12,33 @@ import kg.eco.operator.exception.BusinessLogicException;
 import kg.eco.operator.exception.ResourceNotFoundException;
 import kg.eco.operator.exception.UnauthorizedException;
 import kg.eco.operator.repository.PublicationRepository;
-import kg.eco.operator.repository.UserRepository;
+import kg.eco.operator.repository.PublicationRepositoryCustom.SearchHit;
+import kg.eco.operator.security.CurrentUser;
 import kg.eco.operator.service.FileStorageService;
 import kg.eco.operator.service.PublicationService;
+import kg.eco.operator.service.storage.ImageVariant;
+import kg.eco.operator.service.storage.ImageVariantService;
+import kg.eco.operator.service.upload.DirectUploadService;
+import kg.eco.operator.service.upload.UploadPurpose;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.text.Normalizer;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -37,10 +47,16 @@ import java.util.regex.Pattern;
 public class PublicationServiceImpl implements PublicationService {
 
     private final PublicationRepository publicationRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
     private final FileStorageService fileStorageService;
+    private final DirectUploadService directUploadService;
+    private final ImageVariantService imageVariantService;
+    private final PublicationResponseCache responseCache;
 
     private static final Pattern NON_SLUG = Pattern.compile("[^a-z0-9-]+");
+    private static final String COVERS_PATH = "/public/publications/covers/";
+    /** Длиннее поисковый запрос не бывает — обрезаем, чтобы не разбирать мегабайты. */
+    private static final int MAX_QUERY_LENGTH = 200;
 
     // ─── Public read ────────────────────────────────────────────
 
@@ -48,13 +64,41 @@ public class PublicationServiceImpl implements PublicationService {
     @Transactional(readOnly = true)
     public Page<PublicationListItemResponse> listPublic(
             PublicationCategory category, String search, String lang, int page, int size) {
+        if (StringUtils.hasText(search)) {
+            return searchPublic(search, category, lang, page, size).map(PublicationSearchHitResponse::getPublication);
+        }
         Page<Publication> p = publicationRepository.findPublic(
-                category, search,
+                category,
                 PageRequest.of(page, Math.min(size, 50),
                         Sort.by(Sort.Direction.DESC, "publishedAt")));
         return p.map(pub -> toListItem(pub, lang));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PublicationSearchHitResponse> searchPublic(
+            String query, PublicationCategory category, String lang, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, Math.min(size, 50));
+        if (!StringUtils.hasText(query)) {
+            return Page.empty(pageable);
+        }
+        String q = query.strip();
+        if (q.length() > MAX_QUERY_LENGTH) q = q.substring(0, MAX_QUERY_LENGTH);
+
+        Page<SearchHit> hits = publicationRepository.search(q, lang, category, pageable);
+        // Сущности страницы одним запросом; порядок — по рангу из поиска
+        Map<Long, Publication> byId = publicationRepository
+                .findAllById(hits.map(SearchHit::id).getContent()).stream()
+                .collect(Collectors.toMap(Publication::getId, Function.identity()));
+        // Удалённые между двумя запросами пропускаем
+        List<PublicationSearchHitResponse> content = hits.stream()
+                .filter(hit -> byId.containsKey(hit.id()))
+                .map(hit -> new PublicationSearchHitResponse(
+                        toListItem(byId.get(hit.id()), lang), hit.snippet(), hit.rank()))
+                .toList();
+        return new PageImpl<>(content, pageable, hits.getTotalElements());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PublicationListItemResponse getLatest(String lang) {
@@ -64,13 +108,11 @@ public class PublicationServiceImpl implements PublicationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PublicationResponse getBySlug(String slug, String lang) {
+        // Просмотр учитывает контроллер через PublicationViewCounter — здесь только чтение
         Publication pub = publicationRepository.findBySlugAndIsPublishedTrue(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Публикация не найдена: " + slug));
-        // Throttled view counter — простое инкрементирование без debounce.
-        // Чистка от роботов / спама — задача более сложного pipeline'а.
-        pub.setViewCount(pub.getViewCount() + 1);
-        publicationRepository.save(pub);
         return toDetail(pub, lang);
     }
 
@@ -79,9 +121,9 @@ public class PublicationServiceImpl implements PublicationService {
     @Override
     @Transactional(readOnly = true)
     public Page<PublicationListItemResponse> listForAdmin(int page, int size) {
-        User me = currentUser();
+        RoleEnum role = currentUser.role();
         // ECO_OPERATOR и EMPLOYEE видят только свои; ADMIN — всё.
-        PublicationAuthorOrg filter = isAdmin(me) ? null : authorOrgForUser(me);
+        PublicationAuthorOrg filter = isAdmin(role) ? null : authorOrgForRole(role);
         Page<Publication> p = publicationRepository.findForAdmin(
                 filter,
                 PageRequest.of(page, Math.min(size, 50),
@@ -99,15 +141,14 @@ public class PublicationServiceImpl implements PublicationService {
 
     @Override
     public PublicationResponse create(CreatePublicationRequest request) {
-        User me = currentUser();
-        PublicationAuthorOrg authorOrg = authorOrgForUser(me);
-        ensureCanPublishCategory(me, request.getCategory());
+        PublicationAuthorOrg authorOrg = authorOrgForRole(currentUser.role());
+        ensureCanPublishCategory(currentUser.role(), request.getCategory());
 
         Publication pub = new Publication();
         applyRequest(pub, request);
         pub.setAuthorOrg(authorOrg);
-        pub.setCreatedById(me.getId());
-        pub.setLastEditedById(me.getId());
+        pub.setCreatedById(currentUser.id());
+        pub.setLastEditedById(currentUser.id());
         pub.setLastEditedAt(LocalDateTime.now());
         pub.setIsPublished(true);
         pub.setPublishedAt(LocalDateTime.now());
@@ -119,23 +160,24 @@ public class PublicationServiceImpl implements PublicationService {
         }
 
         publicationRepository.save(pub);
+        responseCache.invalidate();
         return toDetail(pub, "ru");
     }
 
     @Override
     public PublicationResponse update(Long id, CreatePublicationRequest request) {
         Publication pub = loadAndEnsureWriteAccess(id);
-        User me = currentUser();
-        ensureCanPublishCategory(me, request.getCategory());
+        ensureCanPublishCategory(currentUser.role(), request.getCategory());
 
         applyRequest(pub, request);
-        pub.setLastEditedById(me.getId());
+        pub.setLastEditedById(currentUser.id());
         pub.setLastEditedAt(LocalDateTime.now());
         // Если slug изменился — проверяем уникальность.
         if (request.getSlug() != null && !request.getSlug().equals(pub.getSlug())) {
             pub.setSlug(buildUniqueSlug(request.getSlug(), request.getTitleRu(), pub.getId()));
         }
         publicationRepository.save(pub);
+        responseCache.invalidate();
         return toDetail(pub, "ru");
     }
 
@@ -149,22 +191,43 @@ public class PublicationServiceImpl implements PublicationService {
         if (contentType == null || !contentType.startsWith("image/")) {
             throw new BusinessLogicException("Cover должен быть изображением (JPG/PNG/WebP)");
         }
-        String objectKey = fileStorageService.upload(file, "publications/" + id);
+        String objectKey = fileStorageService.upload(file);
+        return attachCover(pub, objectKey);
+    }
+
+    @Override
+    public PublicationResponse finalizeCoverUpload(Long id, UUID uploadId) {
+        Publication pub = loadAndEnsureWriteAccess(id);
+        // Тип image/* проверяется по метаданным объекта в DirectUploadService
+        String objectKey = directUploadService.complete(
+                uploadId, UploadPurpose.PUBLICATION_COVER, id, currentUser.id()).objectKey();
+        return attachCover(pub, objectKey);
+    }
+
+    @Override
+    public void checkCoverUpload(Long id) {
+        loadAndEnsureWriteAccess(id);
+    }
+
+    private PublicationResponse attachCover(Publication pub, String objectKey) {
+        fileStorageService.release(pub.getCoverUrl());
         pub.setCoverUrl(objectKey);
+        imageVariantService.generateAfterCommit(objectKey);
         pub.setLastEditedAt(LocalDateTime.now());
-        pub.setLastEditedById(currentUser().getId());
+        pub.setLastEditedById(currentUser.id());
         publicationRepository.save(pub);
+        responseCache.invalidate();
         return toDetail(pub, "ru");
     }
 
     @Override
     public PublicationResponse unpublish(Long id) {
         Publication pub = loadAndEnsureWriteAccess(id);
-        User me = currentUser();
         pub.setIsPublished(false);
         pub.setUnpublishedAt(LocalDateTime.now());
-        pub.setUnpublishedById(me.getId());
+        pub.setUnpublishedById(currentUser.id());
         publicationRepository.save(pub);
+        responseCache.invalidate();
         return toDetail(pub, "ru");
     }
 
@@ -179,18 +242,32 @@ public class PublicationServiceImpl implements PublicationService {
         pub.setUnpublishedById(null);
         if (pub.getPublishedAt() == null) pub.setPublishedAt(LocalDateTime.now());
         publicationRepository.save(pub);
+        responseCache.invalidate();
         return toDetail(pub, "ru");
     }
 
     @Override
     public void delete(Long id) {
-        User me = currentUser();
-        if (!isAdmin(me)) {
+        if (!isAdmin(currentUser.role())) {
             throw new UnauthorizedException("Удалять публикации может только администратор");
         }
         Publication pub = publicationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Публикация не найдена: " + id));
+        fileStorageService.release(pub.getCoverUrl());
         publicationRepository.delete(pub);
+        responseCache.invalidate();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String coverOriginalForVariant(String objectKey) {
+        if (!ImageVariant.isStorageKey(objectKey) || !publicationRepository.existsByCoverUrl(objectKey)) {
+            throw new ResourceNotFoundException("Изображение не найдено");
+        }
+        // Копий нет: обложка загружена до появления копий или очередь была полна.
+        // Оригиналы, из которых копии не сделать, generateAsync повторно не ставит
+        imageVariantService.generateAsync(objectKey);
+        return objectKey;
     }
 
     // ─── Mappers ────────────────────────────────────────────────
@@ -199,6 +276,9 @@ public class PublicationServiceImpl implements PublicationService {
         return new PublicationListItemResponse(
                 p.getId(), p.getSlug(), p.getCategory(), p.getAuthorOrg(),
                 p.getCoverUrl(),
+                coverVariantUrl(p, ImageVariant.THUMB),
+                coverVariantUrl(p, ImageVariant.CARD),
+                coverVariantUrl(p, ImageVariant.HERO),
                 pickLang(lang, p.getTitleRu(),   p.getTitleKy(),   p.getTitleEn()),
                 pickLang(lang, p.getExcerptRu(), p.getExcerptKy(), p.getExcerptEn()),
                 p.getReadMinutes(), p.getIsPublished(), p.getPublishedAt());
@@ -211,6 +291,7 @@ public class PublicationServiceImpl implements PublicationService {
         r.setCategory(p.getCategory());
         r.setAuthorOrg(p.getAuthorOrg());
         r.setCoverUrl(p.getCoverUrl());
+        r.setCoverHeroUrl(coverVariantUrl(p, ImageVariant.HERO));
         r.setTitle(pickLang(lang, p.getTitleRu(),   p.getTitleKy(),   p.getTitleEn()));
         r.setExcerpt(pickLang(lang, p.getExcerptRu(), p.getExcerptKy(), p.getExcerptEn()));
         r.setBody(pickLang(lang,    p.getBodyRu(),    p.getBodyKy(),    p.getBodyEn()));
@@ -225,6 +306,13 @@ public class PublicationServiceImpl implements PublicationService {
         return r;
     }
 
+    /** Путь копии обложки относительно API; для внешних URL копий нет. */
+    private String coverVariantUrl(Publication p, ImageVariant variant) {
+        return ImageVariant.isStorageKey(p.getCoverUrl())
+                ? COVERS_PATH + variant.path(p.getCoverUrl())
+                : null;
+    }
+
     private String pickLang(String lang, String ru, String ky, String en) {
         if ("ky".equalsIgnoreCase(lang) && notBlank(ky)) return ky;
         if ("en".equalsIgnoreCase(lang) && notBlank(en)) return en;
@@ -253,7 +341,14 @@ public class PublicationServiceImpl implements PublicationService {
             int words = countWords(r.getBodyRu());
             pub.setReadMinutes(Math.max(1, words / 250));
         }
-        if (r.getCoverUrl() != null && !r.getCoverUrl().isBlank()) {
+        if (r.getCoverUrl() != null && !r.getCoverUrl().isBlank()
+                && !r.getCoverUrl().equals(pub.getCoverUrl())) {
+            // Свой файл — только через загрузку: ключ из запроса не держит ссылку
+            // в stored_objects и мог бы указывать на чужой документ
+            if (!r.getCoverUrl().startsWith("https://") && !r.getCoverUrl().startsWith("http://")) {
+                throw new BusinessLogicException("Обложка: укажите внешний URL или загрузите файл");
+            }
+            fileStorageService.release(pub.getCoverUrl());
             pub.setCoverUrl(r.getCoverUrl());
         }
     }
@@ -321,29 +416,20 @@ public class PublicationServiceImpl implements PublicationService {
 
     // ─── Auth helpers ───────────────────────────────────────────
 
-    private User currentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
-            throw new UnauthorizedException("Требуется авторизация");
-        }
-        return userRepository.findByInn(auth.getName())
-                .orElseThrow(() -> new UnauthorizedException("Пользователь не найден: " + auth.getName()));
-    }
-
-    private boolean isAdmin(User u) {
-        return u.getRole() == RoleEnum.ADMIN;
+    private boolean isAdmin(RoleEnum role) {
+        return role == RoleEnum.ADMIN;
     }
 
     /**
      * Маппинг роли пользователя на организацию-автора публикации.
      */
-    private PublicationAuthorOrg authorOrgForUser(User u) {
-        return switch (u.getRole()) {
+    private PublicationAuthorOrg authorOrgForRole(RoleEnum role) {
+        return switch (role) {
             case EMPLOYEE -> PublicationAuthorOrg.MPRETN;
             case ECO_OPERATOR -> PublicationAuthorOrg.ECO_OPERATOR;
             case ADMIN -> PublicationAuthorOrg.ADMIN_GENERIC;
             default -> throw new UnauthorizedException(
-                    "Роль " + u.getRole() + " не имеет права публиковать");
+                    "Роль " + role + " не имеет права публиковать");
         };
     }
 
@@ -351,9 +437,8 @@ public class PublicationServiceImpl implements PublicationService {
      * Проверка совместимости роли и категории. Конкурсы — только Эко-Оператор
      * и Админ. Для NEWS / REPORT_ANALYTICS / PRESS — все 3 роли.
      */
-    private void ensureCanPublishCategory(User u, PublicationCategory cat) {
+    private void ensureCanPublishCategory(RoleEnum role, PublicationCategory cat) {
         if (cat == PublicationCategory.CONTEST) {
-            RoleEnum role = u.getRole();
             if (role != RoleEnum.ECO_OPERATOR && role != RoleEnum.ADMIN) {
                 throw new UnauthorizedException(
                         "Категорию «Конкурсы» может публиковать только ГП «Эко Оператор»");
@@ -364,10 +449,10 @@ public class PublicationServiceImpl implements PublicationService {
     private Publication loadAndEnsureWriteAccess(Long id) {
         Publication pub = publicationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Публикация не найдена: " + id));
-        User me = currentUser();
-        if (isAdmin(me)) return pub;
+        RoleEnum role = currentUser.role();
+        if (isAdmin(role)) return pub;
         // Не-админ может редактировать только свои публикации (по author_org)
-        PublicationAuthorOrg myOrg = authorOrgForUser(me);
+        PublicationAuthorOrg myOrg = authorOrgForRole(role);
         if (pub.getAuthorOrg() != myOrg) {
             throw new UnauthorizedException(
                     "Вы можете редактировать только публикации своей организации");
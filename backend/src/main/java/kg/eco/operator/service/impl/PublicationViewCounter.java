@@ -0,0 +1,98 @@
+package kg.eco.operator.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Счётчик просмотров публикаций без записи в БД на каждый просмотр.
+ *
+ * Просмотры копятся в памяти ({@link LongAdder} на публикацию — без
+ * блокировок даже на самой популярной статье) и раз в
+ * {@code publications.views.flush-interval-ms} записываются одним
+ * UPDATE по всем публикациям сразу. Каждый экземпляр backend сбрасывает
+ * свои счётчики сам: прибавление дельты коммутативно, координация не нужна.
+ * При остановке приложения несброшенное записывается в {@link #shutdown}.
+ *
+ * Ключи карты — id существующих публикаций (просмотр учитывается только
+ * после успешной загрузки статьи), поэтому записи не удаляются: карта не
+ * больше числа публикаций.
+ */
+@Slf4j
+@Component
+public class PublicationViewCounter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean ignoreBots;
+    private final Pattern botUserAgent;
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public PublicationViewCounter(JdbcTemplate jdbcTemplate,
+                                  @Value("${publications.views.ignore-bots:true}") boolean ignoreBots,
+                                  @Value("${publications.views.bot-pattern:(?i)bot|crawl|spider|slurp|preview|headless|curl|wget|python-requests}")
+                                  String botPattern) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ignoreBots = ignoreBots;
+        this.botUserAgent = Pattern.compile(botPattern);
+    }
+
+    /** Учитывает просмотр; роботы и запросы без User-Agent не считаются. */
+    public void record(Long publicationId, String userAgent) {
+        if (publicationId == null) return;
+        if (ignoreBots && (userAgent == null || userAgent.isBlank() || botUserAgent.matcher(userAgent).find())) {
+            return;
+        }
+        pending.computeIfAbsent(publicationId, id -> new LongAdder()).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${publications.views.flush-interval-ms:10000}")
+    public void flush() {
+        List<Long> ids = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        pending.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                ids.add(id);
+                deltas.add(delta);
+            }
+        });
+        if (ids.isEmpty()) return;
+
+        try {
+            jdbcTemplate.update("""
+                    UPDATE publications p
+                       SET view_count = p.view_count + d.delta
+                      FROM unnest(?, ?) AS d(id, delta)
+                     WHERE p.id = d.id
+                    """, ps -> {
+                Array idArray = ps.getConnection().createArrayOf("bigint", ids.toArray());
+                Array deltaArray = ps.getConnection().createArrayOf("bigint", deltas.toArray());
+                ps.setArray(1, idArray);
+                ps.setArray(2, deltaArray);
+            });
+            log.debug("Записаны просмотры {} публикаций", ids.size());
+        } catch (Exception e) {
+            // Вернём дельты — запишутся следующим сбросом
+            for (int i = 0; i < ids.size(); i++) {
+                pending.computeIfAbsent(ids.get(i), id -> new LongAdder()).add(deltas.get(i));
+            }
+            log.warn("Не удалось записать просмотры публикаций: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
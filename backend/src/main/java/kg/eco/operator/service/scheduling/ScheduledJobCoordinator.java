@@ -0,0 +1,145 @@
+package kg.eco.operator.service.scheduling;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запуск плановых заданий на одном узле кластера через таблицу аренды
+ * scheduled_job_leases.
+ *
+ * Аренда берётся одним атомарным {@code INSERT ... ON CONFLICT DO UPDATE ... WHERE
+ * locked_until < NOW()}: из нескольких узлов, сработавших по одному cron,
+ * задание получит ровно один. Пока задание идёт, аренда продлевается
+ * каждые lease/3; при падении узла продления прекращаются, аренда истекает
+ * через {@code scheduling.lease-duration}, и следующий запуск возьмёт
+ * другой узел.
+ *
+ * После завершения аренда держится ещё до {@code last_started_at +
+ * scheduling.min-hold}: узел, у которого тот же cron сработал с опозданием
+ * (пауза GC, расхождение часов), не возьмёт освободившуюся аренду и не
+ * выполнит задание второй раз. Время считается по часам БД.
+ *
+ * В отличие от pg_try_advisory_lock, аренда не держит соединение из пула
+ * на всё время задания и переживает переподключения к БД.
+ */
+@Slf4j
+@Component
+public class ScheduledJobCoordinator {
+
+    private static final String ACQUIRE_SQL = """
+            INSERT INTO scheduled_job_leases (job_name, locked_by, locked_until, heartbeat_at, last_started_at)
+            VALUES (?, ?, NOW() + make_interval(secs => ?), NOW(), NOW())
+            ON CONFLICT (job_name) DO UPDATE SET
+                locked_by       = EXCLUDED.locked_by,
+                locked_until    = EXCLUDED.locked_until,
+                heartbeat_at    = EXCLUDED.heartbeat_at,
+                last_started_at = EXCLUDED.last_started_at
+            WHERE scheduled_job_leases.locked_until < NOW()
+            """;
+
+    private static final String HEARTBEAT_SQL = """
+            UPDATE scheduled_job_leases
+            SET locked_until = NOW() + make_interval(secs => ?), heartbeat_at = NOW()
+            WHERE job_name = ? AND locked_by = ?
+            """;
+
+    private static final String RELEASE_SQL = """
+            UPDATE scheduled_job_leases
+            SET locked_until = GREATEST(NOW(), last_started_at + make_interval(secs => ?)),
+                last_finished_at = NOW(),
+                last_duration_ms = ?, last_status = ?, last_error = ?
+            WHERE job_name = ? AND locked_by = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration leaseDuration;
+    private final Duration minHold;
+    private final String nodeId;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "job-lease-heartbeat");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ScheduledJobCoordinator(JdbcTemplate jdbcTemplate,
+                                   @Value("${scheduling.lease-duration:PT2M}") Duration leaseDuration,
+                                   @Value("${scheduling.min-hold:PT1M}") Duration minHold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseDuration = leaseDuration;
+        this.minHold = minHold;
+        // "pid@hostname" — уникально для процесса даже при нескольких экземплярах на одном хосте
+        this.nodeId = ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    /**
+     * Выполняет задание, если аренда досталась этому узлу.
+     *
+     * @return true — задание выполнено здесь; false — его уже выполняет другой узел
+     */
+    public boolean runExclusively(String jobName, Runnable job) {
+        double leaseSeconds = leaseDuration.toMillis() / 1000.0;
+        if (jdbcTemplate.update(ACQUIRE_SQL, jobName, nodeId, leaseSeconds) == 0) {
+            log.info("Задание {} уже выполняется на другом узле, пропускаем", jobName);
+            return false;
+        }
+
+        long period = Math.max(1000, leaseDuration.toMillis() / 3);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(
+                () -> extend(jobName, leaseSeconds), period, period, TimeUnit.MILLISECONDS);
+
+        long started = System.currentTimeMillis();
+        String status = "SUCCESS";
+        String error = null;
+        try {
+            job.run();
+            return true;
+        } catch (RuntimeException e) {
+            status = "FAILURE";
+            error = e.getMessage();
+            throw e;
+        } finally {
+            heartbeat.cancel(false);
+            jdbcTemplate.update(RELEASE_SQL, minHold.toMillis() / 1000.0,
+                    System.currentTimeMillis() - started, status, error, jobName, nodeId);
+        }
+    }
+
+    /** Состояние и последний прогон каждого задания. */
+    public List<Map<String, Object>> getJobs() {
+        return jdbcTemplate.queryForList("""
+                SELECT job_name, locked_by,
+                       locked_until > NOW() AND (last_finished_at IS NULL OR last_finished_at < last_started_at) AS running,
+                       heartbeat_at,
+                       last_started_at, last_finished_at, last_duration_ms, last_status, last_error
+                FROM scheduled_job_leases
+                ORDER BY job_name
+                """);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    private void extend(String jobName, double leaseSeconds) {
+        try {
+            if (jdbcTemplate.update(HEARTBEAT_SQL, leaseSeconds, jobName, nodeId) == 0) {
+                log.warn("Аренда задания {} потеряна узлом {}", jobName, nodeId);
+            }
+        } catch (Exception e) {
+            log.warn("Не удалось продлить аренду задания {}: {}", jobName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package kg.eco.operator.service.storage;
+
+import io.minio.StatObjectResponse;
+import kg.eco.operator.exception.ResourceNotFoundException;
+import kg.eco.operator.service.FileStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Отдача файлов из MinIO с поддержкой HTTP-кэширования и докачки.
+ *
+ * Объект под конкретным ключом никогда не меняется (новый файл — новый
+ * ключ, см. {@link FileStorageService#upload}), поэтому ETag выводится из
+ * ключа: совпавший If-None-Match отвечается 304 без обращения к MinIO.
+ * Иначе метаданные берутся через statObject — размер для Content-Length и
+ * Content-Range, дата для Last-Modified / If-Modified-Since. Range с одним
+ * диапазоном читает из MinIO только запрошенные байты; несколько диапазонов
+ * и несовпавший If-Range отдаются целым файлом (RFC 9110 это допускает).
+ *
+ * Сам URL скачивания (по номеру лицензии, id конкурса) может со временем
+ * указывать на другой файл, поэтому публичные ответы кэшируются на
+ * {@code download.public-max-age}, а не навсегда; закрытые — только с
+ * ревалидацией.
+ */
+@Slf4j
+@Service
+public class DocumentDownloadService {
+
+    /** Для URL, в которых есть ключ объекта: ответ по такому URL не меняется никогда. */
+    private static final CacheControl IMMUTABLE_CACHE =
+            CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final FileStorageService fileStorageService;
+    private final CacheControl publicCache;
+
+    public DocumentDownloadService(FileStorageService fileStorageService,
+                                   @Value("${download.public-max-age:1h}") Duration publicMaxAge) {
+        this.fileStorageService = fileStorageService;
+        this.publicCache = CacheControl.maxAge(publicMaxAge).cachePublic();
+    }
+
+    /**
+     * Файл публичного эндпоинта — кэшируется браузером и прокси.
+     *
+     * @param contentType {@code null} — тип из метаданных объекта
+     */
+    public ResponseEntity<StreamingResponseBody> servePublic(String objectKey, MediaType contentType,
+                                                             String contentDisposition, HttpHeaders request) {
+        return serve(objectKey, contentType, contentDisposition, publicCache, request)
+                .orElseThrow(() -> new ResourceNotFoundException("Файл не найден в хранилище"));
+    }
+
+    /** Файл, доступный по авторизации, — только в кэше браузера и с ревалидацией. */
+    public ResponseEntity<StreamingResponseBody> servePrivate(String objectKey, MediaType contentType,
+                                                              String contentDisposition, HttpHeaders request) {
+        return serve(objectKey, contentType, contentDisposition, CacheControl.noCache().cachePrivate(), request)
+                .orElseThrow(() -> new ResourceNotFoundException("Файл не найден в хранилище"));
+    }
+
+    /**
+     * Публичный файл, URL которого однозначно задаёт содержимое (в пути есть
+     * ключ объекта), — кэшируется на год без ревалидации.
+     *
+     * @return пусто, если объекта нет, — вызывающий решает, чем его заменить
+     */
+    public Optional<ResponseEntity<StreamingResponseBody>> serveImmutable(String objectKey, MediaType contentType,
+                                                                          String contentDisposition,
+                                                                          HttpHeaders request) {
+        return serve(objectKey, contentType, contentDisposition, IMMUTABLE_CACHE, request);
+    }
+
+    // ─── Internals ───
+
+    private Optional<ResponseEntity<StreamingResponseBody>> serve(String objectKey, MediaType contentType,
+                                                                  String contentDisposition, CacheControl cacheControl,
+                                                                  HttpHeaders request) {
+        String etag = etagOf(objectKey);
+        if (matchesAny(request.getIfNoneMatch(), etag)) {
+            return Optional.of(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build());
+        }
+
+        Optional<StatObjectResponse> found = fileStorageService.stat(objectKey);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        StatObjectResponse stat = found.get();
+        long size = stat.size();
+        // HTTP-даты с точностью до секунды
+        long lastModified = stat.lastModified().toEpochSecond() * 1000;
+
+        if (request.getIfNoneMatch().isEmpty() && request.getIfModifiedSince() >= lastModified) {
+            return Optional.of(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .cacheControl(cacheControl)
+                    .build());
+        }
+
+        HttpRange range = singleRange(request, etag, lastModified);
+        long length = size;
+        ResponseEntity.BodyBuilder response;
+        InputStream stream;
+        if (range != null && size > 0) {
+            long offset = range.getRangeStart(size);
+            if (offset >= size) {
+                return Optional.of(ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build());
+            }
+            length = range.getRangeEnd(size) - offset + 1;
+            response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE,
+                            "bytes " + offset + "-" + (offset + length - 1) + "/" + size);
+            stream = fileStorageService.download(objectKey, offset, length);
+        } else {
+            response = ResponseEntity.ok();
+            stream = fileStorageService.download(objectKey);
+        }
+
+        StreamingResponseBody body = out -> {
+            try (stream) {
+                stream.transferTo(out);
+            }
+        };
+        return Optional.of(response
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
+                .contentType(contentType != null ? contentType : mediaTypeOf(stat))
+                .contentLength(length)
+                .body(body));
+    }
+
+    /**
+     * Единственный диапазон из Range, если его можно отдать частично.
+     * Некорректный заголовок, несколько диапазонов или устаревший If-Range —
+     * {@code null}, то есть весь файл.
+     */
+    private HttpRange singleRange(HttpHeaders request, String etag, long lastModified) {
+        List<HttpRange> ranges;
+        try {
+            ranges = request.getRange();
+        } catch (IllegalArgumentException e) {
+            log.debug("Некорректный Range: {}", e.getMessage());
+            return null;
+        }
+        if (ranges.size() != 1) {
+            return null;
+        }
+        String ifRange = request.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRangeMatches(request, ifRange, etag, lastModified)) {
+            return null;
+        }
+        return ranges.get(0);
+    }
+
+    /** If-Range содержит либо ETag (сравнение строгое), либо дату Last-Modified. */
+    private static boolean ifRangeMatches(HttpHeaders request, String ifRange, String etag, long lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getFirstDate(HttpHeaders.IF_RANGE) == lastModified;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static MediaType mediaTypeOf(StatObjectResponse stat) {
+        try {
+            return stat.contentType() != null
+                    ? MediaType.parseMediaType(stat.contentType())
+                    : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    /** Ключ неизменяем, поэтому ETag — производная ключа: хеш содержимого или md5 от ключа. */
+    private static String etagOf(String objectKey) {
+        String tag = objectKey.startsWith(FileStorageService.CONTENT_PREFIX)
+                ? objectKey.substring(FileStorageService.CONTENT_PREFIX.length())
+                : DigestUtils.md5DigestAsHex(objectKey.getBytes(StandardCharsets.UTF_8));
+        return "\"" + tag + "\"";
+    }
+
+    private static boolean matchesAny(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            // Для If-None-Match сравнение слабое: W/"x" совпадает с "x"
+            String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+package kg.eco.operator.service.storage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Уменьшенные копии изображения (обложки публикаций) для разных мест вывода.
+ *
+ * Копия лежит в MinIO под ключом {@code variants/<ключ оригинала>/<name>.jpg}:
+ * ключ оригинала неизменяем, поэтому копия вычисляется из него однозначно и
+ * никогда не устаревает. Отдельных ссылок в stored_objects у копий нет —
+ * их удаляет сборщик мусора вместе с оригиналом ({@link #derivedKeys}).
+ */
+public enum ImageVariant {
+
+    THUMB("thumb", 320),
+    CARD("card", 720),
+    HERO("hero", 1600);
+
+    public static final String PREFIX = "variants/";
+    private static final String EXTENSION = ".jpg";
+
+    private final String variantName;
+    private final int width;
+
+    ImageVariant(String variantName, int width) {
+        this.variantName = variantName;
+        this.width = width;
+    }
+
+    public String variantName() {
+        return variantName;
+    }
+
+    /** Максимальная ширина копии; более узкие оригиналы не увеличиваются. */
+    public int width() {
+        return width;
+    }
+
+    public String objectKey(String originalKey) {
+        return PREFIX + path(originalKey);
+    }
+
+    /** Ключ копии без {@link #PREFIX} — так он выглядит в публичном URL. */
+    public String path(String originalKey) {
+        return originalKey + "/" + variantName + EXTENSION;
+    }
+
+    /** Ключи всех копий оригинала — для удаления вместе с ним. */
+    public static List<String> derivedKeys(String originalKey) {
+        return Arrays.stream(values()).map(v -> v.objectKey(originalKey)).toList();
+    }
+
+    /**
+     * Разбирает путь копии относительно {@link #PREFIX}:
+     * {@code sha256/ab12.../card.jpg} → (CARD, sha256/ab12...).
+     */
+    public static Optional<Ref> parse(String path) {
+        int slash = path.lastIndexOf('/');
+        if (slash <= 0 || !path.endsWith(EXTENSION)) {
+            return Optional.empty();
+        }
+        String name = path.substring(slash + 1, path.length() - EXTENSION.length());
+        String originalKey = path.substring(0, slash);
+        return Arrays.stream(values())
+                .filter(v -> v.variantName.equals(name))
+                .findFirst()
+                .map(v -> new Ref(v, originalKey));
+    }
+
+    /**
+     * Значение cover_url — ключ объекта в MinIO, а не внешний URL
+     * (seed-публикации ссылаются на картинки со стороннего хостинга).
+     */
+    public static boolean isStorageKey(String value) {
+        return value != null && !value.isBlank() && !value.contains("://") && !value.startsWith("/")
+                && !value.startsWith(PREFIX);
+    }
+
+    public record Ref(ImageVariant variant, String originalKey) {}
+}
@@ -0,0 +1,231 @@
+package kg.eco.operator.service.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import kg.eco.operator.service.FileStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Генерация уменьшенных копий обложек ({@link ImageVariant}) средствами
+ * javax.imageio.
+ *
+ * Работает в отдельном пуле с ограниченной очередью: загрузка обложки не
+ * ждёт ресайза, а поток загрузок не может занять все потоки сервера или
+ * память. Если очередь полна, задача отбрасывается — копии будут созданы
+ * при первом запросе отсутствующей копии ({@link #generateAsync}).
+ *
+ * Оригиналы, из которых копии не сделать (WebP, SVG, больше MAX_PIXELS),
+ * запоминаются: ключ объекта неизменяем, и без этого каждый запрос
+ * отсутствующей копии снова скачивал бы весь оригинал в пул ресайза.
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    /** Больше — не декодируем: 50 Мп в ARGB это 200 МБ кучи. */
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    private final FileStorageService fileStorageService;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    /** Оригиналы без копий; ограничен по размеру — вытесненный ключ просто проверится ещё раз. */
+    private final Cache<String, Boolean> unconvertible;
+    private final float jpegQuality;
+
+    public ImageVariantService(FileStorageService fileStorageService,
+                               @Value("${images.variants.workers:2}") int workers,
+                               @Value("${images.variants.queue-capacity:100}") int queueCapacity,
+                               @Value("${images.variants.jpeg-quality:0.82}") float jpegQuality,
+                               @Value("${images.variants.unconvertible-max-size:10000}") long unconvertibleMaxSize) {
+        this.fileStorageService = fileStorageService;
+        this.jpegQuality = jpegQuality;
+        this.unconvertible = Caffeine.newBuilder()
+                .maximumSize(unconvertibleMaxSize)
+                .build();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "image-variants-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Ставит генерацию в очередь после коммита текущей транзакции (обложка
+     * может не сохраниться — тогда и копии не нужны), без транзакции — сразу.
+     */
+    public void generateAfterCommit(String originalKey) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generateAsync(originalKey);
+                }
+            });
+        } else {
+            generateAsync(originalKey);
+        }
+    }
+
+    /**
+     * Ставит генерацию в очередь; повторная постановка того же оригинала и
+     * оригиналы, из которых копии уже не удалось сделать, игнорируются.
+     */
+    public void generateAsync(String originalKey) {
+        if (!ImageVariant.isStorageKey(originalKey)
+                || unconvertible.getIfPresent(originalKey) != null
+                || !inFlight.add(originalKey)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(originalKey);
+                } catch (Exception e) {
+                    log.warn("Не удалось создать копии изображения {}: {}", originalKey, e.getMessage());
+                } finally {
+                    inFlight.remove(originalKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(originalKey);
+            log.warn("Очередь ресайза изображений заполнена, {} обработается при первом запросе", originalKey);
+        }
+    }
+
+    // ─── Internals ───
+
+    private void generate(String originalKey) throws IOException {
+        long started = System.nanoTime();
+        BufferedImage source = read(originalKey);
+        if (source == null) {
+            unconvertible.put(originalKey, Boolean.TRUE);
+            return;
+        }
+        int sourceWidth = source.getWidth();
+        // От большей копии к меньшей: каждая масштабируется из предыдущей
+        BufferedImage current = source;
+        for (ImageVariant variant : new ImageVariant[]{ImageVariant.HERO, ImageVariant.CARD, ImageVariant.THUMB}) {
+            current = scale(current, Math.min(variant.width(), sourceWidth));
+            fileStorageService.put(variant.objectKey(originalKey), toJpeg(current), "image/jpeg");
+        }
+        log.info("Созданы копии изображения {} за {} мс", originalKey,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Декодирует оригинал. Очень большие картинки читаются с прореживанием —
+     * сразу примерно вдвое крупнее самой большой копии, без полного растра.
+     *
+     * @return {@code null}, если это не изображение или оно слишком велико
+     */
+    private BufferedImage read(String originalKey) throws IOException {
+        try (InputStream in = fileStorageService.download(originalKey);
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                log.info("Формат изображения {} не поддерживается, копии не создаются", originalKey);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    log.warn("Изображение {} слишком большое ({}x{}), копии не создаются", originalKey, width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, width / (ImageVariant.HERO.width() * 2));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Масштабирует до ширины {@code targetWidth} с сохранением пропорций.
+     * Сильное уменьшение делается несколькими шагами вдвое — билинейная
+     * интерполяция за один шаг даёт «лесенку». Прозрачность заливается белым:
+     * в JPEG альфа-канала нет.
+     */
+    private static BufferedImage scale(BufferedImage source, int targetWidth) {
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] toJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
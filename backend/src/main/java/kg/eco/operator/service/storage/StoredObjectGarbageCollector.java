@@ -0,0 +1,132 @@
+package kg.eco.operator.service.storage;
+
+import kg.eco.operator.repository.StoredObjectRepository;
+import kg.eco.operator.service.FileStorageService;
+import kg.eco.operator.service.scheduling.ScheduledJobCoordinator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Сборщик мусора для объектов MinIO, на которые не осталось ссылок
+ * (stored_objects.ref_count = 0, см. {@link FileStorageService#release}).
+ *
+ * Работает пачками: блокирует до {@code BATCH} строк, удаляет объекты одним
+ * multi-delete запросом и убирает строки в той же транзакции. Объект
+ * удаляется не раньше, чем через grace-period после освобождения, — за это
+ * время его может снова подхватить загрузка того же содержимого.
+ * Уменьшенные копии ({@link ImageVariant}) удаляются тем же запросом.
+ *
+ * Раз в сутки ({@code orphan-sweep-cron}) бакет просматривается на объекты
+ * {@code sha256/} без строки в stored_objects (загрузка прошла, а транзакция
+ * со ссылкой откатилась или процесс упал до commit): они заводятся как
+ * строки без ссылок и удаляются обычным порядком.
+ */
+@Slf4j
+@Service
+public class StoredObjectGarbageCollector {
+
+    private static final int BATCH = 500;
+    private static final int ADOPT_BATCH = 1000;
+
+    private final StoredObjectRepository storedObjectRepository;
+    private final FileStorageService fileStorageService;
+    private final ScheduledJobCoordinator jobCoordinator;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration gracePeriod;
+
+    public StoredObjectGarbageCollector(StoredObjectRepository storedObjectRepository,
+                                        FileStorageService fileStorageService,
+                                        ScheduledJobCoordinator jobCoordinator,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${storage.gc.grace-period:1h}") Duration gracePeriod) {
+        this.storedObjectRepository = storedObjectRepository;
+        this.fileStorageService = fileStorageService;
+        this.jobCoordinator = jobCoordinator;
+        this.transactionTemplate = transactionTemplate;
+        this.gracePeriod = gracePeriod;
+    }
+
+    /**
+     * По cron, а не fixedDelay: на всех узлах задание срабатывает в одну и ту
+     * же минуту, и аренда с min-hold пропускает только один запуск.
+     */
+    @Scheduled(cron = "${storage.gc.cron:0 15 * * * *}")
+    public void scheduledCollect() {
+        jobCoordinator.runExclusively("storage-gc", this::collect);
+    }
+
+    @Scheduled(cron = "${storage.gc.orphan-sweep-cron:0 30 4 * * *}")
+    public void scheduledOrphanSweep() {
+        jobCoordinator.runExclusively("storage-orphan-sweep", this::adoptOrphans);
+    }
+
+    /**
+     * Заводит строки без ссылок для объектов sha256/ старше grace-period,
+     * которых нет в stored_objects.
+     */
+    public int adoptOrphans() {
+        List<String> keys = fileStorageService.listKeys(FileStorageService.CONTENT_PREFIX,
+                ZonedDateTime.now().minus(gracePeriod));
+        int adopted = 0;
+        for (int from = 0; from < keys.size(); from += ADOPT_BATCH) {
+            adopted += storedObjectRepository.adoptOrphans(
+                    keys.subList(from, Math.min(keys.size(), from + ADOPT_BATCH)));
+        }
+        if (adopted > 0) {
+            log.warn("Найдено файлов без учёта в stored_objects: {} — будут удалены сборщиком", adopted);
+        }
+        return adopted;
+    }
+
+    /** Удаляет все объекты без ссылок, освобождённые раньше grace-period. */
+    public int collect() {
+        LocalDateTime releasedBefore = LocalDateTime.now().minus(gracePeriod);
+        int removed = 0;
+        int batch;
+        do {
+            Integer count = transactionTemplate.execute(status -> collectBatch(releasedBefore));
+            batch = count != null ? count : 0;
+            removed += batch;
+        } while (batch == BATCH);
+        if (removed > 0) {
+            log.info("Удалено файлов без ссылок: {}", removed);
+        }
+        return removed;
+    }
+
+    // ─── Internals ───
+
+    /**
+     * @return сколько объектов удалено; неполная пачка (в том числе из-за
+     *         ошибок MinIO) завершает текущий запуск
+     */
+    private int collectBatch(LocalDateTime releasedBefore) {
+        List<String> keys = storedObjectRepository.lockGarbage(releasedBefore, BATCH);
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<String> objects = new ArrayList<>(keys.size() * (ImageVariant.values().length + 1));
+        for (String key : keys) {
+            objects.add(key);
+            // Копий у большинства объектов нет — отсутствующие ключи MinIO пропускает
+            objects.addAll(ImageVariant.derivedKeys(key));
+        }
+        Set<String> deleted = fileStorageService.deleteAll(objects);
+        // Не удалённые из MinIO строки остаются и попадут в следующий запуск
+        List<String> collected = keys.stream().filter(deleted::contains).toList();
+        if (!collected.isEmpty()) {
+            storedObjectRepository.deleteAll(collected);
+        }
+        return collected.size();
+    }
+}
@@ -0,0 +1,166 @@
+package kg.eco.operator.service.template;
+
+import kg.eco.operator.exception.BusinessLogicException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Шаблон, разобранный один раз в плоский список токенов.
+ *
+ * Синтаксис:
+ * <ul>
+ *   <li>{@code {calculationNumber}} — подстановка значения переменной
+ *       (см. {@link TemplateVar});</li>
+ *   <li>{@code {#comment} Причина: {comment}{/comment}} — условный блок,
+ *       выводится только если переменная не пустая.</li>
+ * </ul>
+ * Экземпляр неизменяемый и потокобезопасный.
+ */
+public final class CompiledTemplate {
+
+    private static final byte LITERAL = 0;
+    private static final byte VAR = 1;
+    private static final byte SECTION = 2;
+    private static final byte SECTION_END = 3;
+
+    private final String source;
+    private final byte[] kinds;
+    /** LITERAL — индекс в {@link #literals}; VAR/SECTION — ordinal переменной. */
+    private final int[] args;
+    /** SECTION — индекс токена сразу за парным SECTION_END. */
+    private final int[] jumps;
+    private final String[] literals;
+    private final int literalLength;
+
+    private CompiledTemplate(String source, byte[] kinds, int[] args, int[] jumps,
+                             String[] literals, int literalLength) {
+        this.source = source;
+        this.kinds = kinds;
+        this.args = args;
+        this.jumps = jumps;
+        this.literals = literals;
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Компилирует текст шаблона.
+     *
+     * @throws BusinessLogicException если плейсхолдер неизвестен или блоки не сбалансированы
+     */
+    public static CompiledTemplate compile(String source) {
+        String text = source != null ? source : "";
+        List<Byte> kinds = new ArrayList<>();
+        List<Integer> args = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        Deque<Integer> openSections = new ArrayDeque<>();
+        int literalLength = 0;
+
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int close = c == '{' ? text.indexOf('}', i + 1) : -1;
+            if (close < 0) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            String tag = text.substring(i + 1, close);
+            byte kind = VAR;
+            String name = tag;
+            if (tag.startsWith("#")) {
+                kind = SECTION;
+                name = tag.substring(1);
+            } else if (tag.startsWith("/")) {
+                kind = SECTION_END;
+                name = tag.substring(1);
+            }
+            TemplateVar var = TemplateVar.byKey(name);
+            if (var == null) {
+                throw new BusinessLogicException("Неизвестная переменная в шаблоне: {" + tag + "}");
+            }
+
+            if (!literal.isEmpty()) {
+                kinds.add(LITERAL);
+                args.add(literals.size());
+                literals.add(literal.toString());
+                literalLength += literal.length();
+                literal.setLength(0);
+            }
+            if (kind == SECTION) {
+                openSections.push(kinds.size());
+            } else if (kind == SECTION_END) {
+                Integer open = openSections.poll();
+                if (open == null || args.get(open) != var.ordinal()) {
+                    throw new BusinessLogicException("Непарный блок в шаблоне: {" + tag + "}");
+                }
+            }
+            kinds.add(kind);
+            args.add(var.ordinal());
+            i = close + 1;
+        }
+        if (!literal.isEmpty()) {
+            kinds.add(LITERAL);
+            args.add(literals.size());
+            literals.add(literal.toString());
+            literalLength += literal.length();
+        }
+        if (!openSections.isEmpty()) {
+            throw new BusinessLogicException("Незакрытый блок в шаблоне");
+        }
+
+        int n = kinds.size();
+        byte[] kindArr = new byte[n];
+        int[] argArr = new int[n];
+        int[] jumpArr = new int[n];
+        Deque<Integer> stack = new ArrayDeque<>();
+        for (int t = 0; t < n; t++) {
+            kindArr[t] = kinds.get(t);
+            argArr[t] = args.get(t);
+            if (kindArr[t] == SECTION) {
+                stack.push(t);
+            } else if (kindArr[t] == SECTION_END) {
+                jumpArr[stack.pop()] = t + 1;
+            }
+        }
+        return new CompiledTemplate(text, kindArr, argArr, jumpArr,
+                literals.toArray(String[]::new), literalLength);
+    }
+
+    /**
+     * Рендерит шаблон.
+     *
+     * @param values значения, индексируемые {@link TemplateVar#ordinal()}
+     *               (см. {@link TemplateVar#newValues()}); {@code null} — пустое значение
+     */
+    public String render(String[] values) {
+        StringBuilder out = new StringBuilder(literalLength + 64);
+        int t = 0;
+        while (t < kinds.length) {
+            switch (kinds[t]) {
+                case LITERAL -> out.append(literals[args[t]]);
+                case VAR -> {
+                    String v = values[args[t]];
+                    if (v != null) out.append(v);
+                }
+                case SECTION -> {
+                    String v = values[args[t]];
+                    if (v == null || v.isEmpty()) {
+                        t = jumps[t];
+                        continue;
+                    }
+                }
+                default -> { }
+            }
+            t++;
+        }
+        return out.toString();
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
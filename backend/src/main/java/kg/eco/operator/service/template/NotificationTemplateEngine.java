@@ -0,0 +1,126 @@
+package kg.eco.operator.service.template;
+
+import kg.eco.operator.entity.NotificationTemplate;
+import kg.eco.operator.entity.enums.NotificationType;
+import kg.eco.operator.repository.NotificationTemplateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Рендеринг уведомлений по шаблонам из notification_templates.
+ *
+ * Шаблон компилируется один раз ({@link CompiledTemplate}) и хранится в кэше
+ * по коду; кэш сбрасывается при редактировании шаблона администратором
+ * ({@link #invalidate(String)}). Тексты по умолчанию заводит миграция V30,
+ * других копий в коде нет: при старте проверяется, что все коды на месте.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationTemplateEngine {
+
+    public static final String CALCULATION_SUBMITTED_OWNER = "calculation_submitted_owner";
+    public static final String CALCULATION_SUBMITTED_OPERATOR = "calculation_submitted_operator";
+    public static final String CALCULATION_APPROVED = "calculation_approved";
+    public static final String CALCULATION_REJECTED = "calculation_rejected";
+    public static final String CALCULATION_PAYMENT_CONFIRMED = "calculation_payment_confirmed";
+    public static final String CALCULATION_PAYMENT_REJECTED = "calculation_payment_rejected";
+    public static final String CALCULATION_STATUS_CHANGED = "calculation_status_changed";
+    public static final String REFUND_APPROVED = "refund_approved";
+    public static final String REFUND_REJECTED = "refund_rejected";
+    public static final String REFUND_STATUS_CHANGED = "refund_status_changed";
+    public static final String CONTEST_APPLICATION_NEW = "contest_application_new";
+    public static final String REPORT_SUBMITTED_OWNER = "report_submitted_owner";
+    public static final String REPORT_SUBMITTED_OPERATOR = "report_submitted_operator";
+    public static final String REPORT_APPROVED = "report_approved";
+    public static final String REPORT_REJECTED = "report_rejected";
+    public static final String REPORT_REVISION_REQUESTED = "report_revision_requested";
+    public static final String REPORT_STATUS_CHANGED = "report_status_changed";
+
+    private static final List<String> CODES = List.of(
+            CALCULATION_SUBMITTED_OWNER, CALCULATION_SUBMITTED_OPERATOR, CALCULATION_APPROVED,
+            CALCULATION_REJECTED, CALCULATION_PAYMENT_CONFIRMED, CALCULATION_PAYMENT_REJECTED,
+            CALCULATION_STATUS_CHANGED, REFUND_APPROVED, REFUND_REJECTED, REFUND_STATUS_CHANGED,
+            CONTEST_APPLICATION_NEW, REPORT_SUBMITTED_OWNER, REPORT_SUBMITTED_OPERATOR,
+            REPORT_APPROVED, REPORT_REJECTED, REPORT_REVISION_REQUESTED, REPORT_STATUS_CHANGED);
+
+    private final NotificationTemplateRepository templateRepository;
+
+    private final Map<String, Compiled> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Скомпилированный шаблон по коду. Первый вызов читает БД, дальше — из кэша.
+     */
+    public Compiled get(String code) {
+        return cache.computeIfAbsent(code, this::load);
+    }
+
+    /**
+     * Рендер уведомления.
+     *
+     * @param values значения, индексируемые {@link TemplateVar#ordinal()}
+     */
+    public Rendered render(String code, String[] values) {
+        Compiled compiled = get(code);
+        return new Rendered(compiled.title().render(values), compiled.message().render(values), compiled.type());
+    }
+
+    /**
+     * Сбросить шаблон из кэша (вызывается при создании/редактировании в админке).
+     * Внутри транзакции сброс повторяется после коммита, чтобы параллельный
+     * рендер не закэшировал старую версию, прочитанную до коммита.
+     */
+    public void invalidate(String code) {
+        if (code == null) return;
+        cache.remove(code);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(code);
+                }
+            });
+        }
+    }
+
+    /** Проверка текста шаблона перед сохранением; бросает BusinessLogicException при ошибке. */
+    public void validate(String title, String messageTemplate) {
+        CompiledTemplate.compile(title);
+        CompiledTemplate.compile(messageTemplate);
+    }
+
+    /** Сообщает о шаблонах, которых нет в notification_templates: уведомления по ним не отправятся. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyTemplates() {
+        Set<String> present = templateRepository.findAll().stream()
+                .map(NotificationTemplate::getCode)
+                .collect(Collectors.toSet());
+        List<String> missing = CODES.stream().filter(code -> !present.contains(code)).toList();
+        if (!missing.isEmpty()) {
+            log.error("В notification_templates нет шаблонов уведомлений: {}", missing);
+        }
+    }
+
+    private Compiled load(String code) {
+        NotificationTemplate template = templateRepository.findByCode(code)
+                .orElseThrow(() -> new IllegalStateException("Шаблон уведомления не найден: " + code));
+        return new Compiled(CompiledTemplate.compile(template.getTitle()),
+                CompiledTemplate.compile(template.getMessageTemplate()),
+                template.getType() != null ? template.getType() : NotificationType.INFO);
+    }
+
+    public record Compiled(CompiledTemplate title, CompiledTemplate message, NotificationType type) {}
+
+    public record Rendered(String title, String message, NotificationType type) {}
+}
@@ -0,0 +1,49 @@
+package kg.eco.operator.service.template;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Словарь плейсхолдеров, доступных в шаблонах уведомлений.
+ *
+ * Каждый плейсхолдер {@code {key}} при компиляции шаблона заменяется на
+ * порядковый номер переменной — при рендеринге значение берётся из массива
+ * по индексу, без поиска по строкам и рефлексии.
+ */
+public enum TemplateVar {
+    CALCULATION_NUMBER("calculationNumber"),
+    REFUND_NUMBER("refundNumber"),
+    REPORT_NUMBER("reportNumber"),
+    APPLICATION_NUMBER("applicationNumber"),
+    CONTEST_TITLE("contestTitle"),
+    COMPANY_NAME("companyName"),
+    AMOUNT("amount"),
+    COMMENT("comment"),
+    STATUS("status");
+
+    private static final Map<String, TemplateVar> BY_KEY = new HashMap<>();
+
+    static {
+        for (TemplateVar v : values()) BY_KEY.put(v.key, v);
+    }
+
+    private final String key;
+
+    TemplateVar(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /** Переменная по имени плейсхолдера, либо {@code null}, если такой нет. */
+    public static TemplateVar byKey(String key) {
+        return BY_KEY.get(key);
+    }
+
+    /** Пустой массив значений, индексируемый {@link #ordinal()}. */
+    public static String[] newValues() {
+        return new String[values().length];
+    }
+}
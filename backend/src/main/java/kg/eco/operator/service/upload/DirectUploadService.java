@@ -0,0 +1,198 @@
+package kg.eco.operator.service.upload;
+
+import io.minio.StatObjectResponse;
+import kg.eco.operator.dto.request.UploadInitRequest;
+import kg.eco.operator.dto.response.UploadTicketResponse;
+import kg.eco.operator.exception.BusinessLogicException;
+import kg.eco.operator.exception.UnauthorizedException;
+import kg.eco.operator.repository.PendingUploadRepository;
+import kg.eco.operator.repository.PendingUploadRepository.PendingUpload;
+import kg.eco.operator.service.FileStorageService;
+import kg.eco.operator.service.scheduling.ScheduledJobCoordinator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Прямая загрузка файлов в MinIO в два шага, без прохода байтов через API.
+ *
+ * 1) {@link #initiate} проверяет заявленные имя, тип и размер, выдаёт
+ *    presigned POST policy на новый ключ и запоминает разрешение в pending_uploads.
+ * 2) Клиент загружает файл в MinIO и вызывает finalize-эндпоинт сущности;
+ *    сервис сущности вызывает {@link #complete}, которая через statObject
+ *    сверяет объект с разрешением, и привязывает {@link StoredFile}.
+ *
+ * Политика фиксирует ключ, точный размер и Content-Type, поэтому другой файл
+ * MinIO не примет. {@link #complete} всё равно проверяет объект: если размер
+ * или тип не совпали с заявленными, объект удаляется. Разрешения, не
+ * дошедшие до finalize, вместе с объектами удаляет плановое задание.
+ */
+@Slf4j
+@Service
+public class DirectUploadService {
+
+    private static final int CLEANUP_BATCH = 500;
+
+    private final PendingUploadRepository pendingUploadRepository;
+    private final FileStorageService fileStorageService;
+    private final ScheduledJobCoordinator jobCoordinator;
+    private final int presignExpiryMinutes;
+    private final Duration finalizeWindow;
+
+    public DirectUploadService(PendingUploadRepository pendingUploadRepository,
+                               FileStorageService fileStorageService,
+                               ScheduledJobCoordinator jobCoordinator,
+                               @Value("${upload.presign-expiry-minutes:15}") int presignExpiryMinutes,
+                               @Value("${upload.finalize-window:1h}") Duration finalizeWindow) {
+        this.pendingUploadRepository = pendingUploadRepository;
+        this.fileStorageService = fileStorageService;
+        this.jobCoordinator = jobCoordinator;
+        this.presignExpiryMinutes = presignExpiryMinutes;
+        this.finalizeWindow = finalizeWindow;
+    }
+
+    /**
+     * Выдаёт подписанную ссылку для загрузки.
+     *
+     * @param userId текущий пользователь; {@code null} — анонимная загрузка
+     *               (допустима только для {@link UploadPurpose#isAnonymous()})
+     */
+    public UploadTicketResponse initiate(UploadInitRequest request, Long userId) {
+        UploadPurpose purpose = request.getPurpose();
+        // Публичный эндпоинт конкурсов принимает тело без @Valid — проверяем сами
+        if (request.getSize() == null || !StringUtils.hasText(request.getFileName())
+                || request.getFileName().length() > 255) {
+            throw new BusinessLogicException("Укажите имя файла (до 255 символов) и размер");
+        }
+        if (request.getContentType() != null && request.getContentType().length() > 100) {
+            throw new BusinessLogicException("Недопустимый тип файла: " + request.getContentType());
+        }
+        if (userId == null && !purpose.isAnonymous()) {
+            throw new UnauthorizedException("Требуется авторизация");
+        }
+        validate(purpose, request.getFileName(), request.getContentType(), request.getSize());
+
+        LocalDateTime now = LocalDateTime.now();
+        String objectKey = fileStorageService.newObjectKey(
+                purpose.folder(request.getTargetId()), request.getFileName());
+        PendingUpload upload = new PendingUpload(UUID.randomUUID(), purpose, request.getTargetId(), userId,
+                objectKey, request.getFileName(), request.getContentType(), request.getSize(),
+                now.plus(finalizeWindow));
+        pendingUploadRepository.insert(upload);
+
+        FileStorageService.PresignedPost post = fileStorageService.getPresignedUploadPolicy(
+                objectKey, request.getContentType(), request.getSize(), presignExpiryMinutes);
+        return UploadTicketResponse.builder()
+                .uploadId(upload.id())
+                .uploadUrl(post.url())
+                .method("POST")
+                .fields(post.fields())
+                .maxSize(purpose.maxSize())
+                .expiresAt(now.plusMinutes(presignExpiryMinutes))
+                .build();
+    }
+
+    /**
+     * Завершает загрузку: проверяет разрешение и загруженный объект.
+     * Вызывается в транзакции сервиса сущности — если привязка не удалась,
+     * разрешение остаётся и finalize можно повторить.
+     */
+    public StoredFile complete(UUID uploadId, UploadPurpose purpose, Long targetId, Long userId) {
+        PendingUpload upload = pendingUploadRepository.findById(uploadId)
+                .filter(u -> u.expiresAt().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new BusinessLogicException("Загрузка не найдена или срок её завершения истёк"));
+        if (upload.purpose() != purpose || !Objects.equals(upload.targetId(), targetId)) {
+            throw new BusinessLogicException("Загрузка выдана для другого документа");
+        }
+        if (upload.userId() != null && !upload.userId().equals(userId)) {
+            throw new UnauthorizedException("Загрузка выдана другому пользователю");
+        }
+
+        StatObjectResponse stat = fileStorageService.stat(upload.objectKey())
+                .orElseThrow(() -> new BusinessLogicException("Файл ещё не загружен в хранилище"));
+        try {
+            validate(purpose, upload.fileName(), stat.contentType(), stat.size());
+            ensureMatchesTicket(upload, stat);
+        } catch (BusinessLogicException e) {
+            // Строку разрешения уберёт плановая очистка; объект не нужен уже сейчас
+            deleteQuietly(upload.objectKey());
+            throw e;
+        }
+
+        if (!pendingUploadRepository.delete(uploadId)) {
+            throw new BusinessLogicException("Загрузка уже завершена");
+        }
+        // С этого момента объект — обычная ссылка в stored_objects, как и загруженный через API
+        fileStorageService.register(upload.objectKey(), stat.size(), stat.contentType());
+        return new StoredFile(upload.objectKey(), upload.fileName(), stat.size(), stat.contentType());
+    }
+
+    /** По cron: на всех узлах срабатывает в одну минуту, аренда пропускает один запуск. */
+    @Scheduled(cron = "${upload.cleanup-cron:0 5/15 * * * *}")
+    public void scheduledCleanup() {
+        jobCoordinator.runExclusively("upload-cleanup", this::removeExpired);
+    }
+
+    /** Удаляет просроченные разрешения и объекты, загруженные по ним без finalize. */
+    public void removeExpired() {
+        int removed = 0;
+        List<PendingUpload> expired;
+        do {
+            expired = pendingUploadRepository.findExpired(LocalDateTime.now(), CLEANUP_BATCH);
+            for (PendingUpload upload : expired) {
+                deleteQuietly(upload.objectKey());
+                pendingUploadRepository.delete(upload.id());
+            }
+            removed += expired.size();
+        } while (expired.size() == CLEANUP_BATCH);
+        if (removed > 0) {
+            log.info("Удалено незавершённых загрузок: {}", removed);
+        }
+    }
+
+    // ─── Internals ───
+
+    private void validate(UploadPurpose purpose, String fileName, String contentType, long size) {
+        if (size <= 0) {
+            throw new BusinessLogicException("Файл пустой");
+        }
+        if (size > purpose.maxSize()) {
+            throw new BusinessLogicException(
+                    "Размер файла превышает " + purpose.maxSize() / (1024 * 1024) + " МБ");
+        }
+        if (!purpose.acceptsFileName(fileName)) {
+            throw new BusinessLogicException("Недопустимый формат файла: " + fileName);
+        }
+        if (!purpose.acceptsContentType(contentType)) {
+            throw new BusinessLogicException("Недопустимый тип файла: " + contentType);
+        }
+    }
+
+    /** Объект должен быть тем файлом, на который выдано разрешение. */
+    private void ensureMatchesTicket(PendingUpload upload, StatObjectResponse stat) {
+        if (stat.size() != upload.declaredSize()) {
+            throw new BusinessLogicException("Размер загруженного файла не совпадает с заявленным");
+        }
+        if (upload.contentType() != null && !upload.contentType().equals(stat.contentType())) {
+            throw new BusinessLogicException("Тип загруженного файла не совпадает с заявленным: "
+                    + stat.contentType());
+        }
+    }
+
+    private void deleteQuietly(String objectKey) {
+        try {
+            fileStorageService.delete(objectKey);
+        } catch (Exception e) {
+            // Объекта может не быть — клиент так и не загрузил файл
+            log.debug("Не удалось удалить объект {}: {}", objectKey, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package kg.eco.operator.service.upload;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Файл, уже лежащий в MinIO: то, что нужно сервису, чтобы привязать его к
+ * документу — независимо от того, пришёл он multipart-ом через API или
+ * был загружен клиентом напрямую по подписанной ссылке.
+ */
+public record StoredFile(String objectKey, String fileName, long size, String contentType) {
+
+    public static StoredFile of(MultipartFile file, String objectKey) {
+        return new StoredFile(objectKey, file.getOriginalFilename(), file.getSize(), file.getContentType());
+    }
+}
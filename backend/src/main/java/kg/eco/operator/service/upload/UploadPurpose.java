@@ -0,0 +1,59 @@
+package kg.eco.operator.service.upload;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Назначение прямой загрузки: папка в MinIO и ограничения на файл.
+ * Ограничения те же, что у соответствующих multipart-эндпоинтов.
+ */
+public enum UploadPurpose {
+
+    CALCULATION_DOCUMENT("calculations", 50L * 1024 * 1024, Set.of(), null, false),
+    LICENSE_DOCUMENT("licenses/documents", 10L * 1024 * 1024, Set.of(), null, false),
+    LICENSE_RECEIPT("licenses/receipts", 10L * 1024 * 1024, Set.of(), null, false),
+    PUBLICATION_COVER("publications", 10L * 1024 * 1024, Set.of(), "image/", false),
+    CONTEST_APPLICATION("contests/applications", 10L * 1024 * 1024, Set.of(".pdf", ".doc", ".docx"), null, true);
+
+    private final String folder;
+    private final long maxSize;
+    private final Set<String> extensions;
+    private final String contentTypePrefix;
+    private final boolean anonymous;
+
+    UploadPurpose(String folder, long maxSize, Set<String> extensions, String contentTypePrefix, boolean anonymous) {
+        this.folder = folder;
+        this.maxSize = maxSize;
+        this.extensions = extensions;
+        this.contentTypePrefix = contentTypePrefix;
+        this.anonymous = anonymous;
+    }
+
+    /** Папка объекта; для документов расчёта и обложек — с ID сущности, как при multipart-загрузке. */
+    public String folder(Long targetId) {
+        return switch (this) {
+            case CALCULATION_DOCUMENT, PUBLICATION_COVER -> folder + "/" + targetId;
+            default -> folder;
+        };
+    }
+
+    public long maxSize() {
+        return maxSize;
+    }
+
+    /** Загрузку можно начать без авторизации (заявки на конкурс с публичной страницы). */
+    public boolean isAnonymous() {
+        return anonymous;
+    }
+
+    public boolean acceptsFileName(String fileName) {
+        if (extensions.isEmpty()) return true;
+        if (fileName == null) return false;
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        return extensions.stream().anyMatch(lower::endsWith);
+    }
+
+    public boolean acceptsContentType(String contentType) {
+        return contentTypePrefix == null || (contentType != null && contentType.startsWith(contentTypePrefix));
+    }
+}
@@ -0,0 +1,88 @@
+package kg.eco.operator.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Группа товаров (group_1 … group_18 — те же коды, что в расчётах и
+ * справочнике frontend data/product-groups.ts) по коду ТН ВЭД позиции ГТД.
+ *
+ * Коды ТН ВЭД взяты из перечня товаров («Группы и подгруппы.xlsx»,
+ * frontend data/waste-groups.json). Сопоставление по самому длинному
+ * совпавшему префиксу: 4819 10 — группа 1, прочие 4819 — группа 2.
+ * Если кода ТН ВЭД нет, используется группа, указанная ГТС, — только для
+ * однозначных наименований. Группы упаковки (19-24) по ГТД не определяются:
+ * в перечне у них нет кодов ТН ВЭД.
+ */
+public final class ProductGroupClassifier {
+
+    private static final Map<String, String> GROUP_BY_TNVED_PREFIX = new HashMap<>();
+    private static final Map<String, String> GROUP_BY_CUSTOMS_LABEL = Map.of(
+            "Шины и покрышки", "group_4",
+            "Аккумуляторы свинцовые", "group_12",
+            "Масла моторные", "group_3",
+            "Масла и смазочные материалы", "group_3"
+    );
+    private static final int MAX_PREFIX_LENGTH;
+
+    static {
+        group(1, "4808", "481910", "4823904000");
+        group(2, "4814", "4816", "4817", "4819", "4820", "4821", "4822", "4823", "4901", "4902", "4903",
+                "4904", "4905", "4909", "4910", "950590");
+        group(3, "271019", "3403");
+        group(4, "4011", "4012", "4013");
+        group(5, "4009", "4010", "4015", "4016", "4017");
+        group(6, "3923");
+        group(7, "3919", "3922", "3924", "3925", "3926100000", "3926200000", "3926400000", "9505900000",
+                "9615110000", "9615900000", "9618000000");
+        group(8, "7010");
+        group(9, "844331", "8471", "84729030", "847689", "8517", "8518", "8519", "8521", "8525", "8526",
+                "8527", "852869", "85291011", "8529103", "85291065", "85291069", "85291080", "85291095",
+                "85311030", "85311095", "900610", "9005", "9006", "9007", "9011", "901210", "9015", "9024",
+                "9025", "9026", "9027", "90292090", "9030", "90318038", "9032", "950450", "9101", "9102",
+                "9103", "9105");
+        group(10, "8528");
+        group(11, "8506");
+        group(12, "850710", "850720");
+        group(13, "850730", "850740", "850760", "850780");
+        group(14, "8539");
+        group(15, "7321", "8422110000", "8450", "851660");
+        group(16, "630110", "732290", "841451", "841460", "8419", "8467", "85081", "850860", "850940",
+                "850980", "851010", "851020", "851030", "851610", "851621", "851629", "851631", "851632",
+                "851633", "851640", "851650", "85166050", "85166070", "851671", "851672", "851679", "851691");
+        group(17, "8415", "8418");
+        group(18, "842123", "842131");
+        MAX_PREFIX_LENGTH = GROUP_BY_TNVED_PREFIX.keySet().stream().mapToInt(String::length).max().orElse(0);
+    }
+
+    private ProductGroupClassifier() {
+    }
+
+    /**
+     * Код группы для позиции ГТД или null, если товар не входит в перечень.
+     *
+     * @param tnvedCode    код ТН ВЭД (пробелы и точки допускаются)
+     * @param customsLabel группа товара по данным ГТС
+     */
+    public static String classify(String tnvedCode, String customsLabel) {
+        if (tnvedCode != null) {
+            String digits = tnvedCode.replaceAll("\\D", "");
+            for (int length = Math.min(digits.length(), MAX_PREFIX_LENGTH); length >= 4; length--) {
+                String group = GROUP_BY_TNVED_PREFIX.get(digits.substring(0, length));
+                if (group != null) return group;
+            }
+            if (!digits.isEmpty()) return null;
+        }
+        if (customsLabel == null) return null;
+        String label = customsLabel.trim();
+        if (label.startsWith("group_")) return label;
+        return GROUP_BY_CUSTOMS_LABEL.get(label);
+    }
+
+    private static void group(int number, String... prefixes) {
+        for (String prefix : List.of(prefixes)) {
+            GROUP_BY_TNVED_PREFIX.put(prefix, "group_" + number);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+-- V30: шаблоны системных уведомлений.
+--
+-- Тексты, которые раньше собирались конкатенацией строк в
+-- NotificationEventListener, вынесены в notification_templates, чтобы
+-- администратор мог редактировать их через /admin/notification-templates.
+--
+-- Синтаксис:
+--   {calculationNumber}              - подстановка значения
+--   {#comment} Причина: {comment}{/comment}
+--                                    - блок выводится, только если значение не пустое
+-- Доступные переменные: calculationNumber, refundNumber, reportNumber,
+-- applicationNumber, contestTitle, companyName, amount, comment, status.
+
+INSERT INTO notification_templates (code, title, message_template, type) VALUES
+('calculation_submitted_owner',    'Расчёт отправлен',
+    'Ваш расчёт {calculationNumber} отправлен на проверку.', 'INFO'),
+('calculation_submitted_operator', 'Новый входящий расчёт',
+    'Поступил расчёт {calculationNumber}{#companyName} от {companyName}{/companyName}{#amount} на сумму {amount} сом{/amount}. Требуется проверка.', 'INFO'),
+('calculation_approved',           'Расчёт одобрен',
+    'Ваш расчёт {calculationNumber} одобрен.{#amount} Начислено {amount} сом.{/amount}', 'SUCCESS'),
+('calculation_rejected',           'Расчёт отклонён',
+    'Ваш расчёт {calculationNumber} отклонён.{#comment} Причина: {comment}{/comment}', 'WARNING'),
+('calculation_payment_confirmed',  'Оплата подтверждена',
+    'Оплата по расчёту {calculationNumber} подтверждена.', 'SUCCESS'),
+('calculation_payment_rejected',   'Оплата отклонена',
+    'Оплата по расчёту {calculationNumber} отклонена.{#comment} Причина: {comment}{/comment}', 'WARNING'),
+('calculation_status_changed',     'Статус расчёта изменён',
+    'Статус расчёта {calculationNumber} изменён на: {status}', 'STATUS_CHANGE'),
+('refund_approved',                'Возврат одобрен',
+    'Ваша заявка на возврат {refundNumber} одобрена.', 'SUCCESS'),
+('refund_rejected',                'Возврат отклонён',
+    'Ваша заявка на возврат {refundNumber} отклонена.{#comment} Причина: {comment}{/comment}', 'WARNING'),
+('refund_status_changed',          'Статус возврата изменён',
+    'Статус заявки {refundNumber} изменён на: {status}', 'STATUS_CHANGE'),
+('contest_application_new',        'Новая заявка на конкурс',
+    'Поступила заявка {applicationNumber}{#contestTitle} на конкурс «{contestTitle}»{/contestTitle}. Требуется рассмотрение.', 'INFO'),
+('report_submitted_owner',         'Отчёт отправлен',
+    'Ваш отчёт {reportNumber} отправлен на проверку.', 'INFO'),
+('report_submitted_operator',      'Новый входящий отчёт',
+    'Поступил отчёт о переработке {reportNumber}{#companyName} от {companyName}{/companyName}. Требуется проверка.', 'INFO'),
+('report_approved',                'Отчёт принят',
+    'Ваш отчёт {reportNumber} принят.', 'SUCCESS'),
+('report_rejected',                'Отчёт отклонён',
+    'Ваш отчёт {reportNumber} отклонён.{#comment} Причина: {comment}{/comment}', 'WARNING'),
+('report_revision_requested',      'Отчёт возвращён на доработку',
+    'Ваш отчёт {reportNumber} возвращён на доработку.{#comment} Комментарий: {comment}{/comment}', 'WARNING'),
+('report_status_changed',          'Статус отчёта изменён',
+    'Статус отчёта {reportNumber} изменён на: {status}', 'STATUS_CHANGE')
+ON CONFLICT (code) DO NOTHING;
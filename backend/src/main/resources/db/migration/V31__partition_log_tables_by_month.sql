@@ -0,0 +1,149 @@
+-- V31: помесячное партиционирование растущих журналов.
+--
+-- notifications, audit_log и integration_audit_log только растут, а
+-- выборки по ним (ленты уведомлений пользователя, история сущности)
+-- замедляются вместе с ними. Переводим таблицы на декларативное
+-- RANGE-партиционирование по created_at (одна партиция на месяц):
+--   - свежие данные лежат в маленьких партициях с собственными индексами;
+--   - выборки с условием по created_at читают только нужные месяцы;
+--   - устаревшие месяцы удаляются DETACH + DROP, без долгого DELETE.
+--
+-- Будущие партиции создаёт и старые отсоединяет PartitionMaintenanceJob
+-- (настройки в application.yml, раздел partitioning). Партиция *_default
+-- страхует вставку, если задание давно не запускалось.
+--
+-- Ограничения PostgreSQL: первичный ключ партиционированной таблицы обязан
+-- включать ключ партиционирования, поэтому PK = (id, created_at); id
+-- по-прежнему выдаётся той же последовательностью и остаётся уникальным.
+
+-- ─── Helper: создать месячную партицию, если её ещё нет ───
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent TEXT, month_start DATE)
+RETURNS TEXT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    from_date DATE := date_trunc('month', month_start)::DATE;
+    to_date   DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::DATE;
+    part_name TEXT := parent || '_p' || to_char(from_date, 'YYYY_MM');
+BEGIN
+    IF to_regclass(part_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       part_name, parent, from_date, to_date);
+    END IF;
+    RETURN part_name;
+END;
+$$;
+
+-- ─── Helper: партиции от самого старого месяца до +3 месяцев вперёд ───
+CREATE OR REPLACE FUNCTION create_monthly_partitions_since(parent TEXT, since TIMESTAMP)
+RETURNS VOID
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    m DATE := date_trunc('month', COALESCE(since, NOW()))::DATE;
+BEGIN
+    WHILE m <= (date_trunc('month', NOW()) + INTERVAL '3 months')::DATE LOOP
+        PERFORM create_monthly_partition(parent, m);
+        m := (m + INTERVAL '1 month')::DATE;
+    END LOOP;
+END;
+$$;
+
+-- ─── NOTIFICATIONS ───
+ALTER TABLE notifications RENAME TO notifications_legacy;
+DROP INDEX IF EXISTS idx_notifications_user_id;
+DROP INDEX IF EXISTS idx_notifications_target_role;
+
+CREATE TABLE notifications (
+    id                  BIGINT NOT NULL DEFAULT nextval('notifications_id_seq'),
+    title               VARCHAR(255) NOT NULL,
+    message             TEXT NOT NULL,
+    type                VARCHAR(20) NOT NULL,
+    target_role         VARCHAR(20),
+    user_id             BIGINT REFERENCES users(id),
+    is_read             BOOLEAN NOT NULL DEFAULT FALSE,
+    reference_id        BIGINT,
+    reference_type      VARCHAR(30),
+    created_at          TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE notifications_default PARTITION OF notifications DEFAULT;
+SELECT create_monthly_partitions_since('notifications', (SELECT MIN(created_at) FROM notifications_legacy));
+
+INSERT INTO notifications SELECT id, title, message, type, target_role, user_id, is_read,
+                                 reference_id, reference_type, created_at
+                          FROM notifications_legacy;
+ALTER SEQUENCE notifications_id_seq OWNED BY notifications.id;
+DROP TABLE notifications_legacy;
+
+-- Лента пользователя / роли: индекс покрывает сортировку, поэтому
+-- Merge Append по партициям останавливается после первой страницы.
+CREATE INDEX idx_notifications_user_created ON notifications(user_id, created_at DESC);
+CREATE INDEX idx_notifications_role_created ON notifications(target_role, created_at DESC);
+
+-- ─── AUDIT LOG ───
+ALTER TABLE audit_log RENAME TO audit_log_legacy;
+DROP INDEX IF EXISTS idx_audit_log_entity;
+DROP INDEX IF EXISTS idx_audit_log_user_id;
+DROP INDEX IF EXISTS idx_audit_log_created_at;
+
+CREATE TABLE audit_log (
+    id                  BIGINT NOT NULL DEFAULT nextval('audit_log_id_seq'),
+    action              VARCHAR(255) NOT NULL,
+    user_name           VARCHAR(100),
+    user_id             BIGINT REFERENCES users(id),
+    entity_type         VARCHAR(30),
+    entity_id           BIGINT,
+    details             TEXT,
+    created_at          TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE audit_log_default PARTITION OF audit_log DEFAULT;
+SELECT create_monthly_partitions_since('audit_log', (SELECT MIN(created_at) FROM audit_log_legacy));
+
+INSERT INTO audit_log SELECT id, action, user_name, user_id, entity_type, entity_id, details, created_at
+                      FROM audit_log_legacy;
+ALTER SEQUENCE audit_log_id_seq OWNED BY audit_log.id;
+DROP TABLE audit_log_legacy;
+
+CREATE INDEX idx_audit_log_entity ON audit_log(entity_type, entity_id, created_at DESC);
+CREATE INDEX idx_audit_log_user_id ON audit_log(user_id, created_at DESC);
+
+-- ─── INTEGRATION AUDIT LOG ───
+ALTER TABLE integration_audit_log RENAME TO integration_audit_log_legacy;
+DROP INDEX IF EXISTS idx_integration_audit_service;
+DROP INDEX IF EXISTS idx_integration_audit_inn;
+DROP INDEX IF EXISTS idx_integration_audit_created;
+
+CREATE TABLE integration_audit_log (
+    id              BIGINT NOT NULL DEFAULT nextval('integration_audit_log_id_seq'),
+    service_name    VARCHAR(50)  NOT NULL,
+    operation       VARCHAR(100) NOT NULL,
+    request_payload TEXT,
+    response_payload TEXT,
+    status          VARCHAR(20)  NOT NULL,
+    error_message   TEXT,
+    duration_ms     INTEGER,
+    company_inn     VARCHAR(14),
+    created_at      TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE integration_audit_log_default PARTITION OF integration_audit_log DEFAULT;
+SELECT create_monthly_partitions_since('integration_audit_log',
+                                       (SELECT MIN(created_at) FROM integration_audit_log_legacy));
+
+INSERT INTO integration_audit_log
+SELECT id, service_name, operation, request_payload, response_payload, status, error_message,
+       duration_ms, company_inn, COALESCE(created_at, NOW())
+FROM integration_audit_log_legacy;
+ALTER SEQUENCE integration_audit_log_id_seq OWNED BY integration_audit_log.id;
+DROP TABLE integration_audit_log_legacy;
+
+CREATE INDEX idx_integration_audit_service ON integration_audit_log(service_name, created_at DESC);
+CREATE INDEX idx_integration_audit_inn ON integration_audit_log(company_inn);
+
+-- Схема для отсоединённых партиций в режиме retention = archive
+CREATE SCHEMA IF NOT EXISTS archive;
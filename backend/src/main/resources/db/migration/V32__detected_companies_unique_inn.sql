@@ -0,0 +1,16 @@
+-- V32: один ИНН — одна запись в detected_companies.
+--
+-- Мониторинг ГТС проверял existsByInn на каждую позицию декларации и мог
+-- вставить одну компанию несколько раз за прогон. Теперь ингест пишет
+-- пакетно через INSERT ... ON CONFLICT (inn) DO NOTHING, для чего нужно
+-- уникальное ограничение.
+
+-- Убираем накопившиеся дубликаты: оставляем самую раннюю запись по ИНН
+DELETE FROM detected_companies d
+USING detected_companies older
+WHERE d.inn = older.inn
+  AND d.id > older.id;
+
+DROP INDEX IF EXISTS idx_detected_companies_inn;
+ALTER TABLE detected_companies
+    ADD CONSTRAINT uq_detected_companies_inn UNIQUE (inn);
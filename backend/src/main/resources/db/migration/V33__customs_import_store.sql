@@ -0,0 +1,47 @@
+-- V33: локальное хранилище таможенных деклараций (ГТД) из ГТС КР.
+--
+-- Раньше мониторинг каждую ночь заново запрашивал окно за 3 дня, а сверка
+-- объёмов декларации ходила в ГТС синхронно. Теперь CustomsSyncService
+-- инкрементально догружает ГТД от сохранённой отметки (watermark) и
+-- идемпотентно обновляет их по номеру декларации; сверка объёмов считается
+-- агрегирующим SQL по локальным данным.
+
+CREATE TABLE customs_declarations (
+    id                  BIGSERIAL PRIMARY KEY,
+    declaration_number  VARCHAR(50) NOT NULL,
+    declaration_date    DATE NOT NULL,
+    company_inn         VARCHAR(14) NOT NULL,
+    customs_post        VARCHAR(255),
+    country_of_origin   VARCHAR(100),
+    synced_at           TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uq_customs_declarations_number UNIQUE (declaration_number)
+);
+
+-- Сверка объёмов: все ГТД компании за квартал
+CREATE INDEX idx_customs_declarations_inn_date ON customs_declarations(company_inn, declaration_date);
+
+CREATE TABLE customs_declaration_items (
+    id                  BIGSERIAL PRIMARY KEY,
+    declaration_id      BIGINT NOT NULL REFERENCES customs_declarations(id) ON DELETE CASCADE,
+    line_no             INTEGER NOT NULL,
+    tnved_code          VARCHAR(20),
+    product_description TEXT,
+    product_group       VARCHAR(255),
+    weight_kg           NUMERIC(15,3),
+    weight_net          NUMERIC(15,3),
+    customs_value       NUMERIC(18,2),
+    unit                VARCHAR(20),
+    quantity            NUMERIC(15,4),
+    CONSTRAINT uq_customs_declaration_items_line UNIQUE (declaration_id, line_no)
+);
+
+-- Отметки инкрементальной синхронизации с внешними системами
+CREATE TABLE integration_sync_state (
+    source              VARCHAR(50) PRIMARY KEY,
+    watermark           DATE NOT NULL,
+    last_run_at         TIMESTAMP,
+    last_fetched        INTEGER
+);
+
+-- Сверка с расчётами: расчёты компании за год/квартал
+CREATE INDEX IF NOT EXISTS idx_calculations_company_period ON calculations(company_id, period, quarter);
@@ -0,0 +1,19 @@
+-- V34: координация плановых заданий между экземплярами backend.
+--
+-- Каждое задание (@Scheduled) выполняется только на том узле, который взял
+-- аренду (lease). Пока задание работает, владелец продлевает locked_until
+-- (heartbeat); если узел упал, аренда истекает и следующий запуск по
+-- расписанию возьмёт любой другой узел. Здесь же хранится история последнего
+-- прогона: когда, где, сколько длился и чем закончился.
+
+CREATE TABLE scheduled_job_leases (
+    job_name            VARCHAR(100) PRIMARY KEY,
+    locked_by           VARCHAR(255),
+    locked_until        TIMESTAMP NOT NULL DEFAULT NOW(),
+    heartbeat_at        TIMESTAMP,
+    last_started_at     TIMESTAMP,
+    last_finished_at    TIMESTAMP,
+    last_duration_ms    BIGINT,
+    last_status         VARCHAR(20),
+    last_error          TEXT
+);
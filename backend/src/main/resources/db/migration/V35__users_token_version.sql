@@ -0,0 +1,15 @@
+-- V35: версия токенов пользователя.
+--
+-- Access-токен теперь несёт роль, user_id и company_id, и фильтр строит
+-- Authentication только по claims, без запроса в users. Для отзыва уже
+-- выданных токенов в токен пишется token_version: увеличение версии
+-- (повторное использование refresh token, принудительный выход через
+-- POST /admin/users/{id}/revoke-tokens) делает недействительными все
+-- токены пользователя с меньшей версией. Роль и компания в токене берутся
+-- на момент выдачи: код, который их меняет, должен вызвать
+-- TokenVersionRegistry.revoke (сейчас такого изменения в приложении нет).
+
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
+
+-- Узлы держат в памяти только пользователей с отозванными токенами
+CREATE INDEX idx_users_token_version ON users(id) WHERE token_version > 0;
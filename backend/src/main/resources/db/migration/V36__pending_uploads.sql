@@ -0,0 +1,24 @@
+-- V36: прямые загрузки файлов в MinIO по подписанной POST-политике.
+--
+-- Клиент получает presigned POST policy (URL и поля формы, фиксирующие ключ,
+-- точный размер и Content-Type), отправляет файл формой напрямую в MinIO и
+-- затем вызывает finalize-эндпоинт. Здесь хранится выданное разрешение:
+-- какой ключ объекта, для чего (purpose + target_id), кому, заявленные имя,
+-- тип и размер и до какого времени. finalize сверяет объект с разрешением
+-- через statObject и удаляет строку; строки,
+-- не дошедшие до finalize, вместе с объектами чистит плановое задание.
+
+CREATE TABLE pending_uploads (
+    id              UUID PRIMARY KEY,
+    purpose         VARCHAR(40)  NOT NULL,
+    target_id       BIGINT,
+    user_id         BIGINT REFERENCES users(id) ON DELETE CASCADE,
+    object_key      VARCHAR(500) NOT NULL,
+    file_name       VARCHAR(255) NOT NULL,
+    content_type    VARCHAR(100),
+    declared_size   BIGINT       NOT NULL,
+    expires_at      TIMESTAMP    NOT NULL,
+    created_at      TIMESTAMP    NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_pending_uploads_expires ON pending_uploads(expires_at);
@@ -0,0 +1,43 @@
+-- V37: контентно-адресуемое хранение файлов в MinIO.
+--
+-- Загружаемый через API файл хранится под ключом sha256/<хеш содержимого>:
+-- одинаковые документы (типовые справки, один и тот же устав в нескольких
+-- заявках) лежат в бакете один раз. Каждая запись сущности, ссылающаяся на
+-- объект, — одна ссылка в ref_count. Когда счётчик падает до нуля, объект
+-- удаляет сборщик мусора — пачками и не раньше, чем через grace-period
+-- после released_at.
+--
+-- Прямые загрузки (V36) хэшем не адресуются — их байты API не видит, — но
+-- учитываются здесь так же, со своим случайным ключом и sha256 = NULL.
+
+CREATE TABLE stored_objects (
+    object_key      VARCHAR(500) PRIMARY KEY,
+    sha256          CHAR(64),
+    size            BIGINT,
+    content_type    VARCHAR(100),
+    ref_count       INTEGER      NOT NULL DEFAULT 0 CHECK (ref_count >= 0),
+    created_at      TIMESTAMP    NOT NULL DEFAULT NOW(),
+    released_at     TIMESTAMP
+);
+
+CREATE INDEX idx_stored_objects_garbage ON stored_objects(released_at) WHERE ref_count = 0;
+
+-- Уже загруженные объекты: считаем ссылки по всем колонкам с ключами.
+-- Внешние URL (seed-обложки публикаций) в бакете не лежат — пропускаем.
+INSERT INTO stored_objects (object_key, ref_count)
+SELECT object_key, COUNT(*)
+FROM (
+    SELECT url AS object_key FROM documents
+    UNION ALL SELECT document_url FROM payments
+    UNION ALL SELECT manual_receipt_object_key FROM license_payments
+    UNION ALL SELECT file_object_key FROM license_application_documents
+    UNION ALL SELECT license_document_object_key FROM licenses
+    UNION ALL SELECT regulations_object_key FROM contests
+    UNION ALL SELECT document_object_key FROM contest_applications
+    UNION ALL SELECT cover_url FROM publications
+) refs
+WHERE object_key IS NOT NULL
+  AND object_key <> ''
+  AND object_key NOT LIKE 'http%'
+  AND object_key NOT LIKE '/%'
+GROUP BY object_key;
@@ -0,0 +1,38 @@
+-- Полнотекстовый поиск по публикациям на трёх языках.
+--
+-- Раньше поиск шёл через LOWER(title_ru/excerpt_ru) LIKE '%q%': только
+-- русский заголовок и анонс, без морфологии и полным перебором таблицы
+-- (индекс idx_pub_search_ru из V25 этим запросом не использовался).
+--
+-- Теперь у каждого языка своя генерируемая колонка tsvector по заголовку,
+-- анонсу и тексту с весами A/B/C (совпадение в заголовке важнее) и GIN-индекс:
+--   - search_ru — конфигурация russian (стемминг);
+--   - search_en — english;
+--   - search_ky — simple: словаря для кыргызского в PostgreSQL нет,
+--     поэтому только приведение к нижнему регистру, без стемминга.
+-- Тело публикации — HTML; парсер tsvector распознаёт теги отдельным типом
+-- токенов, и ни одна из конфигураций их не индексирует.
+-- Колонки вычисляет PostgreSQL при INSERT/UPDATE, сущность их не маппит.
+
+DROP INDEX IF EXISTS idx_pub_search_ru;
+
+ALTER TABLE publications
+    ADD COLUMN search_ru tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('russian', coalesce(title_ru, '')), 'A') ||
+        setweight(to_tsvector('russian', coalesce(excerpt_ru, '')), 'B') ||
+        setweight(to_tsvector('russian', coalesce(body_ru, '')), 'C')
+    ) STORED,
+    ADD COLUMN search_ky tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title_ky, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(excerpt_ky, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(body_ky, '')), 'C')
+    ) STORED,
+    ADD COLUMN search_en tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title_en, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(excerpt_en, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(body_en, '')), 'C')
+    ) STORED;
+
+CREATE INDEX idx_pub_search_ru ON publications USING GIN (search_ru);
+CREATE INDEX idx_pub_search_ky ON publications USING GIN (search_ky);
+CREATE INDEX idx_pub_search_en ON publications USING GIN (search_en);
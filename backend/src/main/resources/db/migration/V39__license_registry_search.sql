@@ -0,0 +1,28 @@
+-- Поиск, фильтры и постраничный вывод реестра лицензий на стороне БД.
+--
+-- Публичный реестр раньше читал страницу и фильтровал её в памяти (совпадения
+-- с других страниц терялись), реестр сотрудника и CSV читали всю таблицу.
+-- Теперь запросы строит LicenseServiceImpl.buildSpecification:
+--   - поиск — подстрока номера, ИНН или наименования (LIKE '%q%'), фильтр
+--     региона — подстрока юридического адреса. B-tree такие условия не
+--     использует, поэтому индексы триграммные (pg_trgm) по тем же выражениям,
+--     что в запросе: lower(...) для текста, ИНН — как есть (только цифры);
+--   - сортировка публичного реестра — issued_at DESC, id DESC только по
+--     опубликованным и не отозванным: частичный индекс отдаёт первую страницу
+--     без сортировки всей таблицы, в том числе с фильтром по виду лицензии;
+--   - реестр сотрудника — created_at DESC, id DESC.
+-- Фильтры по датам (valid_until, issued_at) используют idx_lic_valid и
+-- индексы сортировки.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_lic_number_trgm  ON licenses USING GIN (lower(license_number) gin_trgm_ops);
+CREATE INDEX idx_lic_inn_trgm     ON licenses USING GIN (applicant_inn gin_trgm_ops);
+CREATE INDEX idx_lic_name_trgm    ON licenses USING GIN (lower(applicant_name) gin_trgm_ops);
+CREATE INDEX idx_lic_address_trgm ON licenses USING GIN (lower(legal_address) gin_trgm_ops);
+
+CREATE INDEX idx_lic_public_issued ON licenses (issued_at DESC, id DESC)
+    WHERE is_published = TRUE AND is_revoked = FALSE;
+CREATE INDEX idx_lic_public_type_issued ON licenses (license_type, issued_at DESC, id DESC)
+    WHERE is_published = TRUE AND is_revoked = FALSE;
+CREATE INDEX idx_lic_created ON licenses (created_at DESC, id DESC);
@@ -0,0 +1,83 @@
+-- V40: партиции журналов создаются с учётом строк в *_default.
+--
+-- Пока месячной партиции нет, вставки за этот месяц попадают в *_default
+-- (например, если PartitionMaintenanceJob давно не запускался). После этого
+-- CREATE TABLE ... PARTITION OF за тот же месяц падает: строки в DEFAULT
+-- нарушили бы границы новой партиции. Теперь create_monthly_partition в
+-- таком случае создаёт таблицу отдельно, переносит в неё строки месяца из
+-- DEFAULT и только потом подключает (ATTACH PARTITION). DEFAULT на время
+-- переноса блокируется на запись, чтобы новые строки месяца не попали в неё
+-- между переносом и подключением. Индексы, PK и внешние ключи родителя
+-- PostgreSQL создаёт на подключаемой таблице сам.
+--
+-- create_monthly_partitions_since получает горизонт (сколько месяцев вперёд
+-- создавать) параметром вместо зашитых +3 месяцев.
+
+-- ─── Helper: создать месячную партицию, забрав её строки из DEFAULT ───
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent TEXT, month_start DATE)
+RETURNS TEXT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    from_date    DATE := date_trunc('month', month_start)::DATE;
+    to_date      DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::DATE;
+    part_name    TEXT := parent || '_p' || to_char(from_date, 'YYYY_MM');
+    default_name TEXT;
+    key_column   TEXT;
+    has_rows     BOOLEAN := FALSE;
+BEGIN
+    IF to_regclass(part_name) IS NOT NULL THEN
+        RETURN part_name;
+    END IF;
+
+    SELECT c.relname INTO default_name
+    FROM pg_inherits i
+    JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = parent::regclass
+      AND pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT';
+
+    SELECT a.attname INTO key_column
+    FROM pg_partitioned_table pt
+    JOIN pg_attribute a ON a.attrelid = pt.partrelid AND a.attnum = pt.partattrs[0]
+    WHERE pt.partrelid = parent::regclass;
+
+    IF default_name IS NOT NULL THEN
+        EXECUTE format('LOCK TABLE %I IN EXCLUSIVE MODE', default_name);
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= %L AND %I < %L)',
+                       default_name, key_column, from_date, key_column, to_date)
+            INTO has_rows;
+    END IF;
+
+    IF NOT has_rows THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       part_name, parent, from_date, to_date);
+        RETURN part_name;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', part_name, parent);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) '
+                       || 'INSERT INTO %I SELECT * FROM moved',
+                   default_name, key_column, from_date, key_column, to_date, part_name);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, part_name, from_date, to_date);
+    RAISE NOTICE 'Партиция % создана, строки перенесены из %', part_name, default_name;
+    RETURN part_name;
+END;
+$$;
+
+-- ─── Helper: партиции от месяца since до ahead месяцев вперёд от текущего ───
+DROP FUNCTION IF EXISTS create_monthly_partitions_since(TEXT, TIMESTAMP);
+
+CREATE OR REPLACE FUNCTION create_monthly_partitions_since(parent TEXT, since TIMESTAMP, ahead INTEGER)
+RETURNS VOID
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    m DATE := date_trunc('month', COALESCE(since, NOW()))::DATE;
+BEGIN
+    WHILE m <= (date_trunc('month', NOW()) + make_interval(months => ahead))::DATE LOOP
+        PERFORM create_monthly_partition(parent, m);
+        m := (m + INTERVAL '1 month')::DATE;
+    END LOOP;
+END;
+$$;
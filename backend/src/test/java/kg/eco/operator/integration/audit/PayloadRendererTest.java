@@ -0,0 +1,83 @@
+package kg.eco.operator.integration.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Журнал заглушек (audited(simulated(port))) не должен обходить ленивые
+ * списки целиком: выписка на миллион строк и 100 тыс. деклараций дают в
+ * payload только размер и первые элементы.
+ */
+class PayloadRendererTest {
+
+    private static final int MAX_ELEMENTS = 20;
+
+    private final PayloadRenderer renderer = new PayloadRenderer(new ObjectMapper(), 100_000, MAX_ELEMENTS);
+
+    record Line(int number, String purpose) {}
+
+    record Statement(String account, List<Line> lines) {}
+
+    @Test
+    void listInsideDtoIsNotGeneratedBeyondFirstElements() {
+        CountingList<Line> lines = new CountingList<>(1_000_000, i -> new Line(i, "Оплата " + i));
+
+        String payload = renderer.render(new Statement("KG01", lines));
+
+        assertThat(lines.generated.get()).isLessThanOrEqualTo(MAX_ELEMENTS);
+        assertThat(payload)
+                .startsWith("{\"account\":\"KG01\",\"lines\":[{\"number\":0,")
+                .contains("\"… size=1000000\"]")
+                .doesNotContain("\"number\":" + MAX_ELEMENTS + ",");
+    }
+
+    @Test
+    void topLevelListAndArgumentsAreBounded() {
+        CountingList<Line> declarations = new CountingList<>(100_000, i -> new Line(i, "ГТД " + i));
+
+        String payload = renderer.render(new Object[]{"01234567890123", declarations});
+
+        assertThat(declarations.generated.get()).isLessThanOrEqualTo(MAX_ELEMENTS);
+        assertThat(payload).startsWith("[01234567890123, size=100000 [").endsWith(", …]]");
+    }
+
+    @Test
+    void longPayloadIsTruncatedToMaxChars() {
+        PayloadRenderer small = new PayloadRenderer(new ObjectMapper(), 50, MAX_ELEMENTS);
+
+        String payload = small.render(new Statement("KG01", new CountingList<>(1_000, i -> new Line(i, "x"))));
+
+        assertThat(payload).hasSize(50).endsWith("…");
+    }
+
+    /** Ленивый список, как GeneratedList заглушек, со счётчиком вычисленных элементов. */
+    private static final class CountingList<T> extends AbstractList<T> {
+
+        private final int size;
+        private final IntFunction<T> generator;
+        private final AtomicInteger generated = new AtomicInteger();
+
+        CountingList(int size, IntFunction<T> generator) {
+            this.size = size;
+            this.generator = generator;
+        }
+
+        @Override
+        public T get(int index) {
+            generated.incrementAndGet();
+            return generator.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
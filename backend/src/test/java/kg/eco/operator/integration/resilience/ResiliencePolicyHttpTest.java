@@ -0,0 +1,159 @@
+package kg.eco.operator.integration.resilience;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import kg.eco.operator.integration.audit.IntegrationAuditRecorder;
+import kg.eco.operator.integration.common.IntegrationException;
+import kg.eco.operator.integration.config.IntegrationConfig;
+import kg.eco.operator.integration.config.IntegrationProperties;
+import kg.eco.operator.integration.taxservice.TaxServicePort;
+import kg.eco.operator.integration.taxservice.rest.RestTaxServiceAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * ResiliencePolicy поверх настоящего HTTP-клиента (пул HttpClient 5 из
+ * IntegrationConfig) и локального HTTP-сервера: таймауты, повторы и
+ * circuit breaker проверяются на реальных сокетах, а не на моках.
+ */
+class ResiliencePolicyHttpTest {
+
+    private static final List<String> OKED = List.of("22.21");
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile IntFunction<Reply> responder = n -> new Reply(200, "[]", 0);
+
+    private record Reply(int status, String body, long delayMs) {}
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void retriesTransientServerErrorsUntilSuccess() {
+        responder = n -> n <= 2 ? new Reply(503, "", 0) : new Reply(200, "[]", 0);
+        TaxServicePort port = port(resilience());
+
+        assertThat(port.getCompaniesByOkedCodes(OKED)).isEmpty();
+        assertThat(requests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        responder = n -> new Reply(404, "", 0);
+        TaxServicePort port = port(resilience());
+
+        assertThatThrownBy(() -> port.getCompaniesByOkedCodes(OKED))
+                .isInstanceOf(IntegrationException.class);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void readTimeoutIsRetriedAndThenReported() {
+        responder = n -> new Reply(200, "[]", 1_000);
+        IntegrationProperties.ResilienceConfig config = resilience();
+        TaxServicePort port = port(config, 200);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> port.getCompaniesByOkedCodes(OKED))
+                .isInstanceOf(IntegrationException.class)
+                .hasMessageContaining("getCompaniesByOkedCodes");
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+
+        assertThat(requests.get()).isEqualTo(config.getRetryMaxAttempts());
+        // Три попытки по таймауту 200 мс и короткие паузы, а не ожидание ответа сервера
+        assertThat(elapsedMs).isLessThan(3 * 1_000);
+    }
+
+    @Test
+    void openCircuitRejectsCallsWithoutReachingServer() {
+        responder = n -> new Reply(500, "", 0);
+        IntegrationProperties.ResilienceConfig config = resilience();
+        config.setRetryMaxAttempts(1);
+        config.setSlidingWindowSize(4);
+        config.setMinimumNumberOfCalls(4);
+        TaxServicePort port = port(config);
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> port.getCompaniesByOkedCodes(OKED))
+                    .isInstanceOf(IntegrationException.class);
+        }
+        assertThat(requests.get()).isEqualTo(4);
+
+        assertThatThrownBy(() -> port.getCompaniesByOkedCodes(OKED))
+                .isInstanceOf(IntegrationException.class)
+                .hasMessageContaining("circuit breaker");
+        assertThat(requests.get()).isEqualTo(4);
+    }
+
+    // ─── Helpers ───
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            Reply reply = responder.apply(requests.incrementAndGet());
+            if (reply.delayMs() > 0) {
+                Thread.sleep(reply.delayMs());
+            }
+            byte[] body = reply.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(reply.status(), body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                exchange.getResponseBody().write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+            // клиент закрыл соединение по таймауту
+        }
+    }
+
+    private static IntegrationProperties.ResilienceConfig resilience() {
+        IntegrationProperties.ResilienceConfig config = new IntegrationProperties.ResilienceConfig();
+        config.setRetryInitialBackoff(Duration.ofMillis(10));
+        return config;
+    }
+
+    private TaxServicePort port(IntegrationProperties.ResilienceConfig resilience) {
+        return port(resilience, 2_000);
+    }
+
+    private TaxServicePort port(IntegrationProperties.ResilienceConfig resilience, int timeoutMs) {
+        IntegrationProperties properties = new IntegrationProperties();
+        IntegrationProperties.ServiceConfig tax = properties.getTaxService();
+        tax.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        tax.setApiKey("test");
+        tax.setTimeout(timeoutMs);
+        tax.setResilience(resilience);
+
+        IntegrationConfig config = new IntegrationConfig(properties, mock(Environment.class),
+                mock(IntegrationAuditRecorder.class));
+        return new ResilientTaxServicePort(new RestTaxServiceAdapter(config.taxServiceClient()),
+                new ResiliencePolicy(IntegrationResilienceRegistry.TAX, resilience));
+    }
+}
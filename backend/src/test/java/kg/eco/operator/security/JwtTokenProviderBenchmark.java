@@ -0,0 +1,104 @@
+package kg.eco.operator.security;
+
+import kg.eco.operator.config.JwtConfig;
+import kg.eco.operator.entity.User;
+import kg.eco.operator.entity.enums.RoleEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки access-токена на запрос: прежний путь фильтра
+ * (validateToken + getInnFromToken — два разбора с HMAC) против
+ * {@link JwtTokenProvider#verify} без кэша и с попаданием в кэш.
+ *
+ * Запуск (surefire бенчмарки не запускает):
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     kg.eco.operator.security.JwtTokenProviderBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final int DISTINCT_TOKENS = 1024;
+
+    private JwtTokenProvider provider;
+    private JwtTokenProvider missProvider;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        provider = new JwtTokenProvider(config(10_000));
+        // Кэш на одну запись и 1024 токена по кругу: каждый вызов — промах
+        missProvider = new JwtTokenProvider(config(1));
+
+        tokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            tokens[i] = provider.generateAccessToken(user(i));
+        }
+        token = tokens[0];
+    }
+
+    @Benchmark
+    public String parseTwice() {
+        return provider.validateToken(token) ? provider.getInnFromToken(token) : null;
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyMiss() {
+        next = (next + 1) % DISTINCT_TOKENS;
+        return missProvider.verify(tokens[next]);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyHit() {
+        return provider.verify(token);
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setInn(String.format("%014d", id));
+        user.setRole(RoleEnum.BUSINESS);
+        user.setTokenVersion(3);
+        return user;
+    }
+
+    private static JwtConfig config(long cacheSize) {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(Base64.getEncoder().encodeToString(new byte[64]));
+        config.setAccessTokenExpiration(TimeUnit.HOURS.toMillis(1));
+        config.setRefreshTokenExpiration(TimeUnit.DAYS.toMillis(7));
+        config.setVerifiedCacheSize(cacheSize);
+        return config;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtTokenProviderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,137 @@
+package kg.eco.operator.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import kg.eco.operator.config.RateLimitProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы ограничения частоты на запрос: сам {@link TokenBucket}
+ * (разрешение — один CAS, отказ — без записи) и весь {@link RateLimitFilter}
+ * с сопоставлением маршрута и поиском бакета клиента в Caffeine.
+ *
+ * Маршруты — как в application.yml; лимиты завышены, чтобы замерять путь
+ * разрешённого запроса, а не ответ 429.
+ *
+ * Запуск (surefire бенчмарки не запускает):
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     kg.eco.operator.security.RateLimitFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private TokenBucket openBucket;
+    private TokenBucket exhaustedBucket;
+    private long exhaustedInterval;
+
+    private RateLimitFilter filter;
+    private MockHttpServletRequest[] licenseRequests;
+    private MockHttpServletRequest unmatchedRequest;
+    private MockHttpServletResponse response;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        long now = System.nanoTime();
+        openBucket = new TokenBucket(now);
+        exhaustedBucket = new TokenBucket(now);
+        exhaustedInterval = TimeUnit.HOURS.toNanos(1);
+        exhaustedBucket.tryConsume(now, exhaustedInterval, exhaustedInterval);
+
+        filter = new RateLimitFilter(properties(), new ObjectMapper());
+        licenseRequests = new MockHttpServletRequest[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            licenseRequests[i] = request("/public/licenses", "10.0." + (i >> 8) + "." + (i & 0xff));
+        }
+        unmatchedRequest = request("/declarations", "10.1.0.1");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public long bucketAllowed() {
+        return openBucket.tryConsume(System.nanoTime(), 1, Long.MAX_VALUE / 2);
+    }
+
+    @Benchmark
+    public long bucketRejected() {
+        return exhaustedBucket.tryConsume(System.nanoTime(), exhaustedInterval, exhaustedInterval);
+    }
+
+    /** /public/licenses — четвёртый класс по порядку; 10 тыс. разных IP по кругу. */
+    @Benchmark
+    public int filterAllowed() throws ServletException, IOException {
+        next = (next + 1) % CLIENTS;
+        filter.doFilter(licenseRequests[next], response, NO_OP_CHAIN);
+        return response.getStatus();
+    }
+
+    /** Запрос вне /public/**: только перебор шаблонов. */
+    @Benchmark
+    public int filterUnmatched() throws ServletException, IOException {
+        filter.doFilter(unmatchedRequest, response, NO_OP_CHAIN);
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(String path, String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1" + path);
+        request.setContextPath("/api/v1");
+        request.addHeader("X-Real-IP", ip);
+        return request;
+    }
+
+    private static RateLimitProperties properties() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRoutes().put("document-download",
+                route(List.of("/public/licenses/*/document", "/public/contests/*/regulations")));
+        properties.getRoutes().put("calculator", route(List.of("/public/calculator", "/public/verify-inn/*")));
+        properties.getRoutes().put("contest-applications", route(List.of("/public/contests/*/applications",
+                "/public/contests/*/applications/**", "/public/contests/applications/check-status")));
+        properties.getRoutes().put("license-registry", route(List.of("/public/licenses", "/public/licenses/*")));
+        properties.getRoutes().put("default", route(List.of("/public/**")));
+        return properties;
+    }
+
+    private static RateLimitProperties.Route route(List<String> patterns) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPatterns(patterns);
+        route.setCapacity(1_000_000_000);
+        route.setRefillPerSecond(1_000_000_000);
+        return route;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
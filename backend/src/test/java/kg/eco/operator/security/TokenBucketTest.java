@@ -0,0 +1,67 @@
+package kg.eco.operator.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GCRA-бакет на фиксированных часах: пачка в capacity запросов проходит,
+ * следующий получает точное время ожидания, токены возвращаются через
+ * interval, а отказ состояния бакета не меняет.
+ */
+class TokenBucketTest {
+
+    private static final int CAPACITY = 3;
+    private static final long INTERVAL = 1_000;
+    private static final long BURST = CAPACITY * INTERVAL;
+    /** Произвольная точка отсчёта, как у System.nanoTime(). */
+    private static final long START = 5_000_000;
+
+    private final TokenBucket bucket = new TokenBucket(START);
+
+    @Test
+    void burstOfCapacityPassesThenWaitsOneInterval() {
+        consumeBurst(START);
+
+        assertThat(bucket.tryConsume(START, INTERVAL, BURST)).isEqualTo(INTERVAL);
+        assertThat(bucket.tryConsume(START + 400, INTERVAL, BURST)).isEqualTo(INTERVAL - 400);
+    }
+
+    @Test
+    void rejectedCallDoesNotChangeState() {
+        consumeBurst(START);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryConsume(START, INTERVAL, BURST)).isEqualTo(INTERVAL);
+        }
+        // Отказы не сдвинули TAT: токен появляется ровно через interval
+        assertThat(bucket.tryConsume(START + INTERVAL - 1, INTERVAL, BURST)).isEqualTo(1);
+        assertThat(bucket.tryConsume(START + INTERVAL, INTERVAL, BURST)).isZero();
+        assertThat(bucket.tryConsume(START + INTERVAL, INTERVAL, BURST)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void tokensRefillAfterInterval() {
+        consumeBurst(START);
+
+        assertThat(bucket.tryConsume(START + INTERVAL, INTERVAL, BURST)).isZero();
+        assertThat(bucket.tryConsume(START + 3 * INTERVAL, INTERVAL, BURST)).isZero();
+        assertThat(bucket.tryConsume(START + 3 * INTERVAL, INTERVAL, BURST)).isZero();
+        assertThat(bucket.tryConsume(START + 3 * INTERVAL, INTERVAL, BURST)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void idleBucketHoldsAtMostCapacity() {
+        long later = START + 1_000 * INTERVAL;
+
+        consumeBurst(later);
+
+        assertThat(bucket.tryConsume(later, INTERVAL, BURST)).isEqualTo(INTERVAL);
+    }
+
+    private void consumeBurst(long now) {
+        for (int i = 0; i < CAPACITY; i++) {
+            assertThat(bucket.tryConsume(now, INTERVAL, BURST)).as("запрос %d из пачки", i + 1).isZero();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package kg.eco.operator.service;
+
+import kg.eco.operator.entity.Company;
+import kg.eco.operator.entity.Declaration;
+import kg.eco.operator.integration.customs.dto.CustomsVolumeVerificationResponse;
+import kg.eco.operator.repository.CompanyRepository;
+import kg.eco.operator.repository.CustomsImportRepository;
+import kg.eco.operator.repository.CustomsImportRepository.ImportedTonnes;
+import kg.eco.operator.repository.DeclarationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Сверка заявленного веса с ГТД: ввоз и расчёты сопоставляются по одним и
+ * тем же кодам групп (group_N).
+ */
+class DeclarationServiceTest {
+
+    private static final String INN = "01234567890123";
+
+    private final DeclarationRepository declarationRepository = mock(DeclarationRepository.class);
+    private final CustomsImportRepository customsImportRepository = mock(CustomsImportRepository.class);
+    private DeclarationService service;
+
+    @BeforeEach
+    void setUp() {
+        Company company = new Company();
+        company.setInn(INN);
+        Declaration declaration = new Declaration();
+        declaration.setId(1L);
+        declaration.setCompany(company);
+        declaration.setYear(2025);
+        when(declarationRepository.findById(1L)).thenReturn(Optional.of(declaration));
+
+        service = new DeclarationService(declarationRepository, mock(CompanyRepository.class),
+                customsImportRepository);
+    }
+
+    @Test
+    void matchingImportAndDeclarationHaveNoDiscrepancy() {
+        when(customsImportRepository.declaredTonnesByGroup(eq(INN), eq(2025), isNull()))
+                .thenReturn(Map.of("group_4", new BigDecimal("12.5"), "group_12", new BigDecimal("3")));
+        when(customsImportRepository.importedTonnesByTnved(eq(INN), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(
+                        new ImportedTonnes("4011100001", "Шины и покрышки", new BigDecimal("10")),
+                        new ImportedTonnes("4011 20 100 0", null, new BigDecimal("2.5")),
+                        new ImportedTonnes("8507100001", "Аккумуляторы свинцовые", new BigDecimal("3")),
+                        // Не входит в перечень — в сверку не попадает
+                        new ImportedTonnes("6403990000", "Обувь", new BigDecimal("7"))));
+
+        CustomsVolumeVerificationResponse result = service.verifyDeclarationVolumes(1L, null);
+
+        assertThat(result.isHasDiscrepancies()).isFalse();
+        assertThat(result.getDiscrepancies())
+                .extracting(CustomsVolumeVerificationResponse.VolumeDiscrepancy::getProductGroup)
+                .containsExactlyInAnyOrder("group_4", "group_12");
+        assertThat(result.getDiscrepancies())
+                .allSatisfy(d -> {
+                    assertThat(d.getDifference()).isEqualByComparingTo(BigDecimal.ZERO);
+                    assertThat(d.getDifferencePercent()).isZero();
+                });
+    }
+
+    @Test
+    void underDeclaredGroupIsReported() {
+        when(customsImportRepository.declaredTonnesByGroup(eq(INN), anyInt(), eq(2)))
+                .thenReturn(Map.of("group_6", new BigDecimal("5")));
+        when(customsImportRepository.importedTonnesByTnved(eq(INN), eq(LocalDate.of(2025, 4, 1)),
+                eq(LocalDate.of(2025, 6, 30))))
+                .thenReturn(List.of(new ImportedTonnes("3923210000", "Упаковка из пластика", new BigDecimal("10"))));
+
+        CustomsVolumeVerificationResponse result = service.verifyDeclarationVolumes(1L, 2);
+
+        assertThat(result.isHasDiscrepancies()).isTrue();
+        assertThat(result.getDiscrepancies()).singleElement().satisfies(d -> {
+            assertThat(d.getProductGroup()).isEqualTo("group_6");
+            assertThat(d.getDifferencePercent()).isEqualTo(-50.0);
+        });
+    }
+}
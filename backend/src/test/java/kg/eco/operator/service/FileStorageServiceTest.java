@@ -0,0 +1,106 @@
+package kg.eco.operator.service;
+
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import kg.eco.operator.repository.StoredObjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Загрузка с подсчётом ссылок: повторный файл не отправляется в MinIO, а
+ * объект, загруженный откатившейся транзакцией, передаётся сборщику мусора.
+ */
+class FileStorageServiceTest {
+
+    private static final byte[] CONTENT = "устав".getBytes(StandardCharsets.UTF_8);
+
+    private final MinioClient minioClient = mock(MinioClient.class);
+    private final StoredObjectRepository storedObjectRepository = mock(StoredObjectRepository.class);
+    private FileStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FileStorageService(minioClient, mock(MinioClient.class), storedObjectRepository);
+        ReflectionTestUtils.setField(service, "bucket", "test");
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void duplicateContentOnlyTakesReference() throws Exception {
+        when(storedObjectRepository.acquire(anyString(), anyString(), anyLong(), anyString())).thenReturn(2);
+
+        String key = service.upload(file());
+
+        assertThat(key).startsWith(FileStorageService.CONTENT_PREFIX);
+        verify(minioClient, never()).putObject(any(PutObjectArgs.class));
+        // Объект уже нужен другим записям — при откате его не трогаем
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+
+    @Test
+    void rolledBackUploadIsHandedToGarbageCollector() throws Exception {
+        when(storedObjectRepository.acquire(anyString(), anyString(), anyLong(), anyString())).thenReturn(1);
+
+        String key = service.upload(file());
+
+        verify(minioClient).putObject(any(PutObjectArgs.class));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(storedObjectRepository).adoptOrphans(List.of(key));
+    }
+
+    @Test
+    void committedUploadKeepsItsObject() throws Exception {
+        when(storedObjectRepository.acquire(anyString(), anyString(), anyLong(), anyString())).thenReturn(1);
+
+        service.upload(file());
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        verify(storedObjectRepository, never()).adoptOrphans(any());
+    }
+
+    @Test
+    void keyIsContentHash() {
+        when(storedObjectRepository.acquire(anyString(), anyString(), anyLong(), anyString())).thenReturn(2);
+
+        String first = service.upload(file());
+        String second = service.upload(new MockMultipartFile("file", "copy.pdf", "application/pdf", CONTENT));
+
+        assertThat(second).isEqualTo(first);
+        verify(storedObjectRepository, times(2))
+                .acquire(eq(first), anyString(), eq((long) CONTENT.length), eq("application/pdf"));
+    }
+
+    private static MockMultipartFile file() {
+        return new MockMultipartFile("file", "charter.pdf", "application/pdf", CONTENT);
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+}
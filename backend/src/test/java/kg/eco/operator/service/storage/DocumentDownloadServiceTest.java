@@ -0,0 +1,209 @@
+package kg.eco.operator.service.storage;
+
+import io.minio.StatObjectResponse;
+import kg.eco.operator.service.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Условные запросы и докачка: 304 по ETag без обращения к MinIO, 206 с
+ * корректными Content-Range / Content-Length, 416 за концом файла и
+ * полный ответ при устаревшем If-Range или нескольких диапазонах.
+ */
+class DocumentDownloadServiceTest {
+
+    private static final String HASH = "0123456789abcdef";
+    private static final String KEY = FileStorageService.CONTENT_PREFIX + HASH;
+    private static final String ETAG = "\"" + HASH + "\"";
+    private static final byte[] CONTENT = "0123456789".getBytes();
+    private static final ZonedDateTime LAST_MODIFIED = ZonedDateTime.of(2026, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private DocumentDownloadService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DocumentDownloadService(fileStorageService, Duration.ofHours(1));
+        StatObjectResponse stat = mock(StatObjectResponse.class);
+        when(stat.size()).thenReturn((long) CONTENT.length);
+        when(stat.lastModified()).thenReturn(LAST_MODIFIED);
+        when(stat.contentType()).thenReturn("application/pdf");
+        when(fileStorageService.stat(KEY)).thenReturn(Optional.of(stat));
+        when(fileStorageService.download(KEY)).thenAnswer(inv -> new ByteArrayInputStream(CONTENT));
+        when(fileStorageService.download(anyString(), anyLong(), anyLong())).thenAnswer(inv -> {
+            int offset = (int) (long) inv.getArgument(1);
+            int length = (int) (long) inv.getArgument(2);
+            return new ByteArrayInputStream(CONTENT, offset, length);
+        });
+    }
+
+    // ─── If-None-Match / If-Modified-Since ───
+
+    @Test
+    void strongEtagMatchIsNotModifiedWithoutStat() {
+        HttpHeaders request = new HttpHeaders();
+        request.setIfNoneMatch(ETAG);
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETAG);
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    void weakEtagMatchIsNotModifiedWithoutStat() {
+        HttpHeaders request = new HttpHeaders();
+        request.setIfNoneMatch("\"other\", W/" + ETAG);
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    void ifModifiedSinceIsIgnoredWhenEtagDiffers() throws IOException {
+        HttpHeaders request = new HttpHeaders();
+        request.setIfNoneMatch("\"other\"");
+        request.setIfModifiedSince(LAST_MODIFIED.toInstant());
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(response)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void notModifiedSinceLastModified() {
+        HttpHeaders request = new HttpHeaders();
+        request.setIfModifiedSince(LAST_MODIFIED.toInstant());
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(fileStorageService, never()).download(KEY);
+    }
+
+    // ─── Range / If-Range ───
+
+    @Test
+    void openEndedRangeIsPartial() throws IOException {
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=0-");
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 0-9/10");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(10);
+        assertThat(body(response)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void suffixRangeReadsOnlyTheTail() throws IOException {
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=-4");
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 6-9/10");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(4);
+        assertThat(body(response)).isEqualTo("6789");
+        verify(fileStorageService).download(KEY, 6, 4);
+    }
+
+    @Test
+    void rangePastTheEndIsNotSatisfiable() {
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=10-");
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+        verify(fileStorageService, never()).download(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void matchingIfRangeKeepsRange() {
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=2-3");
+        request.set(HttpHeaders.IF_RANGE, ETAG);
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-3/10");
+    }
+
+    @Test
+    void staleIfRangeReturnsWholeFile() throws IOException {
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=2-3");
+        request.set(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(10);
+        assertThat(body(response)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void staleIfRangeDateReturnsWholeFile() {
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=2-3");
+        request.setZonedDateTime(HttpHeaders.IF_RANGE, LAST_MODIFIED.minusDays(1));
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void multipleRangesReturnWholeFile() {
+        HttpHeaders request = new HttpHeaders();
+        request.set(HttpHeaders.RANGE, "bytes=0-1,4-5");
+
+        ResponseEntity<StreamingResponseBody> response = serve(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(10);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_RANGE)).isFalse();
+        verify(fileStorageService).download(KEY);
+    }
+
+    private ResponseEntity<StreamingResponseBody> serve(HttpHeaders request) {
+        return service.servePublic(KEY, MediaType.APPLICATION_PDF, "inline", request);
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package kg.eco.operator.service.storage;
+
+import kg.eco.operator.service.FileStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Оригинал, из которого копии не сделать, скачивается один раз: повторные
+ * запросы отсутствующей копии не ставят его в очередь снова.
+ */
+class ImageVariantServiceTest {
+
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final ImageVariantService service = new ImageVariantService(fileStorageService, 1, 10, 0.8f, 100);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void unsupportedFormatIsNotRequeued() throws Exception {
+        byte[] svg = "<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes(StandardCharsets.UTF_8);
+        when(fileStorageService.download("covers/a.svg")).thenAnswer(inv -> new ByteArrayInputStream(svg));
+
+        service.generateAsync("covers/a.svg");
+        awaitCompleted(1);
+        service.generateAsync("covers/a.svg");
+        service.generateAsync("covers/a.svg");
+
+        verify(fileStorageService, times(1)).download("covers/a.svg");
+        verify(fileStorageService, never()).put(anyString(), any(), anyString());
+    }
+
+    @Test
+    void supportedImageGetsAllVariants() throws Exception {
+        byte[] png = png(400, 300);
+        when(fileStorageService.download("covers/b.png")).thenAnswer(inv -> new ByteArrayInputStream(png));
+
+        service.generateAsync("covers/b.png");
+        awaitCompleted(1);
+
+        for (ImageVariant variant : ImageVariant.values()) {
+            verify(fileStorageService).put(eq(variant.objectKey("covers/b.png")), any(), eq("image/jpeg"));
+        }
+    }
+
+    private void awaitCompleted(long tasks) throws InterruptedException {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(service, "executor");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getCompletedTaskCount() < tasks && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(executor.getCompletedTaskCount()).isEqualTo(tasks);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,103 @@
+package kg.eco.operator.service.storage;
+
+import kg.eco.operator.repository.StoredObjectRepository;
+import kg.eco.operator.service.FileStorageService;
+import kg.eco.operator.service.scheduling.ScheduledJobCoordinator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Сборщик мусора убирает строку stored_objects только вместе с объектом:
+ * если MinIO объект не удалил, строка остаётся до следующего запуска.
+ */
+class StoredObjectGarbageCollectorTest {
+
+    private final StoredObjectRepository storedObjectRepository = mock(StoredObjectRepository.class);
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private StoredObjectGarbageCollector collector;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+        collector = new StoredObjectGarbageCollector(storedObjectRepository, fileStorageService,
+                mock(ScheduledJobCoordinator.class), transactionTemplate, Duration.ofHours(1));
+    }
+
+    @Test
+    void removesObjectsWithVariantsAndTheirRows() {
+        when(storedObjectRepository.lockGarbage(any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of("sha256/a", "sha256/b"));
+        when(fileStorageService.deleteAll(anyList())).thenAnswer(invocation -> new HashSet<>(invocation.getArgument(0)));
+
+        assertThat(collector.collect()).isEqualTo(2);
+
+        List<String> objects = new ArrayList<>(List.of("sha256/a"));
+        objects.addAll(ImageVariant.derivedKeys("sha256/a"));
+        objects.add("sha256/b");
+        objects.addAll(ImageVariant.derivedKeys("sha256/b"));
+        verify(fileStorageService).deleteAll(objects);
+        verify(storedObjectRepository).deleteAll(List.of("sha256/a", "sha256/b"));
+    }
+
+    @Test
+    void keepsRowsWhoseObjectWasNotDeleted() {
+        when(storedObjectRepository.lockGarbage(any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of("sha256/a", "sha256/b"));
+        when(fileStorageService.deleteAll(anyList())).thenReturn(Set.of("sha256/b"));
+
+        assertThat(collector.collect()).isEqualTo(1);
+
+        verify(storedObjectRepository).deleteAll(List.of("sha256/b"));
+    }
+
+    @Test
+    void minioFailureLeavesAllRows() {
+        when(storedObjectRepository.lockGarbage(any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of("sha256/a"));
+        when(fileStorageService.deleteAll(anyList())).thenThrow(new RuntimeException("MinIO недоступен"));
+
+        assertThatThrownBy(() -> collector.collect()).isInstanceOf(RuntimeException.class);
+
+        verify(storedObjectRepository, never()).deleteAll(anyList());
+    }
+
+    @Test
+    void orphanSweepAdoptsListedKeysInBatches() {
+        List<String> keys = IntStream.range(0, 2_500).mapToObj(i -> "sha256/" + i).toList();
+        when(fileStorageService.listKeys(eq(FileStorageService.CONTENT_PREFIX), any(ZonedDateTime.class)))
+                .thenReturn(keys);
+        when(storedObjectRepository.adoptOrphans(anyList())).thenReturn(1);
+
+        assertThat(collector.adoptOrphans()).isEqualTo(3);
+
+        verify(storedObjectRepository).adoptOrphans(keys.subList(0, 1_000));
+        verify(storedObjectRepository).adoptOrphans(keys.subList(1_000, 2_000));
+        verify(storedObjectRepository).adoptOrphans(keys.subList(2_000, 2_500));
+    }
+}
@@ -216,8 +216,19 @@ export const licenseRegistryApi = {
 // ─── Публичный реестр (без авторизации) ──────────────────────────────
 
 export const publicLicensesApi = {
+  /** Поиск, фильтры и страница считаются на сервере. */
   async listPublished(params?: {
+    /** Подстрока номера, ИНН или наименования. */
     search?: string
+    /** Виды лицензий через запятую, имена enum: COLLECTION,PROCESSING. */
+    licenseType?: string
+    status?: 'active' | 'expiring' | 'expired'
+    /** Подстрока юридического адреса. */
+    region?: string
+    /** Даты в формате YYYY-MM-DD. */
+    issuedFrom?: string
+    issuedTo?: string
+    validOn?: string
     page?: number
     size?: number
   }): Promise<{ content: License[]; totalElements: number; number: number; size: number }> {
@@ -8,10 +8,22 @@ import type {
   PublicationCategory,
   PublicationLang,
   PublicationListItem,
+  PublicationSearchHit,
 } from '../types/publications'
 
 // ─── Публичная часть (без auth) ─────────────────────────────────────
 
+/**
+ * src для обложки: копии (coverCardUrl и т.п.) приходят путём относительно
+ * API, поэтому для <img>/background формируем абсолютный URL. Если копии нет
+ * (обложка — внешний URL), используем исходный coverUrl.
+ */
+export function coverSrc(variantPath: string | null | undefined, coverUrl: string): string {
+  if (!variantPath) return coverUrl
+  const base = (api.defaults.baseURL || '').replace(/\/$/, '')
+  return `${base}${variantPath}`
+}
+
 export const publicPublicationsApi = {
   /** Лента опубликованных. */
   async list(params?: {
@@ -28,6 +40,21 @@ export const publicPublicationsApi = {
     return data
   },
 
+  /** Полнотекстовый поиск: по релевантности, с фрагментами текста. */
+  async search(params: {
+    q: string
+    category?: PublicationCategory
+    lang?: PublicationLang
+    page?: number
+    size?: number
+  }): Promise<PageResult<PublicationSearchHit>> {
+    const { data } = await api.get<PageResult<PublicationSearchHit>>(
+      '/public/publications/search',
+      { params },
+    )
+    return data
+  },
+
   /** Самая свежая - для hero-блока. Может быть null если нет публикаций. */
   async latest(lang: PublicationLang = 'ru'): Promise<PublicationListItem | null> {
     const { data } = await api.get<PublicationListItem | null>(
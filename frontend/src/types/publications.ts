@@ -21,6 +21,10 @@ export interface PublicationListItem {
   category: PublicationCategory
   authorOrg: PublicationAuthorOrg
   coverUrl: string
+  /** Уменьшенные копии обложки (путь относительно API); null для внешних URL. */
+  coverThumbUrl: string | null
+  coverCardUrl: string | null
+  coverHeroUrl: string | null
   title: string
   excerpt: string
   readMinutes: number
@@ -34,6 +38,7 @@ export interface Publication {
   category: PublicationCategory
   authorOrg: PublicationAuthorOrg
   coverUrl: string
+  coverHeroUrl: string | null
   title: string
   excerpt: string
   body: string
@@ -63,6 +68,14 @@ export interface CreatePublicationRequest {
   readMinutes?: number | null
 }
 
+/** Результат полнотекстового поиска (GET /public/publications/search). */
+export interface PublicationSearchHit {
+  publication: PublicationListItem
+  /** Отрывки текста без разметки, совпадения в <mark>. */
+  snippet: string | null
+  rank: number
+}
+
 export interface PageResult<T> {
   content: T[]
   totalElements: number